@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2013-2026 kopiLeft Services SARL, Tunis TN
+ * Copyright (c) 1990-2026 kopiRight Managed Solutions GmbH, Wien AT
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1 as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package org.kopi.galite.visual
+
+import java.util.concurrent.ConcurrentHashMap
+
+import org.jetbrains.exposed.sql.Column
+import org.jetbrains.exposed.sql.Table
+import org.jetbrains.exposed.sql.count
+import org.jetbrains.exposed.sql.max
+import org.jetbrains.exposed.sql.selectAll
+
+import org.kopi.galite.database.GroupParties
+import org.kopi.galite.database.GroupRights
+import org.kopi.galite.database.Modules
+import org.kopi.galite.database.Symbols
+import org.kopi.galite.database.UserRights
+import org.kopi.galite.util.base.Metrics
+
+/**
+ * JVM-wide cache of the modules of the menu trees and of the rights of their users.
+ *
+ * The cached values are checked against a stamp of their tables (number of rows,
+ * highest identifier and highest timestamp) read when a menu tree is loaded:
+ * inserting or deleting modules, symbols or rights refreshes them. Updates that
+ * do not change the timestamp of the rows must be followed by [invalidate].
+ *
+ * The methods reading the stamps must be called in a transaction.
+ */
+object MenuTreeCache {
+
+  private val modules = ConcurrentHashMap<String, CachedValue<List<ModuleRow>>>()
+  private val rights = ConcurrentHashMap<RightsKey, CachedValue<Map<Int, Boolean>>>()
+
+  // cache metrics
+  private val HITS = Metrics.counter("galite.menu.cache.hits")
+  private val MISSES = Metrics.counter("galite.menu.cache.misses")
+
+  /**
+   * Returns the modules of a database, ordered by priority.
+   *
+   * @param     database        the URL of the database
+   * @param     loader          reads the modules from the database
+   */
+  internal fun getModules(database: String?, loader: () -> List<ModuleRow>): List<ModuleRow> =
+    modules.lookup(database.orEmpty(),
+                   stampOf(Modules, Modules.id, Modules.ts) + stampOf(Symbols, Symbols.id, Symbols.ts),
+                   loader)
+
+  /**
+   * Returns the access rights to the modules, by module identifier.
+   *
+   * @param     database        the URL of the database
+   * @param     groupName       the group whose rights are read, if any
+   * @param     userName        the user whose rights are read, if any
+   * @param     userId          the connected user, if there is neither a group nor a user name
+   * @param     loader          reads the rights from the database
+   */
+  internal fun getRights(database: String?,
+                         groupName: String?,
+                         userName: String?,
+                         userId: Int?,
+                         loader: () -> Map<Int, Boolean>): Map<Int, Boolean> =
+    rights.lookup(RightsKey(database.orEmpty(), groupName, userName, userId),
+                  stampOf(GroupRights, GroupRights.id, GroupRights.ts) +
+                    stampOf(GroupParties, GroupParties.id, GroupParties.ts) +
+                    stampOf(UserRights, UserRights.id, UserRights.ts),
+                  loader)
+
+  /**
+   * Removes the modules and the rights from the cache.
+   */
+  fun invalidate() {
+    modules.clear()
+    rights.clear()
+  }
+
+  /**
+   * Removes the rights of the users from the cache.
+   */
+  fun invalidateRights() {
+    rights.clear()
+  }
+
+  private fun <K, V> ConcurrentHashMap<K, CachedValue<V>>.lookup(key: K, stamp: List<Any?>, loader: () -> V): V {
+    val cached = get(key)
+
+    if (cached != null && cached.stamp == stamp) {
+      HITS.increment()
+      return cached.value
+    }
+    MISSES.increment()
+    return loader().also { put(key, CachedValue(stamp, it)) }
+  }
+
+  private fun stampOf(table: Table, id: Column<Int>, ts: Column<Int>): List<Any?> {
+    val count = id.count()
+    val maxId = id.max()
+    val maxTs = ts.max()
+    val row = table.slice(count, maxId, maxTs).selectAll().single()
+
+    return listOf(row[count], row[maxId], row[maxTs])
+  }
+
+  private class CachedValue<V>(val stamp: List<Any?>, val value: V)
+
+  private data class RightsKey(val database: String,
+                               val groupName: String?,
+                               val userName: String?,
+                               val userId: Int?)
+
+  /**
+   * A module as read from the database. A new [Module] is created for each menu tree
+   * since its accessibility and its localization depend on the user.
+   */
+  internal class ModuleRow(val id: Int,
+                           val parent: Int,
+                           val shortName: String,
+                           val sourceName: String,
+                           val objectName: String?,
+                           val priority: Int,
+                           val icon: String?) {
+
+    fun toModule(): Module = Module(id, parent, shortName, sourceName, objectName, Module.ACS_PARENT, priority, icon)
+  }
+}
@@ -20,8 +20,8 @@ package org.kopi.galite.visual
 
 import java.util.Locale
 
-import org.kopi.galite.visual.base.ExtendedMessageFormat
 import org.kopi.galite.visual.l10n.LocalizationManager
+import org.kopi.galite.visual.l10n.LocalizedFormats
 import org.kopi.galite.util.base.InconsistencyException
 
 /**
@@ -70,9 +70,7 @@ object Message {
       LocalizationManager(Locale.getDefault(), null)
     }
     return try {
-      //   Within a String, "''" represents a single quote in java.text.MessageFormat.
-      val format = manager!!.getMessageLocalizer(source, ident).getText().replace("'", "''")
-      ExtendedMessageFormat.formatMessage(format, params)
+      LocalizedFormats.getMessageFormat(manager!!, source, ident, Locale.getDefault(Locale.Category.FORMAT)).format(params)
     } catch (e: InconsistencyException) {
       System.err.println("ERROR: " + e.message)
       "!$ident!"
@@ -21,8 +21,8 @@ package org.kopi.galite.visual
 import java.util.Locale
 import java.util.regex.Pattern
 
-import org.kopi.galite.visual.base.ExtendedMessageFormat
 import org.kopi.galite.visual.l10n.LocalizationManager
+import org.kopi.galite.visual.l10n.LocalizedFormats
 import org.kopi.galite.util.base.InconsistencyException
 
 /**
@@ -72,10 +72,9 @@ object MessageCode {
     return try {
       val manager = LocalizationManager(ApplicationContext.getDefaultLocale(), Locale.getDefault())
 
-      // Within a String, "''" represents a single quote in java.text.MessageFormat.
-      val format = manager.getMessageLocalizer(src, ident).getText().replace("'", "''")
-      val messageFormat = ExtendedMessageFormat(format, ApplicationContext.getDefaultLocale())
-      (if (withKey) "$key: " else "") + messageFormat.formatMessage(params)
+      val format = LocalizedFormats.getMessageFormat(manager, src, ident, ApplicationContext.getDefaultLocale())
+
+      (if (withKey) "$key: " else "") + format.format(params)
     } catch (e: InconsistencyException) {
       ApplicationContext.reportTrouble(
         "localize MessageCode",
@@ -18,6 +18,9 @@
 
 package org.kopi.galite.visual
 
+import java.lang.reflect.InvocationTargetException
+import java.util.concurrent.ConcurrentHashMap
+
 import kotlin.jvm.Throws
 
 import org.kopi.galite.visual.base.Image
@@ -26,6 +29,7 @@ import org.kopi.galite.visual.dsl.common.Window
 import org.kopi.galite.visual.l10n.LocalizationManager
 import org.kopi.galite.visual.l10n.ModuleLocalizer
 import org.kopi.galite.util.base.InconsistencyException
+import org.kopi.galite.util.base.Metrics
 
 /**
  * Represents an Module.
@@ -138,14 +142,27 @@ class Module(val id: Int,
   }
 
   companion object {
+    /**
+     * Returns a new executable instance of a module object.
+     *
+     * The class of the object and its constructor are looked up once per JVM.
+     * The localization of the forms is read from the shared localization catalog,
+     * so that creating a form only builds its own model.
+     *
+     * @param     objectName      the qualified name of the object class
+     */
     fun getExecutable(objectName: String?): Executable {
       return try {
-        val instance = Class.forName(objectName).kotlin.objectInstance ?: Class.forName(objectName).newInstance()
+        val instance = getFactory(objectName!!)()
         return if(instance is Window) {
           instance.model
         } else {
           instance as Executable
         }
+      } catch (ite: InvocationTargetException) {
+        throw ite.targetException
+      } catch (nsme: NoSuchMethodException) {
+        throw VRuntimeException(nsme)
       } catch (iae: IllegalAccessException) {
         throw VRuntimeException(iae)
       } catch (ie: InstantiationException) {
@@ -155,6 +172,24 @@ class Module(val id: Int,
       }
     }
 
+    /**
+     * Returns the function creating the instances of a module object: the object
+     * itself when it is a Kotlin object, a new instance of its class otherwise.
+     */
+    private fun getFactory(objectName: String): () -> Any =
+      factories.computeIfAbsent(objectName) {
+        val objectClass = Class.forName(objectName)
+        val objectInstance = objectClass.kotlin.objectInstance
+
+        if (objectInstance != null) {
+          return@computeIfAbsent { objectInstance }
+        }
+
+        val constructor = objectClass.getDeclaredConstructor()
+
+        return@computeIfAbsent { constructor.newInstance() }
+      }
+
     @JvmOverloads
     @Throws(VException::class)
     fun startForm(ctxt: Connection,
@@ -167,13 +202,15 @@ class Module(val id: Int,
           Thread.yield()
         }
 
-        val form: Executable = getExecutable(objectName)
+        FORM_OPEN_TIMER.time {
+          val form: Executable = getExecutable(objectName)
 
-        if (form is VWindow) {
-          form.smallIcon = icon
+          if (form is VWindow) {
+            form.smallIcon = icon
+          }
+          form.doNotModal()
+          form
         }
-        form.doNotModal()
-        form
       } catch (v: VException) {
         v.printStackTrace()
         throw v
@@ -196,6 +233,11 @@ class Module(val id: Int,
     // ---------------------------------------------------------------------
     // DATA MEMBERS
     // ---------------------------------------------------------------------
+    private val factories = ConcurrentHashMap<String, () -> Any>()
+
+    // form opening metrics
+    private val FORM_OPEN_TIMER = Metrics.timer("galite.form.open")
+
     const val ACS_PARENT = 0
     const val ACS_TRUE = 1
     const val ACS_FALSE = 2
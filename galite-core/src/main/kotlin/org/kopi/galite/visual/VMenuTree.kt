@@ -26,17 +26,24 @@ import javax.swing.tree.TreeNode
 
 import kotlin.system.exitProcess
 
+import org.jetbrains.exposed.sql.Column
+import org.jetbrains.exposed.sql.Op
 import org.jetbrains.exposed.sql.Query
 import org.jetbrains.exposed.sql.SortOrder
+import org.jetbrains.exposed.sql.SqlExpressionBuilder
 import org.jetbrains.exposed.sql.SqlExpressionBuilder.eq
 import org.jetbrains.exposed.sql.SqlExpressionBuilder.eqSubQuery
+import org.jetbrains.exposed.sql.alias
 import org.jetbrains.exposed.sql.and
 import org.jetbrains.exposed.sql.deleteWhere
 import org.jetbrains.exposed.sql.innerJoin
 import org.jetbrains.exposed.sql.insert
+import org.jetbrains.exposed.sql.intLiteral
+import org.jetbrains.exposed.sql.leftJoin
 import org.jetbrains.exposed.sql.nextIntVal
 import org.jetbrains.exposed.sql.select
 import org.jetbrains.exposed.sql.selectAll
+import org.jetbrains.exposed.sql.unionAll
 
 import org.kopi.galite.database.Connection
 import org.kopi.galite.database.FavoritesId
@@ -88,14 +95,14 @@ class VMenuTree constructor(ctxt: Connection? = ApplicationContext.getDBConnecti
 
   companion object {
 
-    private val SELECT_MODULES = Modules.slice(
+    private val SELECT_MODULES = Modules.leftJoin(Symbols, { symbol }, { id }).slice(
       Modules.id,
       Modules.parent,
       Modules.shortName,
       Modules.sourceName,
       Modules.objectName,
       Modules.priority,
-      Modules.symbol
+      Symbols.objectName
     ).selectAll().orderBy(Modules.priority to SortOrder.DESC)
 
     const val CMD_QUIT = 0
@@ -115,6 +122,8 @@ class VMenuTree constructor(ctxt: Connection? = ApplicationContext.getDBConnecti
                                      RootMenu(USER_MENU, "user"),
                                      RootMenu(ADMIN_MENU, "admin"))
     private const val MENU_LOCALIZATION_RESOURCE = "org/kopi/galite/visual/Menu"
+    private const val GROUP_RIGHTS = 0 // the rows of the rights of the groups
+    private const val USER_RIGHTS = 1 // the rows of the rights of the user
 
     init {
       WindowController.windowController.registerWindowBuilder(Constants.MDL_MENU_TREE, object : WindowBuilder {
@@ -349,80 +358,95 @@ class VMenuTree constructor(ctxt: Connection? = ApplicationContext.getDBConnecti
   }
 
   /**
-   * Fetches the modules from the database.
+   * Fetches the modules and their symbols from the database, or from the cache
+   * when the modules have not changed.
    */
   private fun fetchModules(isUnicode: Boolean): MutableList<Module> {
     val localModules: ArrayList<Module> = ArrayList()
-    var icon: String? = null
-
-    transaction {
-      SELECT_MODULES.forEach {
-        if (it[Modules.symbol] != null && it[Modules.symbol] != 0) {
-          val symbol = it[Modules.symbol] as Int
-
-          Symbols.select { Symbols.id eq symbol }.forEach { res ->
-            icon = res[Symbols.objectName]
-          }
+    val rows = transaction {
+      MenuTreeCache.getModules(dBConnection?.url) {
+        SELECT_MODULES.map {
+          MenuTreeCache.ModuleRow(it[Modules.id],
+                                  it[Modules.parent],
+                                  it[Modules.shortName],
+                                  it[Modules.sourceName],
+                                  it[Modules.objectName],
+                                  it[Modules.priority],
+                                  it.getOrNull(Symbols.objectName))
         }
-
-        val module = Module(it[Modules.id],
-                            it[Modules.parent],
-                            it[Modules.shortName],
-                            it[Modules.sourceName],
-                            it[Modules.objectName],
-                            Module.ACS_PARENT,
-                            it[Modules.priority],
-                            icon)
-
-        localModules.add(module)
-        items.add(module)
       }
     }
+
+    rows.forEach {
+      val module = it.toModule()
+
+      localModules.add(module)
+      items.add(module)
+    }
     return localModules
   }
 
-  private fun fetchGroupRightsByUserId(modules: List<Module>) {
-    when {
-      groupName != null -> {
-        fetchRights(
-          modules,
-          Modules
-            .innerJoin(GroupRights.innerJoin(GroupParties, { group }, { group }), { id }, { GroupRights.module })
-            .slice(Modules.id, GroupRights.access, Modules.priority)
-            .select { GroupParties.user inSubQuery (Groups.slice(Groups.id).select { Groups.shortName eq groupName }) }
-            .orderBy(Modules.priority to SortOrder.ASC, Modules.id to SortOrder.ASC)
-            .withDistinct()
-        )
-      }
-      menuTreeUser != null -> {
-        fetchRights(
-          modules,
-          Modules
-            .innerJoin(GroupRights.innerJoin(GroupParties, { group }, { group }), { id }, { GroupRights.module })
-            .slice(Modules.id, GroupRights.access, Modules.priority)
-            .select { GroupParties.user inSubQuery (Users.slice(Users.id).select { Users.shortName eq menuTreeUser }) }
-            .orderBy(Modules.priority to SortOrder.ASC, Modules.id to SortOrder.ASC)
-            .withDistinct()
-        )
+  /**
+   * Fetches the access rights of the user to the modules from the database, or from
+   * the cache when the rights have not changed.
+   */
+  private fun loadRights(): Map<Int, Boolean> =
+    MenuTreeCache.getRights(dBConnection?.url,
+                            groupName,
+                            menuTreeUser,
+                            if (groupName == null && menuTreeUser == null) getUserID() else null) {
+      val rights = HashMap<Int, Boolean>()
+
+      if (groupName != null) {
+        fetchGroupRightsByGroupId(rights)
+      } else {
+        fetchGroupAndUserRights(rights)
       }
-      else -> {
-        fetchRights(
-          modules,
-          Modules
-            .innerJoin(GroupRights.innerJoin(GroupParties, { group }, { group }), { id }, { GroupRights.module })
-            .slice(Modules.id, GroupRights.access, Modules.priority)
-            .select { GroupParties.user eq getUserID() }
-            .orderBy(Modules.priority to SortOrder.ASC, Modules.id to SortOrder.ASC)
-            .withDistinct()
-        )
+      rights
+    }
+
+  /**
+   * Fetches the rights of the groups of the user and the rights of the user in a
+   * single query. The rights of the user override the rights of its groups.
+   */
+  private fun fetchGroupAndUserRights(rights: MutableMap<Int, Boolean>) {
+    val source = intLiteral(GROUP_RIGHTS).alias("SOURCE")
+    val groupRights = GroupRights.innerJoin(GroupParties, { group }, { group })
+      .slice(GroupRights.module, GroupRights.access, source)
+      .select { isMenuTreeUser(GroupParties.user) }
+    val userRights = UserRights
+      .slice(UserRights.module, UserRights.access, intLiteral(USER_RIGHTS).alias("SOURCE"))
+      .select { isMenuTreeUser(UserRights.user) }
+    val overriding = HashMap<Int, Boolean>()
+
+    transaction {
+      // the rows of the union are read with the columns of its first query
+      groupRights.unionAll(userRights).forEach {
+        if (it[source] == USER_RIGHTS) {
+          overriding[it[GroupRights.module]] = it[GroupRights.access]
+        } else {
+          rights[it[GroupRights.module]] = it[GroupRights.access]
+        }
       }
     }
+    rights.putAll(overriding)
   }
 
-  private fun fetchGroupRightsByGroupId(modules: List<Module>) {
+  /**
+   * Returns the condition selecting the rows of the user of this menu tree.
+   */
+  private fun SqlExpressionBuilder.isMenuTreeUser(user: Column<Int>): Op<Boolean> =
+    if (menuTreeUser != null) {
+      user inSubQuery Users.slice(Users.id).select { Users.shortName eq menuTreeUser }
+    } else {
+      user eq getUserID()
+    }
+
+  private fun fetchGroupRightsByGroupId(rights: MutableMap<Int, Boolean>) {
     when {
       groupName != null -> {
-        fetchRights(modules,
+        fetchRights(rights,
+                    GroupRights.access,
                     Modules.innerJoin(GroupRights, { id }, { module })
                       .slice(Modules.id, GroupRights.access, Modules.priority)
                       .select {
@@ -432,7 +456,8 @@ class VMenuTree constructor(ctxt: Connection? = ApplicationContext.getDBConnecti
                       .withDistinct())
       }
       menuTreeUser != null -> {
-        fetchRights(modules,
+        fetchRights(rights,
+                    GroupRights.access,
                     Modules.innerJoin(GroupRights, { id }, { module })
                       .slice(Modules.id, GroupRights.access, Modules.priority)
                       .select {
@@ -442,7 +467,8 @@ class VMenuTree constructor(ctxt: Connection? = ApplicationContext.getDBConnecti
                       .withDistinct())
       }
       else -> {
-        fetchRights(modules,
+        fetchRights(rights,
+                    GroupRights.access,
                     Modules.innerJoin(GroupRights, { id }, { module })
                       .slice(Modules.id, GroupRights.access, Modules.priority)
                       .select { (GroupRights.group eq getUserID()) }
@@ -452,53 +478,12 @@ class VMenuTree constructor(ctxt: Connection? = ApplicationContext.getDBConnecti
     }
   }
 
-  private fun fetchUserRights(modules: List<Module>) {
-    when {
-      groupName != null -> {
-        fetchRights(modules,
-                    Modules.innerJoin(UserRights, { id }, { module })
-                      .slice(Modules.id, UserRights.access, Modules.priority)
-                      .select {
-                        (UserRights.user inSubQuery ( Groups.slice(Groups.id).select { Groups.shortName eq groupName }))
-                      }
-                      .orderBy(Modules.priority to SortOrder.ASC, Modules.id to SortOrder.ASC))
-      }
-      menuTreeUser != null -> {
-        fetchRights(modules,
-                    Modules.innerJoin(UserRights, { id }, { module })
-                      .slice(Modules.id, UserRights.access, Modules.priority)
-                      .select {
-                        (UserRights.user inSubQuery (Users.slice(Users.id).select { Users.shortName eq menuTreeUser }))
-                      }
-                      .orderBy(Modules.priority to SortOrder.ASC, Modules.id to SortOrder.ASC))
-      }
-      else -> {
-        fetchRights(modules,
-                    Modules.innerJoin(UserRights, { id }, { module })
-                      .slice(Modules.id, UserRights.access, Modules.priority)
-                      .select { UserRights.user eq getUserID() }
-                      .orderBy(Modules.priority to SortOrder.ASC, Modules.id to SortOrder.ASC))
-      }
-    }
-  }
-
-  private fun fetchRights(modules: List<Module>, query: Query) {
+  private fun fetchRights(rights: MutableMap<Int, Boolean>, access: Column<Boolean>, query: Query) {
     transaction {
       query.forEach {
-        val module = findModuleById(modules, it[Modules.id])
-
-        module?.accessibility = if (it[UserRights.access]) Module.ACS_TRUE else Module.ACS_FALSE
-      }
-    }
-  }
-
-  private fun findModuleById(modules: List<Module>, id: Int): Module? {
-    modules.forEach { module ->
-      if (module.id == id) {
-        return module
+        rights[it[Modules.id]] = it[access]
       }
     }
-    return null
   }
 
   /**
@@ -529,11 +514,15 @@ class VMenuTree constructor(ctxt: Connection? = ApplicationContext.getDBConnecti
 
     transaction {
       localModules = fetchModules(ApplicationConfiguration.getConfiguration()!!.isUnicodeDatabase())
-      if (groupName != null) {
-        fetchGroupRightsByGroupId(localModules)
-      } else {
-        fetchGroupRightsByUserId(localModules)
-        fetchUserRights(localModules)
+
+      val rights = loadRights()
+
+      localModules.forEach { module ->
+        val access = rights[module.id]
+
+        if (access != null) {
+          module.accessibility = if (access) Module.ACS_TRUE else Module.ACS_FALSE
+        }
       }
       if (loadFavorites) {
         fetchFavorites()
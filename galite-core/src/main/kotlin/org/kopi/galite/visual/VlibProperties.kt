@@ -18,10 +18,10 @@
 
 package org.kopi.galite.visual
 
-import java.text.MessageFormat
 import java.util.Locale
 
 import org.kopi.galite.visual.l10n.LocalizationManager
+import org.kopi.galite.visual.l10n.LocalizedFormats
 import org.kopi.galite.util.base.InconsistencyException
 
 /**
@@ -55,21 +55,19 @@ object VlibProperties {
   }
 
   fun getString(key: String, params: Any?): String {
-    val format: String?
     val manager = if (ApplicationContext.getLocalizationManager() != null) {
       ApplicationContext.getLocalizationManager()
     } else {
       LocalizationManager(Locale.getDefault(), null)
     }
     return try {
-      // Within a String, "''" represents a single quote in java.text.MessageFormat.
-      format = manager!!.getPropertyLocalizer(VLIB_PROPERTIES_RESOURCE_FILE, key).getValue().replace("'", "''")
+      val format = LocalizedFormats.getPropertyFormat(manager!!,
+                                                      VLIB_PROPERTIES_RESOURCE_FILE,
+                                                      key,
+                                                      Locale.getDefault(Locale.Category.FORMAT))
 
-      if (params is Array<*>) {
-        MessageFormat.format(format, *params)
-      } else {
-        MessageFormat.format(format, params)
-      }
+      @Suppress("UNCHECKED_CAST")
+      format.format(if (params is Array<*>) params as Array<Any?> else arrayOf(params))
 
     } catch (e: InconsistencyException) {
       ApplicationContext.reportTrouble(
@@ -18,12 +18,19 @@
 package org.kopi.galite.visual.cross
 
 import java.awt.event.KeyEvent
+import java.io.BufferedWriter
+import java.io.File
+import java.io.FileOutputStream
+import java.io.OutputStreamWriter
 import java.math.BigDecimal
 import java.sql.SQLException
+import java.time.LocalDate
+import java.time.format.DateTimeFormatter
 
 import org.jetbrains.exposed.sql.Table
 import org.jetbrains.exposed.sql.select
 import org.jetbrains.exposed.sql.selectAll
+import org.kopi.galite.visual.database.FetchPolicy
 import org.kopi.galite.visual.database.transaction
 import org.kopi.galite.visual.form.VBlock
 import org.kopi.galite.visual.form.VBooleanCodeField
@@ -44,6 +51,7 @@ import org.kopi.galite.visual.form.VTimestampField
 import org.kopi.galite.visual.form.VWeekField
 import org.kopi.galite.visual.report.Constants
 import org.kopi.galite.visual.report.PConfig
+import org.kopi.galite.visual.report.PExport2CSV
 import org.kopi.galite.visual.report.VBooleanCodeColumn
 import org.kopi.galite.visual.report.VBooleanColumn
 import org.kopi.galite.visual.report.VDateColumn
@@ -63,12 +71,15 @@ import org.kopi.galite.visual.report.VTimeColumn
 import org.kopi.galite.visual.report.VTimestampColumn
 import org.kopi.galite.visual.report.VWeekColumn
 import org.kopi.galite.util.base.InconsistencyException
+import org.kopi.galite.visual.ApplicationConfiguration
+import org.kopi.galite.visual.FileHandler
 import org.kopi.galite.visual.Message
 import org.kopi.galite.visual.MessageCode
 import org.kopi.galite.visual.VActor
 import org.kopi.galite.visual.VExecFailedException
+import org.kopi.galite.visual.VlibProperties
 
-class VDynamicReport(block: VBlock) : VReport() {
+class VDynamicReport private constructor(block: VBlock, loadRows: Boolean) : VReport() {
 
   // ----------------------------------------------------------------------
   // Data Members
@@ -90,8 +101,16 @@ class VDynamicReport(block: VBlock) : VReport() {
     initDefaultActors()
     initDefaultCommands()
     initColumns()
+    if (loadRows) {
+      val lines = ArrayList<Array<Any?>>()
+
+      forEachRow({ lines.clear() }) { lines.add(it) }
+      lines.forEach { model.addLine(it) }
+    }
   }
 
+  constructor(block: VBlock) : this(block, true)
+
   companion object {
     /**
      * Implements interface for COMMAND CreateDynamicReport
@@ -110,6 +129,27 @@ class VDynamicReport(block: VBlock) : VReport() {
       block.setRecordChanged(0, false)
     }
 
+    /**
+     * Exports the rows of the block to a CSV file without building a report:
+     * the rows are written as they are read from the database.
+     */
+    fun exportDynamicReport(block: VBlock) {
+      val file = FileHandler.fileHandler?.chooseFile(block.form.getDisplay()!!,
+                                                     ApplicationConfiguration.getConfiguration()!!.getDefaultDirectory(),
+                                                     "report.csv")
+
+      if (file != null) {
+        try {
+          block.form.setWaitInfo(VlibProperties.getString("export-message"))
+          VDynamicReport(block, false).exportCSV(file)
+        } catch (e: VNoRowException) {
+          block.form.error(MessageCode.getMessage("VIS-00057"))
+        } finally {
+          block.form.unsetWaitInfo()
+        }
+      }
+    }
+
     const val EXPORT_ICON = "export"
     const val FOLD_ICON = "fold"
     const val UNFOLD_ICON = "unfold"
@@ -312,7 +352,49 @@ class VDynamicReport(block: VBlock) : VReport() {
       col++
     }
     model.columns = columns.toMutableList()
+  }
+
+  /**
+   * Exports the rows of the block to a CSV file, the rows are formatted with
+   * the report columns and written without being kept in the report.
+   */
+  fun exportCSV(file: File) {
+    val visibleColumns = columns.filter { !it!!.isFolded }
+    val positions = columns.indices.filter { !columns[it]!!.isFolded }
+    var rows = 0
+    var writer: BufferedWriter? = null
+
+    try {
+      forEachRow({
+        // an aborted transaction is retried from the beginning of the file
+        writer?.close()
+        writer = BufferedWriter(OutputStreamWriter(FileOutputStream(file), "UTF-8"))
+        PExport2CSV.writeLine(writer!!, Array(visibleColumns.size) { visibleColumns[it]!!.label })
+        rows = 0
+      }) { line ->
+        PExport2CSV.writeLine(writer!!, Array(positions.size) { columns[positions[it]]!!.format(line[positions[it]]) })
+        rows += 1
+      }
+    } finally {
+      writer?.close()
+    }
+    if (rows == 0) {
+      file.delete()
+      throw VNoRowException(MessageCode.getMessage("VIS-00015"))
+    }
+    block.form.fireFileProduced(file, block.title + "_" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyyMMdd")) + ".csv")
+  }
+
+  /**
+   * Reads the rows of the report, from the block buffer if its records are fetched,
+   * from the database otherwise.
+   *
+   * @param start     called before the rows are read, again when an aborted transaction is retried
+   * @param action    called with the values of each row, in the order of the report columns
+   */
+  private fun forEachRow(start: () -> Unit, action: (Array<Any?>) -> Unit) {
     if (block.isMulti() && isFetched) {
+      start()
       for (i in 0 until block.bufferSize) {
         if (block.isRecordFilled(i)) {
           block.currentRecord = i
@@ -329,7 +411,7 @@ class VDynamicReport(block: VBlock) : VReport() {
               break
             }
           }
-          model.addLine(list.toTypedArray())
+          action(list.toTypedArray())
         }
       }
     } else {
@@ -338,6 +420,7 @@ class VDynamicReport(block: VBlock) : VReport() {
         while (true) {
           try {
             val transactionFunction = {
+              start()
               if (block.isMulti()) {
                 block.activeRecord = 0
               }
@@ -353,6 +436,7 @@ class VDynamicReport(block: VBlock) : VReport() {
               } else {
                 searchTables!!.slice(searchColumns.toList()).select(searchCondition)
               }
+              FetchPolicy.apply(query, fetchSize)
               val iterator = query.iterator()
 
               if (iterator.hasNext()) {
@@ -365,7 +449,7 @@ class VDynamicReport(block: VBlock) : VReport() {
                   for (i in fields.indices) {
                     result.add(it[searchColumns[i]])
                   }
-                  model.addLine(result.toTypedArray())
+                  action(result.toTypedArray())
                 }
               }
 
@@ -375,7 +459,7 @@ class VDynamicReport(block: VBlock) : VReport() {
                 for (i in fields.indices) {
                   result.add(it[searchColumns[i]])
                 }
-                model.addLine(result.toTypedArray())
+                action(result.toTypedArray())
               }
             }
 
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2013-2026 kopiLeft Services SARL, Tunis TN
+ * Copyright (c) 1990-2026 kopiRight Managed Solutions GmbH, Wien AT
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1 as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package org.kopi.galite.visual.database
+
+import org.jetbrains.exposed.sql.Query
+
+/**
+ * Fetch size of the queries reading records, list rows and report rows.
+ *
+ * The statements of the queries are forward-only and read-only, and they are executed
+ * in a transaction. With a fetch size, drivers like the PostgreSQL driver read the rows
+ * of such a statement by batches instead of loading the whole result before returning
+ * the first row.
+ *
+ * Blocks, lists and reports define their own fetch size, 0 meaning the number of rows
+ * they read from the query, bounded by [maximumFetchSize].
+ */
+object FetchPolicy {
+
+  /**
+   * The maximum number of rows read at once when the fetch size is not defined.
+   */
+  @Volatile
+  var maximumFetchSize: Int = 1000
+
+  /**
+   * Returns the fetch size of a query.
+   *
+   * @param fetchSize the fetch size defined by the owner of the query, 0 if it is not defined
+   * @param rows      the maximum number of rows read from the query
+   */
+  fun fetchSize(fetchSize: Int, rows: Int = Int.MAX_VALUE): Int =
+    if (fetchSize > 0) fetchSize else rows.coerceIn(1, maximumFetchSize)
+
+  /**
+   * Sets the fetch size of a query.
+   *
+   * @param query     the query
+   * @param fetchSize the fetch size defined by the owner of the query, 0 if it is not defined
+   * @param rows      the maximum number of rows read from the query
+   */
+  fun apply(query: Query, fetchSize: Int, rows: Int = Int.MAX_VALUE): Query =
+    query.fetchSize(fetchSize(fetchSize, rows))
+}
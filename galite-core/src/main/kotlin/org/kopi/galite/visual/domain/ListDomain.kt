@@ -81,6 +81,16 @@ abstract class ListDomain<T>(width: Int? = null,
    */
   private var autocompleteLength = 0
 
+  /**
+   * the maximum number of auto-complete suggestions
+   */
+  private var suggestionLimit = VList.DEFAULT_SUGGESTION_LIMIT
+
+  /**
+   * The number of rows read at once by the list queries, 0 for the number of shown rows
+   */
+  var fetchSize = 0
+
   val tableInitializer: TableInitializer = { table }
 
   /**
@@ -115,7 +125,9 @@ abstract class ListDomain<T>(width: Int? = null,
                       columns,
                       autocompleteType,
                       autocompleteLength,
-                      access != null)
+                      access != null,
+                      suggestionLimit,
+                      fetchSize)
 
   /**
    * Transforms values in capital letters.
@@ -141,10 +153,14 @@ abstract class ListDomain<T>(width: Int? = null,
    *
    * @param autocompleteType    the auto-complete type. See [AutoComplete] to get the supported types.
    * @param autocompleteLength  the auto-complete length.
+   * @param suggestionLimit     the maximum number of suggestions.
    */
-  fun complete(autocompleteType: AutoComplete, autocompleteLength: Int) {
+  fun complete(autocompleteType: AutoComplete,
+               autocompleteLength: Int,
+               suggestionLimit: Int = VList.DEFAULT_SUGGESTION_LIMIT) {
     this.autocompleteType = autocompleteType.value
     this.autocompleteLength = autocompleteLength
+    this.suggestionLimit = suggestionLimit
   }
 
   /**
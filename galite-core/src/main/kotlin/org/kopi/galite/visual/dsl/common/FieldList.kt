@@ -31,6 +31,8 @@ import org.kopi.galite.visual.list.VList
  * @param autocompleteType    The auto completion
  * @param autocompleteLength  The auto complete length
  * @param access              true if this field is only an access to a form
+ * @param suggestionLimit     The maximum number of auto complete suggestions
+ * @param fetchSize           The number of rows read at once by the list queries, 0 for the number of shown rows
  */
 class FieldList<T>(val type: String,
                    val table: TableInitializer,
@@ -38,7 +40,9 @@ class FieldList<T>(val type: String,
                    val columns: MutableList<ListDescription>,
                    val autocompleteType: Int,
                    val autocompleteLength: Int,
-                   val access: Boolean) {
+                   val access: Boolean,
+                   val suggestionLimit: Int = VList.DEFAULT_SUGGESTION_LIMIT,
+                   val fetchSize: Int = 0) {
 
   /**
    * Returns `true` if the list has a list action.
@@ -65,7 +69,10 @@ class FieldList<T>(val type: String,
             autocompleteLength,
             null, // TODO : remove this
             hasShortcut()
-    )
+    ).also {
+      it.suggestionLimit = suggestionLimit
+      it.fetchSize = fetchSize
+    }
   }
 
   // ----------------------------------------------------------------------
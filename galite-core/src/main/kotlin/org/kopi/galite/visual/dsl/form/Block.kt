@@ -86,6 +86,26 @@ open class Block(val title: String,
       block.help = value
       field = value
     }
+  var pageSize: Int = 0 // the number of records fetched at once, 0 to fetch the whole buffer
+    set(value) {
+      block.pageSize = value
+      field = value
+    }
+  var prefetchSize: Int = 0 // the number of records fetched ahead when navigating a single block
+    set(value) {
+      block.prefetchSize = value
+      field = value
+    }
+  var queryFetchSize: Int = 0 // the number of rows read at once by the block queries, 0 for the block size
+    set(value) {
+      block.queryFetchSize = value
+      field = value
+    }
+  var batchSave: Boolean = false // true to save the records of a multi block with batched statements
+    set(value) {
+      block.batchSave = value
+      field = value
+    }
 
   lateinit var shortcut: String // the shortcut of this block
   lateinit var form: Form // the form containing this block
@@ -134,6 +134,15 @@ abstract class DictionaryForm(title: String, locale: Locale? = null) : Form(titl
     VDynamicReport.createDynamicReport(this.block)
   }
 
+  /**
+   * export the rows of this block to a CSV file, without building a report
+   */
+  protected fun Block.exportDynamicReport() {
+    val field = this.block.activeField
+    field?.validate()
+    VDynamicReport.exportDynamicReport(this.block)
+  }
+
   /**
    * create a pivot table for this form
    */
@@ -71,6 +71,7 @@ open class FormField<T>(internal val block: Block,
   var alias: FormField<T>? = null // the alias of this field
   var isID: Boolean = false // the alias of this field
   var initialValues = mutableMapOf<Int, T?>()
+  var cacheList: Boolean = false // true to keep the rows of the list of this field in the list cache
   var value: T? by this
 
   private operator fun setValue(any: Any, property: KProperty<*>, value : T?) {
@@ -455,7 +456,9 @@ open class FormField<T>(internal val block: Block,
 
   fun setInfo(source: String) {
     val list = if (domain is ListDomain) {
-      (domain as ListDomain).list.buildListModel(domain.source.ifEmpty { source }, ident)
+      (domain as ListDomain).list.buildListModel(domain.source.ifEmpty { source }, ident).also {
+        it.cached = cacheList
+      }
     } else {
       null
     }
@@ -36,6 +36,7 @@ class Measure<T>(override val domain: Domain<T>,
     model = domain.buildPivotTableFieldModel(this, Dimension.Position.NONE).also { column ->
       column.label = label ?: ""
       column.help = help
+      column.isMeasure = true
     }
 
     return model
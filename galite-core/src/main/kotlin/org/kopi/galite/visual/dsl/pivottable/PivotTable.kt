@@ -203,6 +203,21 @@ abstract class PivotTable(title: String, val help: String?, locale: Locale? = nu
       model.setInteractive(value)
     }
 
+  /**
+   * True to group the rows on the server and send only the groups to the browser.
+   * It applies to the count, sum, minimum, maximum and fraction aggregators: with
+   * other aggregators, the rows are sent as they are.
+   *
+   * The pivot table must be non-interactive, see [interactive]: the groups cannot
+   * be aggregated again by the aggregators a user could choose in the browser.
+   * Building an interactive pivot table with server aggregation fails.
+   */
+  var serverAggregation: Boolean
+    get() = model.serverAggregation
+    set(value) {
+      model.setServerAggregation(value)
+    }
+
   // ----------------------------------------------------------------------
   // Pivot table MODEL
   // ----------------------------------------------------------------------
@@ -22,7 +22,10 @@ import java.io.IOException
 import java.util.Locale
 import org.jetbrains.exposed.sql.ExpressionWithColumnType
 import org.jetbrains.exposed.sql.Op
+import org.jetbrains.exposed.sql.Query
+import org.jetbrains.exposed.sql.ResultRow
 
+import org.kopi.galite.visual.database.FetchPolicy
 import org.kopi.galite.visual.domain.Domain
 import org.kopi.galite.visual.dsl.common.Action
 import org.kopi.galite.visual.dsl.common.LocalizationWriter
@@ -38,7 +41,7 @@ import org.kopi.galite.visual.util.PrintJob
 import org.kopi.galite.visual.ApplicationContext
 
 /**
- * Represents a report that contains fields [fields] and displays a table of [reportRows].
+ * Represents a report that contains fields [fields] and displays a table of rows.
 
  * @param title The title of this form.
  * @param help The help text.
@@ -51,8 +54,15 @@ abstract class Report(title: String, val help: String?, locale: Locale? = null)
   /** Report's fields. */
   val fields = mutableListOf<ReportField<*>>()
 
-  /** Report's data rows. */
-  val reportRows = mutableListOf<ReportRow>()
+  /**
+   * The number of rows read at once by the queries loading the report, 0 for the default
+   * of [FetchPolicy].
+   */
+  var fetchSize: Int = 0
+    set(value) {
+      model.fetchSize = value
+      field = value
+    }
 
   /**
    * creates and returns a field. It uses [init] method to initialize the field.
@@ -150,8 +160,19 @@ abstract class Report(title: String, val help: String?, locale: Locale? = null)
     val list = row.addReportLine()
     // Last null value is added for the separator column
     model.model.addLine((list + listOf(null)).toTypedArray())
+  }
 
-    reportRows.add(row)
+  /**
+   * Adds a row to the report for each row of a query. The query is read with the
+   * fetch size of the report, see [fetchSize]. It must be called in a transaction.
+   *
+   * @param query the query
+   * @param init  initializes the report row with the values of the query row.
+   */
+  fun add(query: Query, init: ReportRow.(ResultRow) -> Unit) {
+    FetchPolicy.apply(query, model.fetchSize).forEach { result ->
+      add { init(result) }
+    }
   }
 
   private fun ReportRow.addReportLine(): List<Any?> {
@@ -193,18 +214,34 @@ abstract class Report(title: String, val help: String?, locale: Locale? = null)
   }
 
   /**
-   * Returns the row's data.
+   * Returns the row's data. The returned map is a copy: changing it does not change the report.
    *
    * @param rowNumber the index of the desired row.
    */
-  fun getRow(rowNumber: Int): MutableMap<ReportField<*>, Any?> = reportRows[rowNumber].data
+  fun getRow(rowNumber: Int): Map<ReportField<*>, Any?> {
+    val row = mutableMapOf<ReportField<*>, Any?>()
+
+    fields.forEach { field ->
+      model.model.getLineValueAt(rowNumber, getColumnIndex(field))?.let { row[field] = it }
+    }
+    return row
+  }
 
   /**
    * Returns rows of data for a specific [field].
    *
    * @param field the field.
    */
-  fun getRowsForField(field: ReportField<*>) = reportRows.map { it.data[field] }
+  fun getRowsForField(field: ReportField<*>): List<Any?> {
+    val index = getColumnIndex(field)
+
+    return List(model.model.getLineCount()) { model.model.getLineValueAt(it, index) }
+  }
+
+  /**
+   * Returns the index of the model column of a field, that is the index of its values in the rows.
+   */
+  private fun getColumnIndex(field: ReportField<*>): Int = model.model.columns.indexOf(field.model)
 
   /**
    * Adds default report commands
@@ -18,9 +18,14 @@
 
 package org.kopi.galite.visual.form
 
+import java.math.BigDecimal
 import java.sql.SQLException
 import java.util.EventListener
 import java.util.Locale
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.TimeUnit
 import javax.swing.event.EventListenerList
 
 import kotlin.math.abs
@@ -31,11 +36,18 @@ import org.jetbrains.exposed.sql.EqOp
 import org.jetbrains.exposed.sql.IntegerColumnType
 import org.jetbrains.exposed.sql.Join
 import org.jetbrains.exposed.sql.Op
+import org.jetbrains.exposed.sql.Query
+import org.jetbrains.exposed.sql.ResultRow
 import org.jetbrains.exposed.sql.Sequence
 import org.jetbrains.exposed.sql.SortOrder
 import org.jetbrains.exposed.sql.SqlExpressionBuilder.eq
+import org.jetbrains.exposed.sql.SqlExpressionBuilder.inList
+import org.jetbrains.exposed.sql.SqlExpressionBuilder.neq
 import org.jetbrains.exposed.sql.Table
+import org.jetbrains.exposed.sql.and
+import org.jetbrains.exposed.sql.batchInsert
 import org.jetbrains.exposed.sql.compoundAnd
+import org.jetbrains.exposed.sql.compoundOr
 import org.jetbrains.exposed.sql.deleteWhere
 import org.jetbrains.exposed.sql.insert
 import org.jetbrains.exposed.sql.intLiteral
@@ -43,6 +55,7 @@ import org.jetbrains.exposed.sql.lowerCase
 import org.jetbrains.exposed.sql.select
 import org.jetbrains.exposed.sql.selectAll
 import org.jetbrains.exposed.sql.statements.api.ExposedBlob
+import org.jetbrains.exposed.sql.transactions.TransactionManager
 import org.jetbrains.exposed.sql.update
 import org.jetbrains.exposed.sql.upperCase
 
@@ -52,6 +65,7 @@ import org.kopi.galite.database.DBForeignKeyException
 import org.kopi.galite.database.DBInterruptionException
 import org.kopi.galite.database.Utils
 import org.kopi.galite.util.base.InconsistencyException
+import org.kopi.galite.util.base.Metrics
 import org.kopi.galite.visual.Action
 import org.kopi.galite.visual.ActionHandler
 import org.kopi.galite.visual.ApplicationContext
@@ -64,10 +78,12 @@ import org.kopi.galite.visual.VDatabaseUtils
 import org.kopi.galite.visual.VException
 import org.kopi.galite.visual.VExecFailedException
 import org.kopi.galite.visual.VWindow
+import org.kopi.galite.visual.database.FetchPolicy
 import org.kopi.galite.visual.database.transaction
 import org.kopi.galite.visual.dsl.common.Trigger
 import org.kopi.galite.visual.form.VConstants.Companion.TRG_PREDEL
 import org.kopi.galite.visual.l10n.LocalizationManager
+import org.kopi.galite.visual.list.ListCache
 import org.kopi.galite.visual.list.VListColumn
 
 abstract class VBlock(var title: String,
@@ -140,6 +156,51 @@ abstract class VBlock(var title: String,
   protected var fetchCount = 0 // # of fetched records
   protected var fetchPosition = 0 // position of current record
 
+  /**
+   * The number of records fetched at once by a paged multi block, 0 if the
+   * whole buffer is fetched when the block is loaded.
+   */
+  var pageSize = 0
+
+  /**
+   * True if a paged block has records left in the database that are not loaded yet.
+   */
+  var hasMoreRecords = false
+    private set
+
+  /**
+   * The number of complete records fetched at once when navigating through the
+   * records of a single block, 0 to fetch them one by one.
+   * The prefetched records are kept until the block is cleared, loaded or saved.
+   * A prefetched record is read again if its UC or TS changed in the database.
+   */
+  var prefetchSize = 0
+
+  /**
+   * The number of rows read at once by the queries of this block, 0 to read
+   * as many rows as the block can hold. See [FetchPolicy].
+   */
+  var queryFetchSize = 0
+
+  /**
+   * The number of rows fetched at once by the list dialog of the query, 0 to
+   * fetch up to [fetchSize] rows before showing the dialog.
+   */
+  var queryDialogPageSize = 100
+
+  /**
+   * True if the changed records of a multi block are saved with batched
+   * statements: the PRE triggers of all records are called and the records are
+   * validated before being written at once.
+   */
+  var batchSave = false
+
+  private val prefetchedRecords = HashMap<Int, ResultRow>() // rows fetched ahead, by ID
+  private val allocatedIds = ArrayDeque<Int>() // IDs reserved for the records inserted by save
+  private var listCacheOutdated = false // the base table was changed by the running transaction
+  private var pagedQuery: Query? = null // the query of a paged block
+  private var pagedQueryOffset = 0L // # of rows read by the query of a paged block
+
   var activeRecord = 0 // current record
     get() {
       return if (field in 0 until bufferSize) field else -1
@@ -221,6 +282,22 @@ abstract class VBlock(var title: String,
     protected const val RCI_DELETED = 0x00000004
     protected const val RCI_TRAILED = 0x00000008
 
+    // prefetch window metrics
+    private val PREFETCH_HITS = Metrics.counter("galite.block.prefetch.hits")
+    private val PREFETCH_MISSES = Metrics.counter("galite.block.prefetch.misses")
+
+    // batched save metrics
+    private val BATCH_SAVE_TIMER = Metrics.timer("galite.block.save.batch")
+    private val BATCH_SAVE_RECORDS = Metrics.counter("galite.block.save.batch.records")
+
+    // the maximum number of rows handled by a single statement of a batched save
+    private const val MAX_ROWS_PER_STATEMENT = 500
+
+    // counts the rows of the query list dialogs, a few counts at a time
+    private val COUNT_EXECUTOR = ThreadPoolExecutor(4, 4, 60, TimeUnit.SECONDS, LinkedBlockingQueue()) { runnable ->
+      Thread(runnable, "galite-query-count").also { it.isDaemon = true }
+    }.also { it.allowCoreThreadTimeOut(true) }
+
     //Inner class Order Model constants
     const val STE_UNORDERED = 1
     const val STE_INC = 2
@@ -1514,6 +1591,9 @@ abstract class VBlock(var title: String,
       clearRecordImpl(i)
     }
     fetchPosition = -1
+    prefetchedRecords.clear()
+    pagedQuery = null
+    hasMoreRecords = false
 
     // clear sorting
     for (i in sortedRecords.indices) {
@@ -1663,17 +1743,8 @@ abstract class VBlock(var title: String,
     // clear block: it will only hold the retrieved tuples
     clear()
 
-    // get index of id field in BLOCK
-    val idfld: Int = getFieldIndex(idField)
-
     // get index of id field in QUERY
-    var idqry = 0
-
-    for (i in 0 until idfld) {
-      if (fields[i].getColumnCount() > 0) {
-        idqry += 1
-      }
-    }
+    val idqry = getSearchIdColumnIndex()
 
     // open database query, fetch tuples
     val query = if (condition != null) {
@@ -1682,13 +1753,27 @@ abstract class VBlock(var title: String,
       table!!.slice(columns).selectAll().orderBy(*orderBy.toTypedArray())
     }
 
+    if (isPaged()) {
+      // the pages are read by distinct statements: the ID makes their order total
+      if (orderBy.none { it.first == idColumn }) {
+        query.orderBy(idColumn to SortOrder.ASC)
+      }
+      // only the first page is fetched now, next ones are fetched on demand
+      pagedQuery = query.copy()
+      query.limit(pageSize)
+    }
+    FetchPolicy.apply(query, queryFetchSize, if (isPaged()) pageSize else fetchSize)
+
     fetchCount = 0
 
+    var rows = 0
+
     for (result in query) {
       if (fetchCount >= fetchSize) {
         break
       }
 
+      rows += 1
       if (result[columns[idqry]] == 0) {
         continue
       }
@@ -1697,48 +1782,16 @@ abstract class VBlock(var title: String,
 
       if (fetchCount >= bufferSize) {
         fetchCount += 1
-      } else {
-        var i = 0
-        var j = 0
-        while (i < fields.size) {
-          if (fields[i].getColumnCount() > 0) {
-            fields[i].setQuery(fetchCount, result, columns[j])
-            j += 1
-          }
-          i++
-        }
-
-        setRecordFetched(fetchCount, true)
-        setRecordChanged(fetchCount, false)
-        setRecordDeleted(fetchCount, false)
-
-        try {
-          if (isMulti()) {
-            activeRecord = fetchCount
-          }
-          callProtectedTrigger(VConstants.TRG_POSTQRY)
-          if (isMulti()) {
-            activeRecord = -1
-          }
-
-          fetchCount += 1
-        } catch (e: VException) {
-          if (isMulti()) {
-            activeRecord = -1
-          }
-
-          if (e is VSkipRecordException) {
-            clearRecordImpl(fetchCount)
-          } else {
-            clear()
-            throw e
-          }
-        } catch (t: Throwable) {
-          t.printStackTrace()
-        }
+      } else if (fillRecord(fetchCount, result, columns)) {
+        fetchCount += 1
       }
     }
 
+    if (isPaged()) {
+      pagedQueryOffset = rows.toLong()
+      hasMoreRecords = rows == pageSize && fetchCount < bufferSize
+    }
+
     fetchPosition = 0
     // !!! REMOVE setActiveRecord(0);
     if (!isMulti() && fetchCount == 0) {
@@ -1749,11 +1802,164 @@ abstract class VBlock(var title: String,
     fireBlockChanged()
   }
 
+  /**
+   * Loads the next page of a paged multi block from database into the
+   * free records of the buffer, following the current record order.
+   *
+   * @return true if at least one record has been loaded.
+   * @exception VException      an exception may be raised by triggers or
+   *                            if the page cannot be read from database
+   */
+  fun loadNextPage(): Boolean {
+    val query = pagedQuery
+
+    if (!hasMoreRecords || query == null) {
+      return false
+    }
+
+    val columns = getSearchColumns()
+    val idqry = getSearchIdColumnIndex()
+    val freeRecords = sortedRecords.filter { !isRecordFetched(it) && !isRecordChanged(it) && !isRecordDeleted(it) }
+
+    if (freeRecords.isEmpty()) {
+      hasMoreRecords = false
+      return false
+    }
+
+    val fetched = fetchCount
+    var loaded = 0
+    var rows = 0
+
+    while (true) {
+      try {
+        form.transaction(Message.getMessage("loading_record")) {
+          val page = query.copy().limit(pageSize.coerceAtMost(freeRecords.size), pagedQueryOffset)
+
+          // a retried transaction reads the page again
+          fetchCount = fetched
+          loaded = 0
+          rows = 0
+          for (result in FetchPolicy.apply(page, queryFetchSize, pageSize)) {
+            rows += 1
+            if (result[columns[idqry]] == 0) {
+              continue
+            }
+            if (fillRecord(freeRecords[loaded], result, columns)) {
+              fetchBuffer[fetchCount] = result[columns[idqry]] as Int
+              fetchCount += 1
+              loaded += 1
+            }
+          }
+        }
+        break
+      } catch (e: VException) {
+        try {
+          form.handleAborted(e)
+        } catch (abortEx: VException) {
+          throw abortEx
+        }
+      } catch (e: SQLException) {
+        try {
+          form.handleAborted(e)
+        } catch (abortEx: DBDeadLockException) {
+          throw VExecFailedException(MessageCode.getMessage("VIS-00058"))
+        } catch (abortEx: DBInterruptionException) {
+          throw VExecFailedException(MessageCode.getMessage("VIS-00058"))
+        } catch (abortEx: SQLException) {
+          throw VExecFailedException(abortEx)
+        }
+      } catch (e: Error) {
+        try {
+          form.handleAborted(e)
+        } catch (abortEx: Error) {
+          throw VExecFailedException(abortEx)
+        }
+      } catch (e: RuntimeException) {
+        try {
+          form.handleAborted(e)
+        } catch (abortEx: RuntimeException) {
+          throw VExecFailedException(abortEx)
+        }
+      }
+    }
+
+    pagedQueryOffset += rows
+    hasMoreRecords = rows == pageSize && loaded < freeRecords.size
+    return loaded > 0
+  }
+
+  /**
+   * Returns the index of the ID field column in the search columns.
+   */
+  private fun getSearchIdColumnIndex(): Int {
+    // get index of id field in BLOCK
+    val idfld: Int = getFieldIndex(idField)
+
+    return (0 until idfld).count { fields[it].getColumnCount() > 0 }
+  }
+
+  /**
+   * Fills the given record with a row fetched from database.
+   *
+   * @return false if the record has been skipped by the post query trigger.
+   * @exception VException      an exception may be raised by triggers
+   */
+  private fun fillRecord(rec: Int, result: ResultRow, columns: List<Column<*>>): Boolean {
+    val previousRecord = activeRecord
+    var j = 0
+
+    fields.forEach { field ->
+      if (field.getColumnCount() > 0) {
+        field.setQuery(rec, result, columns[j])
+        j += 1
+      }
+    }
+
+    setRecordFetched(rec, true)
+    setRecordChanged(rec, false)
+    setRecordDeleted(rec, false)
+
+    try {
+      if (isMulti()) {
+        activeRecord = rec
+      }
+      callProtectedTrigger(VConstants.TRG_POSTQRY)
+      if (isMulti()) {
+        activeRecord = previousRecord
+      }
+
+      return true
+    } catch (e: VException) {
+      if (isMulti()) {
+        activeRecord = previousRecord
+      }
+
+      if (e is VSkipRecordException) {
+        clearRecordImpl(rec)
+      } else {
+        clear()
+        throw e
+      }
+    } catch (t: Throwable) {
+      t.printStackTrace()
+    }
+
+    return false
+  }
+
   /**
    * Fetches record with given ID from database.
    * @exception VException      an exception may be raised by triggers
    */
   fun fetchRecord(id: Int) {
+    fetchRecord(id, null)
+  }
+
+  /**
+   * Fetches record with given ID, from the given prefetched row if any.
+   * @exception VException      an exception may be raised by triggers
+   */
+  private fun fetchRecord(id: Int, prefetched: ResultRow?) {
     val columns = getSearchColumns()
     val table = getSearchTables()
     val condition = mutableListOf<Op<Boolean>>()
@@ -1764,7 +1970,7 @@ abstract class VBlock(var title: String,
     }
 
     try {
-      val result = table!!.slice(columns).select(condition.compoundAnd()).single()
+      val result = prefetched ?: table!!.slice(columns).select(condition.compoundAnd()).single()
 
       /* set values */
       var j = 0
@@ -1788,13 +1994,91 @@ abstract class VBlock(var title: String,
     setMode(VConstants.MOD_UPDATE)
   }
 
+  /**
+   * Returns the prefetched row of the record at the given position of the fetch buffer.
+   * If the record is not prefetched, the next records in the given direction are
+   * prefetched with one query.
+   *
+   * @return the row of the record, null if it must be read again from the database
+   */
+  private fun getPrefetchedRecord(pos: Int, incr: Int): ResultRow? {
+    val id = fetchBuffer[pos]
+    val prefetched = prefetchedRecords[id]
+
+    if (prefetched == null) {
+      PREFETCH_MISSES.increment()
+      prefetchRecords(pos, incr)
+      return prefetchedRecords[id]
+    }
+    if (isPrefetchedRecordOutdated(id, prefetched)) {
+      // updated or deleted since it was prefetched
+      PREFETCH_MISSES.increment()
+      prefetchedRecords.remove(id)
+      return null
+    }
+    PREFETCH_HITS.increment()
+    return prefetched
+  }
+
+  /**
+   * Returns true if the UC or the TS of a prefetched record changed in the database,
+   * or if the record was deleted.
+   */
+  private fun isPrefetchedRecordOutdated(id: Int, prefetched: ResultRow): Boolean {
+    val columns = listOfNotNull(ucField, tsField).map { it.lookupColumn(tables[0])!! }
+
+    if (columns.isEmpty()) {
+      return false
+    }
+
+    val current = tables[0].slice(columns).select { idColumn eq id }.singleOrNull() ?: return true
+
+    return columns.any { !prefetched.hasValue(it) || prefetched[it] != current[it] }
+  }
+
+  /**
+   * Fetches the complete records of the next IDs of the fetch buffer, starting at the given
+   * position in the given direction, with one query.
+   */
+  private fun prefetchRecords(pos: Int, incr: Int) {
+    val step = if (incr < 0) -1 else 1
+    val ids = mutableListOf<Int>()
+    var i = pos
+
+    while (i in 0 until fetchCount && ids.size < prefetchSize) {
+      if (fetchBuffer[i] != -1) {
+        ids.add(fetchBuffer[i])
+      }
+      i += step
+    }
+
+    val columns = getSearchColumns()
+    val idqry = getSearchIdColumnIndex()
+    val condition = mutableListOf<Op<Boolean>>()
+
+    condition.add(Op.build { idColumn inList ids })
+    VBlockDefaultOuterJoin.getFetchRecordCondition(fields)?.let { condition.add(it) }
+
+    prefetchedRecords.clear()
+    getSearchTables()!!.slice(columns).select(condition.compoundAnd()).forEach { result ->
+      prefetchedRecords[result[columns[idqry]] as Int] = result
+    }
+  }
+
   /**
    * Fetches next record (in given direction) in fetch buffer.
    * @exception VException      an exception may be raised by triggers
    */
   fun fetchNextRecord(incr: Int) {
     assert(!isMulti()) { "$name is a multi block" }
-    var pos: Int = fetchPosition + incr
+    fetchNextRecord(fetchPosition + incr, incr)
+  }
+
+  /**
+   * Fetches the first available record of the fetch buffer, starting at the given position.
+   */
+  private fun fetchNextRecord(start: Int, incr: Int) {
+    var pos = start
 
     while (pos in 0 until fetchCount) {
       if (fetchBuffer[pos] == -1) {
@@ -1806,7 +2090,7 @@ abstract class VBlock(var title: String,
           try {
             form.transaction(Message.getMessage("loading_record")) {
               fetchPosition = pos
-              fetchRecord(fetchBuffer[pos])
+              fetchRecord(fetchBuffer[pos], if (prefetchSize > 0) getPrefetchedRecord(pos, incr) else null)
             }
             return
           } catch (e: VException) {
@@ -1893,6 +2177,10 @@ abstract class VBlock(var title: String,
         VConstants.MOD_UPDATE -> updateRecord(0)
         else -> throw InconsistencyException("The block is neither in insert nor in update mode.")
       }
+    } else if (batchSave && !isIndexed()) {
+      BATCH_SAVE_TIMER.time {
+        saveBatch()
+      }
     } else {
       if (isIndexed()) {
         /* first delete all deleted and changed old records */
@@ -1906,36 +2194,181 @@ abstract class VBlock(var title: String,
           }
         }
       }
-      for (i in 0 until bufferSize) {
-        if (isRecordDeleted(i)) {
-          if (!isRecordFetched(i)) {
-            clearRecordImpl(i)
-          } else {
-            // IF INDEX UPDATE SET THEN RECORD ALREADY DELETED
-            if (!isIndexed()) {
-              deleteRecord(i)
-            }
-          }
-        } else if (isRecordChanged(i)) {
-          try {
+      // reserve the IDs of all new records at once
+      val insertedRecords = (0 until bufferSize).count { !isRecordDeleted(it) && isRecordChanged(it) && !isRecordFetched(it) }
+
+      if (insertedRecords > 1) {
+        allocatedIds.addAll(Utils.getNextTableIds(tables[0], idFieldName, insertedRecords, sequence).toList())
+      }
+      try {
+        for (i in 0 until bufferSize) {
+          if (isRecordDeleted(i)) {
             if (!isRecordFetched(i)) {
-              insertRecord(i, -1)
+              clearRecordImpl(i)
             } else {
-              if (isIndexed()) {
-                // !!! update with ID
-                insertRecord(i, idField.getInt(i)!!)
+              // IF INDEX UPDATE SET THEN RECORD ALREADY DELETED
+              if (!isIndexed()) {
+                deleteRecord(i)
+              }
+            }
+          } else if (isRecordChanged(i)) {
+            try {
+              if (!isRecordFetched(i)) {
+                insertRecord(i, -1)
               } else {
-                updateRecord(i)
+                if (isIndexed()) {
+                  // !!! update with ID
+                  insertRecord(i, idField.getInt(i)!!)
+                } else {
+                  updateRecord(i)
+                }
               }
+            } catch (doNothing: VSkipRecordException) {
+              activeRecord = -1
             }
-          } catch (doNothing: VSkipRecordException) {
-            activeRecord = -1
           }
         }
+      } finally {
+        allocatedIds.clear()
+      }
+    }
+    // cached lists may read the base table of the block
+    listCacheOutdated = true
+    prefetchedRecords.clear()
+  }
+
+  /**
+   * Saves the changed records of a multi block with batched statements.
+   *
+   * The deleted records are removed first. Then the PRE triggers of all inserted and
+   * updated records are called, and the lookups, the unique indices and the concurrent
+   * changes are checked for all the records before they are written with as few
+   * statements as possible. The POST triggers are called at last.
+   */
+  private fun saveBatch() {
+    val deletedRecords = mutableListOf<Int>()
+    val changedRecords = mutableListOf<Int>()
+
+    for (i in 0 until bufferSize) {
+      if (isRecordDeleted(i)) {
+        if (!isRecordFetched(i)) {
+          clearRecordImpl(i)
+        } else {
+          deletedRecords.add(i)
+        }
+      } else if (isRecordChanged(i)) {
+        changedRecords.add(i)
+      }
+    }
+
+    try {
+      deleteRecords(deletedRecords)
+
+      val savedRecords = changedRecords.filter { recno ->
+        try {
+          clearLookups(recno)
+          callRecordTriggers(recno, if (isRecordFetched(recno)) VConstants.TRG_PREUPD else VConstants.TRG_PREINS)
+          true
+        } catch (doNothing: VSkipRecordException) {
+          activeRecord = -1
+          false
+        }
+      }
+      val (updatedRecords, insertedRecords) = savedRecords.partition { isRecordFetched(it) }
+
+      /* for each lookup-table of block check if the records exist and are unique */
+      selectLookups(savedRecords)
+
+      /* check if unique index constraints are respected by all the records */
+      checkUniqueIndices(savedRecords)
+
+      /* verify that the updated records have not been changed in the database */
+      checkRecordsUnchanged(updatedRecords)
+
+      val ids = Utils.getNextTableIds(tables[0], idFieldName, insertedRecords.size, sequence)
+      val time = (System.currentTimeMillis() / 1000).toInt()
+
+      insertedRecords.forEachIndexed { index, recno ->
+        fillIdField(recno, ids[index])
+        if (!blockHasNoUcOrTsField()) {
+          ucField?.setInt(recno, 0)
+          tsField?.setInt(recno, time)
+        }
+      }
+      updatedRecords.forEach { recno ->
+        tsField?.setInt(recno, time)
+        ucField?.setInt(recno, ucField!!.getInt(recno)!! + 1)
+      }
+
+      insertedRecords.chunked(MAX_ROWS_PER_STATEMENT).forEach { records ->
+        tables[0].batchInsert(records, shouldReturnGeneratedValues = false) { recno ->
+          getRecordValues(recno, true).forEach {
+            this[it.first] = it.second
+          }
+        }
+      }
+      Utils.batchUpdate(tables[0], idColumn, updatedRecords.associate { idField.getInt(it)!! to getRecordValues(it, false) })
+      BATCH_SAVE_RECORDS.add((deletedRecords.size + savedRecords.size).toLong())
+
+      savedRecords.forEach { recno ->
+        val inserted = insertedRecords.contains(recno)
+
+        setRecordFetched(recno, true)
+        setRecordChanged(recno, false)
+        callRecordTriggers(recno, if (inserted) VConstants.TRG_POSTINS else VConstants.TRG_POSTUPD)
+      }
+    } catch (e: VException) {
+      if (form.getActiveBlock() != this) {
+        activeRecord = -1
       }
+      throw e
     }
   }
 
+  /**
+   * Deletes the given records of a multi block from database with one statement per
+   * chunk of records.
+   */
+  private fun deleteRecords(records: List<Int>) {
+    for (recno in records) {
+      callRecordTriggers(recno, TRG_PREDEL)
+
+      val id = idField.getInt(recno)!!
+
+      if (id == 0) {
+        activeRecord = recno
+        throw VExecFailedException(MessageCode.getMessage("VIS-00019"))
+      }
+      VDatabaseUtils.checkForeignKeys_(id, tables[0])
+    }
+
+    /* verify that the records have not been changed in the database */
+    checkRecordsUnchanged(records)
+    records.chunked(MAX_ROWS_PER_STATEMENT).forEach { chunk ->
+      val ids = chunk.map { idField.getInt(it)!! }
+
+      try {
+        tables[0].deleteWhere { idColumn inList ids }
+      } catch (e: DBForeignKeyException) {
+        activeRecord = chunk[0]
+        throw convertForeignKeyException(e)
+      }
+    }
+    records.forEach { clearRecord(it) }
+  }
+
+  /**
+   * Calls the given trigger of the block and of its fields on a record of a multi block.
+   */
+  private fun callRecordTriggers(recno: Int, event: Int) {
+    activeRecord = recno
+    callProtectedTrigger(event)
+    for (field in fields) {
+      field.callProtectedTrigger(event)
+    }
+    activeRecord = -1
+  }
+
   /**
    * Deletes in database
    * @exception VException      an exception may be raised by triggers
@@ -2294,6 +2727,14 @@ abstract class VBlock(var title: String,
     clearLookups(record)
     selectLookups(record)
   }
+
+  /**
+   * Refreshes the lookup fields of the given records with one query per lookup table.
+   */
+  fun refreshLookups(records: List<Int>) {
+    records.forEach { clearLookups(it) }
+    selectLookups(records)
+  }
   // ----------------------------------------------------------------------
   // BUILD A MENU FROM DB RECORDS MATCHING BLOCK SEARCH CONDITIONS
   // ----------------------------------------------------------------------
@@ -2442,38 +2883,53 @@ abstract class VBlock(var title: String,
         orderBys.add(columns[i] to SortOrder.ASC)
       }
     }
+    // the rows are read by pages: the ID makes their order total
+    orderBys.add(idColumn to SortOrder.ASC)
 
     /* query from where ? */
     val tables = getSearchTables()
     val conditions = getSearchConditions()
 
-    val values = Array(query_cnt) { arrayOfNulls<Any>(fetchSize) }
-    val ids = IntArray(fetchSize)
-    var rows = 0
-
     val query = if (conditions == null) {
       tables!!.slice(columns).selectAll().orderBy(*orderBys.toTypedArray())
     } else {
       tables!!.slice(columns).select(conditions).orderBy(*orderBys.toTypedArray())
     }
-    for (result in query) {
-      if (rows == fetchSize) {
-        break
-      }
+    val pageSize = if (queryDialogPageSize > 0) queryDialogPageSize.coerceAtMost(fetchSize) else fetchSize
+    var offset = 0L
+    var loaded = 0
 
-      /* don't show record with ID = 0 */
-      if (result[idColumn] == 0) {
-        continue
-      }
+    /* reads the rows of the query following the ones already read */
+    fun readPage(): VListDialog.Rows {
+      val limit = pageSize.coerceAtMost(fetchSize - loaded)
+      val values = Array(query_cnt) { arrayOfNulls<Any>(limit) }
+      val ids = IntArray(limit)
+      val page = query.copy().limit(limit, offset)
+      var read = 0
+      var rows = 0
 
-      ids[rows] = result[idColumn]
-      for (i in 0 until query_cnt) {
-        values[i][rows] = query_tab[i]!!.retrieveQuery(result, columns[i])
+      for (result in FetchPolicy.apply(page, queryFetchSize, limit)) {
+        read += 1
+
+        /* don't show record with ID = 0 */
+        if (result[idColumn] == 0) {
+          continue
+        }
+
+        ids[rows] = result[idColumn]
+        for (i in 0 until query_cnt) {
+          values[i][rows] = query_tab[i]!!.retrieveQuery(result, columns[i])
+        }
+        rows += 1
       }
-      rows += 1
+      offset += read
+      loaded += rows
+      return VListDialog.Rows(values, ids, rows, read < limit || loaded == fetchSize)
     }
 
-    return if (rows == 0) {
+    val first = readPage()
+
+    return if (first.rows == 0) {
       null
     } else {
       val cols = arrayOfNulls<VListColumn>(query_cnt)
@@ -2481,8 +2937,42 @@ abstract class VBlock(var title: String,
       for (i in cols.indices) {
         cols[i] = query_tab[i]!!.getListColumn()
       }
-      val dialog = VListDialog(cols, values, ids, rows)
-      if (rows == fetchSize) {
+      val dialog = VListDialog(cols, first.data, first.idents, first.rows)
+
+      if (!first.last) {
+        val db = TransactionManager.current().db
+        val countCondition = if (conditions == null) Op.build { idColumn neq 0 } else conditions and (idColumn neq 0)
+        val countQuery = tables!!.slice(idColumn).select(countCondition)
+        // the whole count is computed in its own transaction while the first page is shown,
+        // it is cancelled when the dialog is closed before
+        val rowCount = CompletableFuture<Int>()
+        val countTask = COUNT_EXECUTOR.submit(Runnable {
+          try {
+            rowCount.complete(transaction(db) { countQuery.count().coerceAtMost(fetchSize.toLong()).toInt() })
+          } catch (e: Throwable) {
+            rowCount.completeExceptionally(e)
+          }
+        })
+
+        rowCount.whenComplete { _, _ ->
+          if (rowCount.isCancelled) {
+            countTask.cancel(true)
+          }
+        }
+        dialog.setRowsLoader(rowCount) {
+          try {
+            form.transaction(Message.getMessage("searching_database")) { readPage() }.also {
+              if (loaded == fetchSize) {
+                dialog.setTooManyRows()
+              }
+            }
+          } catch (e: SQLException) {
+            throw VExecFailedException(e)
+          } catch (e: RuntimeException) {
+            throw VExecFailedException(e)
+          }
+        }
+      } else if (loaded == fetchSize) {
         dialog.setTooManyRows()
       }
       dialog
@@ -2779,6 +3269,11 @@ abstract class VBlock(var title: String,
    */
   open fun isMulti(): Boolean = bufferSize > 1
 
+  /**
+   * Returns true if this multi block fetches its records page by page.
+   */
+  fun isPaged(): Boolean = isMulti() && pageSize in 1 until bufferSize
+
   /**
    * nb field on this block
    */
@@ -2864,6 +3359,12 @@ abstract class VBlock(var title: String,
     for (i in 0 until bufferSize) {
       setRecordTrailed(i, false)
     }
+    // the cached lists are invalidated once the changes are visible to other connections
+    if (listCacheOutdated) {
+      listCacheOutdated = false
+      ListCache.invalidate(tables[0])
+      prefetchedRecords.clear()
+    }
   }
 
   /**
@@ -2872,6 +3373,7 @@ abstract class VBlock(var title: String,
   fun abortTrail() {
     var foundTrailed = false
 
+    listCacheOutdated = false
     for (i in 0 until bufferSize) {
       if (isRecordTrailed(i)) {
         copyRecord(i + bufferSize, i, false)
@@ -3120,6 +3622,17 @@ abstract class VBlock(var title: String,
     }
   }
 
+  /*
+   * For each lookup-table of block check that the record exists and is unique
+   * for all the given records, with one query per lookup table and chunk of
+   * distinct keys.
+   */
+  protected fun selectLookups(records: List<Int>) {
+    for (i in 1 until tables.size) {
+      selectLookup(tables[i], records)
+    }
+  }
+
   private fun isNullReference(table: Table, recno: Int): Boolean {
     var nullReference: Boolean
 
@@ -3212,6 +3725,84 @@ abstract class VBlock(var title: String,
     }
   }
 
+  /*
+   * Selects the records of a lookup table referenced by the given records.
+   *
+   * The records referencing the same key share the same lookup row. When a key
+   * matches no row or more than one row, the lookup is repeated for its records
+   * one by one to report the error on the right record.
+   */
+  @Suppress("UNCHECKED_CAST")
+  protected fun selectLookup(table: Table, records: List<Int>) {
+    val columns = fields.mapNotNull { it.lookupColumn(table) as Column<Any>? }
+    val keys = LinkedHashMap<List<Pair<Column<Any>, Any?>>, MutableList<Int>>()
+
+    for (recno in records) {
+      // set internal fields to null (null reference)
+      if (isNullReference(table, recno)) {
+        fields.forEach { field ->
+          if (field.isInternal() && field.lookupColumn(table) != null) {
+            field.setNull(recno)
+          }
+        }
+      } else {
+        val key = mutableListOf<Pair<Column<Any>, Any?>>()
+
+        fields.forEach { field ->
+          val column = field.lookupColumn(table) as Column<Any>?
+
+          if (column != null && (!field.isInternal() || !field.isNull(recno))) {
+            val sql = field.getSql(recno)
+
+            if (sql != "?") { // dont lookup for blobs...
+              key.add(column to sql)
+            }
+          }
+        }
+        if (key.isEmpty()) {
+          throw InconsistencyException("no conditions for table ${table.tableName}")
+        }
+        keys.getOrPut(key) { mutableListOf() }.add(recno)
+      }
+    }
+
+    // keys having the same columns are searched by the same queries
+    keys.keys.groupBy { key -> key.map { it.first } }.forEach { (keyColumns, group) ->
+      group.chunked(MAX_ROWS_PER_STATEMENT).forEach { chunk ->
+        val conditions = chunk.map { key ->
+          key.map { (column, value) ->
+            if (value == null) Op.build { column.isNull() } else Op.build { column eq value }
+          }.compoundAnd()
+        }
+        val rows = table.slice(columns).select(conditions.compoundOr()).groupBy { row ->
+          keyColumns.map { getLookupKeyValue(row[it]) }
+        }
+
+        for (key in chunk) {
+          val matches = rows[key.map { getLookupKeyValue(it.second) }]
+
+          if (matches?.size == 1) {
+            keys[key]!!.forEach { recno ->
+              fields.forEach { field ->
+                field.lookupColumn(table)?.let { field.setQuery(recno, matches[0], it) }
+              }
+            }
+          } else {
+            // missing or ambiguous lookup row: the single record lookup raises the error
+            keys[key]!!.forEach { recno ->
+              selectLookup(table, recno)
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the value used to compare a lookup key with a selected row.
+   */
+  private fun getLookupKeyValue(value: Any?): Any? = if (value is BigDecimal) value.stripTrailingZeros() else value
+
   /*
    * Checks unique index constraints
    * @exception VException      an exception may be raised by triggers
@@ -3226,6 +3817,58 @@ abstract class VBlock(var title: String,
     }
   }
 
+  /*
+   * Checks unique index constraints of the given records with one query per index
+   * and chunk of records. The records violating a constraint are searched
+   * record by record only if the query finds a conflicting row.
+   */
+  protected fun checkUniqueIndices(records: List<Int>) {
+    if (indices.isEmpty() || records.isEmpty()) {
+      return
+    }
+
+    for (index in indices.indices) {
+      val keys = HashMap<List<Pair<Column<Any>, Any>>, Int>()
+      val conditions = mutableListOf<Op<Boolean>>()
+
+      for (recno in records) {
+        val key = mutableListOf<Pair<Column<Any>, Any>>()
+
+        for (field in fields) {
+          @Suppress("UNCHECKED_CAST")
+          val column = if (field.isNull(recno) || !field.hasIndex(index)) null else field.lookupColumn(0) as? Column<Any>
+
+          if (column != null) {
+            key.add(column to field.getSql(recno)!!)
+          }
+        }
+        if (key.isNotEmpty()) {
+          // two records of the block having the same key
+          if (keys.put(key, recno) != null) {
+            form.setActiveBlock(this@VBlock)
+            activeRecord = recno
+            gotoFirstField()
+            throw VExecFailedException(MessageCode.getMessage("VIS-00014", arrayOf<Any>(indices[index])))
+          }
+
+          val condition = key.map { (column, value) -> Op.build { column eq value } }.compoundAnd()
+
+          conditions.add(if (isRecordFetched(recno)) condition and Op.build { idColumn neq idField.getInt(recno)!! } else condition)
+        }
+      }
+
+      val conflict = conditions.chunked(MAX_ROWS_PER_STATEMENT).any { chunk ->
+        !tables[0].slice(idColumn).select { chunk.compoundOr() }.empty()
+      }
+
+      if (conflict) {
+        for (recno in records) {
+          checkUniqueIndex(index, recno, if (isRecordFetched(recno)) idField.getInt(recno)!! else -1)
+        }
+      }
+    }
+  }
+
   /*
    * Checks unique index constraints
    */
@@ -3299,22 +3942,7 @@ abstract class VBlock(var title: String,
         tsField?.setInt(recno, (System.currentTimeMillis() / 1000).toInt())
       }
 
-      val result = mutableListOf<Pair<Column<Any?>, Any?>>()
-
-      for (field in fields) {
-        @Suppress("UNCHECKED_CAST")
-        val column = field.lookupColumn(0) as? Column<Any?>
-
-        if (column != null  && result.none { it.first == column }) {
-          if (field.hasLargeObject(recno) && field.hasBinaryLargeObject(recno)) {
-            if (field.getLargeObject(recno) != null) {
-              result.add(column to ExposedBlob(field.getLargeObject(recno)!!.readBytes()))
-            }
-          } else {
-            result.add(column to field.getSql(recno))
-          }
-        }
-      }
+      val result = getRecordValues(recno, true)
       val table = tables[0]
 
       table.insert { table ->
@@ -3342,13 +3970,43 @@ abstract class VBlock(var title: String,
     }
   }
 
+  /**
+   * Returns the values of the columns of the block's base table for the given record.
+   *
+   * @param     recno           the index of the record
+   * @param     withId          false if the ID column should not be returned (update)
+   */
+  private fun getRecordValues(recno: Int, withId: Boolean): List<Pair<Column<Any?>, Any?>> {
+    val result = mutableListOf<Pair<Column<Any?>, Any?>>()
+
+    for (field in fields) {
+      /* do not update ID field */
+      if (!withId && field == idField) {
+        continue
+      }
+      @Suppress("UNCHECKED_CAST")
+      val column = field.lookupColumn(0) as? Column<Any?>
+
+      if (column != null && result.none { it.first == column }) {
+        if (field.hasLargeObject(recno) && field.hasBinaryLargeObject(recno)) {
+          if (field.getLargeObject(recno) != null) {
+            result.add(column to ExposedBlob(field.getLargeObject(recno)!!.readBytes()))
+          }
+        } else {
+          result.add(column to field.getSql(recno))
+        }
+      }
+    }
+    return result
+  }
+
   /**
    * fill the field holding the ID of the block's base table.
    */
   protected fun fillIdField(recno: Int, id: Int) {
     var id = id
     if (id == -1) {
-      id = Utils.getNextTableId(tables[0], idFieldName, sequence)
+      id = allocatedIds.removeFirstOrNull() ?: Utils.getNextTableId(tables[0], idFieldName, sequence)
     }
 
     idField.setInt(recno, id)
@@ -3381,28 +4039,10 @@ abstract class VBlock(var title: String,
       /* verify that the record has not been changed in the database */
       checkRecordUnchanged(recno)
 
-      val result = mutableListOf<Pair<Column<Any?>, Any?>>()
-
       tsField?.setInt(recno, (System.currentTimeMillis() / 1000).toInt())
       ucField?.setInt(recno, ucField!!.getInt()!! + 1)
-      for (field in fields) {
-        /* do not update ID field */
-        if (field == idField) {
-          continue
-        }
-        @Suppress("UNCHECKED_CAST")
-        val column = field.lookupColumn(0) as? Column<Any?>
 
-        if (column != null) {
-          if (field.hasLargeObject(recno) && field.hasBinaryLargeObject(recno)) {
-            if (field.getLargeObject(recno) != null) {
-              result.add(column to ExposedBlob(field.getLargeObject(recno)!!.readBytes()))
-            }
-          } else {
-            result.add(column to field.getSql(recno))
-          }
-        }
-      }
+      val result = getRecordValues(recno, false)
       val table = tables[0]
 
       table.update({ idColumn eq idField.getInt(recno)!! }) { table ->
@@ -3461,6 +4101,8 @@ abstract class VBlock(var title: String,
         activeRecord = recno // also valid for single blocks
         throw convertForeignKeyException(e)
       }
+      listCacheOutdated = true
+      prefetchedRecords.clear()
       clearRecord(recno)
     } catch (e: VException) {
       if (isMulti() && form.getActiveBlock() != this) {
@@ -3517,6 +4159,48 @@ abstract class VBlock(var title: String,
     }
   }
 
+  /**
+   * Check whether the given records have been modified (deleted or updated) in the
+   * database, with one query per chunk of records.
+   */
+  private fun checkRecordsUnchanged(records: List<Int>) {
+    if (blockHasNoUcOrTsField() || records.isEmpty()) {
+      return
+    }
+
+    val table = tables[0]
+    val ucColumn = if (ucField == null) {
+      intLiteral(-1)
+    } else {
+      Column(table, "UC", IntegerColumnType())
+    }
+    val tsColumn = if (tsField == null) {
+      intLiteral(-1)
+    } else {
+      Column(table, "TS", IntegerColumnType())
+    }
+
+    records.chunked(MAX_ROWS_PER_STATEMENT).forEach { chunk ->
+      val ids = chunk.map { idField.getInt(it)!! }
+      val rows = table.slice(idColumn, ucColumn, tsColumn).select { idColumn inList ids }.associateBy { it[idColumn] }
+
+      for (recno in chunk) {
+        val row = rows[idField.getInt(recno)]
+
+        if (row == null) {
+          activeRecord = recno
+          throw VExecFailedException(MessageCode.getMessage("VIS-00018"))
+        }
+        if ((ucField != null && ucField!!.getInt(recno) != row[ucColumn])
+            || (tsField != null && tsField!!.getInt(recno) != row[tsColumn])) {
+          // record has been updated
+          activeRecord = recno
+          throw VExecFailedException(MessageCode.getMessage("VIS-00017"))
+        }
+      }
+    }
+  }
+
   /**
    * Returns true if this block has no UC and no TS field.
    * May be overridden in subclasses eg actual blocks. Note: In this case,
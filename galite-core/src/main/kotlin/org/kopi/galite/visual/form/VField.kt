@@ -22,9 +22,14 @@ import java.awt.Color
 import java.io.InputStream
 import java.math.BigDecimal
 import java.sql.SQLException
+import java.sql.Statement
 import java.time.LocalDate
 import java.time.LocalTime
 import java.time.temporal.Temporal
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
 import javax.swing.event.EventListenerList
 
 import kotlin.reflect.KClass
@@ -40,6 +45,8 @@ import org.jetbrains.exposed.sql.LessOp
 import org.jetbrains.exposed.sql.LikeEscapeOp
 import org.jetbrains.exposed.sql.NeqOp
 import org.jetbrains.exposed.sql.Op
+import org.jetbrains.exposed.sql.Query
+import org.jetbrains.exposed.sql.QueryBuilder
 import org.jetbrains.exposed.sql.ResultRow
 import org.jetbrains.exposed.sql.SortOrder
 import org.jetbrains.exposed.sql.SqlExpressionBuilder.wrap
@@ -48,12 +55,12 @@ import org.jetbrains.exposed.sql.intLiteral
 import org.jetbrains.exposed.sql.lowerCase
 import org.jetbrains.exposed.sql.select
 import org.jetbrains.exposed.sql.selectAll
+import org.jetbrains.exposed.sql.statements.jdbc.JdbcPreparedStatementImpl
 import org.jetbrains.exposed.sql.stringLiteral
 import org.jetbrains.exposed.sql.substring
 import org.jetbrains.exposed.sql.transactions.TransactionManager
 import org.jetbrains.exposed.sql.upperCase
 
-import org.kopi.galite.database.Utils
 import org.kopi.galite.type.Month
 import org.kopi.galite.type.Week
 import org.kopi.galite.util.base.InconsistencyException
@@ -69,10 +76,12 @@ import org.kopi.galite.visual.VRuntimeException
 import org.kopi.galite.visual.VWindow
 import org.kopi.galite.visual.VlibProperties
 import org.kopi.galite.visual.base.UComponent
+import org.kopi.galite.visual.database.FetchPolicy
 import org.kopi.galite.visual.database.transaction
 import org.kopi.galite.visual.dsl.form.Access
 import org.kopi.galite.visual.l10n.BlockLocalizer
 import org.kopi.galite.visual.l10n.FieldLocalizer
+import org.kopi.galite.visual.list.ListCache
 import org.kopi.galite.visual.list.VColumn
 import org.kopi.galite.visual.list.VList
 import org.kopi.galite.visual.list.VListColumn
@@ -203,6 +212,13 @@ abstract class VField protected constructor(width: Int, height: Int) : VConstant
 
   var constraintMessage: String? = null
 
+  private val suggestionRequests = AtomicLong() // # of suggestion requests made for this field
+
+  @Volatile
+  private var suggestionStatement: Statement? = null // the statement of the running suggestion query
+
+  private var pendingSuggestion: ScheduledFuture<*>? = null // the suggestion request waiting for its delay
+
   init {
     setDimension(width, height)
   }
@@ -213,6 +229,11 @@ abstract class VField protected constructor(width: Int, height: Int) : VConstant
      */
     private fun threadInfo(): String = "Thread: ${Thread.currentThread()}".trimIndent()
 
+    // delays the suggestion requests of all the fields
+    private val SUGGESTION_SCHEDULER = Executors.newSingleThreadScheduledExecutor { runnable ->
+      Thread(runnable, "galite-suggestions").also { it.isDaemon = true }
+    }
+
     const val MDL_FLD_COLOR = 1
     const val MDL_FLD_IMAGE = 2
     const val MDL_FLD_EDITOR = 3
@@ -1725,10 +1746,10 @@ abstract class VField protected constructor(width: Int, height: Int) : VConstant
             val query = table.slice(intLiteral(1)).select { column eq getSql(block!!.activeRecord) }
 
             if (alreadyProtected) {
-              exists = !query.empty()
+              exists = if (list!!.cached) ListCache.rows(query).isNotEmpty() else !query.empty()
             } else {
               getForm().transaction {
-                exists = !query.empty()
+                exists = if (list!!.cached) ListCache.rows(query).isNotEmpty() else !query.empty()
               }
             }
 
@@ -1779,13 +1800,17 @@ abstract class VField protected constructor(width: Int, height: Int) : VConstant
 
             val transaction = TransactionManager.currentOrNull()
             if (transaction != null) {
-              count = query.count().toInt()
-              if (count > 0) result = query.first()[column]
+              val rows = getListRows(query)
+
+              count = if (list!!.cached) rows.count() else query.count().toInt()
+              if (count > 0) result = rows.first()[column]
               if (count > 2) count = 2
             } else {
               getForm().transaction {
-                count = query.count().toInt()
-                if (count > 0) result = query.first()[column]
+                val rows = getListRows(query)
+
+                count = if (list!!.cached) rows.count() else query.count().toInt()
+                if (count > 0) result = rows.first()[column]
                 if (count > 2) count = 2
               }
             }
@@ -1921,12 +1946,13 @@ abstract class VField protected constructor(width: Int, height: Int) : VConstant
     }
 
     SHOW_SINGLE_ENTRY = newForm != null
+    FetchPolicy.apply(query, list!!.fetchSize, MAX_LINE_COUNT)
     try {
       while (true) {
         try {
           getForm().transaction {
             lineCount = 0
-            for (result in query) {
+            for (result in getListRows(query)) {
               if (lineCount >= MAX_LINE_COUNT - 1) {
                 break
               }
@@ -2116,8 +2142,73 @@ abstract class VField protected constructor(width: Int, height: Int) : VConstant
     }
   }
 
+  /**
+   * Starts a new suggestion request for this field. The suggestion query of the
+   * previous request is superseded and its statement is cancelled if it is running.
+   *
+   * @return the identifier of the new request, to pass to [getSuggestions].
+   */
+  fun newSuggestionRequest(): Long {
+    val request = suggestionRequests.incrementAndGet()
+
+    try {
+      suggestionStatement?.cancel()
+    } catch (e: SQLException) {
+      // the statement has already been closed
+    }
+    return request
+  }
+
+  /**
+   * Starts a new suggestion request for this field once [VList.suggestionDelay] has
+   * elapsed, so that users typing quickly trigger only the query of their last request.
+   * The waiting request of the previous call is dropped.
+   *
+   * The delay is not spent in the actions of the form: [task] is called from
+   * another thread and should only queue the suggestion query.
+   *
+   * @param task runs the suggestion query of the new request, given its identifier.
+   */
+  fun scheduleSuggestionRequest(task: (request: Long) -> Unit) {
+    val delay = list?.suggestionDelay ?: 0L
+
+    synchronized(suggestionRequests) {
+      pendingSuggestion?.cancel(false)
+      pendingSuggestion = null
+      if (delay <= 0) {
+        task(newSuggestionRequest())
+      } else {
+        // supersedes the running query right away
+        newSuggestionRequest()
+        pendingSuggestion = SUGGESTION_SCHEDULER.schedule({ task(newSuggestionRequest()) }, delay, TimeUnit.MILLISECONDS)
+      }
+    }
+  }
+
+  /**
+   * Returns the suggestion list of this field for the given request.
+   *
+   * @param query   The field content to be taken into consideration when looking for suggestions.
+   * @param request The request identifier returned by [newSuggestionRequest].
+   * @return The suggestions, or null if a newer request has been made in the meantime.
+   * @throws VException Visual exceptions related to database errors.
+   */
+  fun getSuggestions(query: String?, request: Long): Array<Array<String?>>? {
+    if (request != suggestionRequests.get()) {
+      return null
+    }
+
+    return try {
+      getSuggestions(query)?.takeIf { request == suggestionRequests.get() }
+    } catch (e: VException) {
+      // a superseded query may fail because its statement has been cancelled
+      if (request != suggestionRequests.get()) null else throw e
+    }
+  }
+
   /**
    * Returns the suggestion list of this field.
+   * The number of suggestions is limited to [VList.suggestionLimit].
    * @param query The field content to be taken into consideration when looking for suggestions.
    * @return An object array that contains two arrays : The displayed values of the suggestions
    * and the object values of the suggestions.
@@ -2138,22 +2229,26 @@ abstract class VField protected constructor(width: Int, height: Int) : VConstant
 
       val cond = when (getAutocompleteType()) {
         VList.AUTOCOMPLETE_CONTAINS -> {
-          Op.build { condition like Utils.toSql("%" + query.toLowerCase() + "%") }
+          Op.build { condition like "%" + query.lowercase() + "%" }
         }
         VList.AUTOCOMPLETE_STARTSWITH -> {
-          Op.build { condition like Utils.toSql(query.toLowerCase() + "%") }
+          Op.build { condition like query.lowercase() + "%" }
         }
         else -> {
-          Op.build { condition eq Utils.toSql(query.toString()) }
+          Op.build { condition eq query.lowercase() }
         }
       }
 
-      val query = table.slice(columns).select(cond).orderBy(columns[0])
+      val query = table.slice(columns).select(cond).orderBy(columns[0]).limit(list!!.suggestionLimit)
+
+      FetchPolicy.apply(query, list!!.fetchSize, list!!.suggestionLimit)
 
       while (true) {
         try {
           getForm().transaction {
-            query.forEach {
+            val rows = if (list!!.cached) ListCache.rows(query) else selectSuggestions(query)
+
+            rows.forEach {
               val columnsList = mutableListOf<String>()
 
               list!!.columns.forEach { column ->
@@ -2187,9 +2282,42 @@ abstract class VField protected constructor(width: Int, height: Int) : VConstant
     }
   }
 
+  /**
+   * Executes a suggestion query with a JDBC statement that can be cancelled by
+   * a newer suggestion request. The values of the query are bound as parameters.
+   */
+  private fun selectSuggestions(query: Query): List<ResultRow> {
+    val transaction = TransactionManager.current()
+    val fieldsIndex = query.set.realFields.toSet().mapIndexed { index, field -> field to index }.toMap()
+    val builder = QueryBuilder(true)
+    val statement = transaction.connection.prepareStatement(query.prepareSQL(builder), false)
+    val rows = mutableListOf<ResultRow>()
+
+    try {
+      statement.fillParameters(builder.args)
+      statement.fetchSize = query.fetchSize
+      suggestionStatement = (statement as JdbcPreparedStatementImpl).statement
+      statement.executeQuery().use { resultSet ->
+        while (resultSet.next()) {
+          rows.add(ResultRow.create(resultSet, fieldsIndex))
+        }
+      }
+    } finally {
+      suggestionStatement = null
+      statement.closeIfPossible()
+    }
+    return rows
+  }
+
   // ---------------------------------------------------------------------
   // IMPLEMENTATION
   // ---------------------------------------------------------------------
+  /**
+   * Returns the rows of a query on the list table, from the [ListCache] if the
+   * list of this field is cached.
+   */
+  private fun getListRows(query: Query): Iterable<ResultRow> = if (list!!.cached) ListCache.rows(query) else query
+
   /**
    * Returns the list table.
    */
@@ -19,6 +19,7 @@
 package org.kopi.galite.visual.form
 
 import java.time.LocalDate
+import java.util.concurrent.CompletableFuture
 
 import kotlin.math.max
 
@@ -32,11 +33,23 @@ import org.kopi.galite.visual.VModel
 import org.kopi.galite.visual.VWindow
 
 class VListDialog(list: Array<VListColumn?>,
-                  val data: Array<Array<Any?>>,
-                  val idents: IntArray,
+                  data: Array<Array<Any?>>,
+                  idents: IntArray,
                   rows: Int,
                   skipFirstLine: Boolean) : VModel {
 
+  /**
+   * The values of the loaded rows, by column
+   */
+  var data: Array<Array<Any?>> = data
+    private set
+
+  /**
+   * The identifiers of the loaded rows
+   */
+  var idents: IntArray = idents
+    private set
+
   /**
    * @return the skipFirstLine
    */
@@ -73,9 +86,10 @@ class VListDialog(list: Array<VListColumn?>,
   val titles: Array<String?>
 
   /**
-   * @return the count
+   * @return the number of loaded rows
    */
-  val count: Int
+  var count: Int
+    private set
 
   /**
    * @return the newForm
@@ -83,9 +97,25 @@ class VListDialog(list: Array<VListColumn?>,
   var newForm: VDictionary? = null
     private set
 
-  val translatedIdents: IntArray
+  var translatedIdents: IntArray
+    private set
 
   private var display: UListDialog
+  private var rowsLoader: (() -> Rows)? = null
+  private var rowCount: CompletableFuture<Int>? = null
+
+  /**
+   * True if rows are left in the database that are not loaded yet.
+   */
+  val hasMoreRows: Boolean
+    get() = rowsLoader != null
+
+  /**
+   * The number of rows of the dialog, including the ones that are not loaded yet,
+   * -1 if it is not known yet.
+   */
+  val totalCount: Int
+    get() = if (rowsLoader == null) count else rowCount?.takeIf { it.isDone && !it.isCompletedExceptionally }?.get() ?: -1
 
   /**
    * Creates a dialog with specified data
@@ -202,6 +232,61 @@ class VListDialog(list: Array<VListColumn?>,
   fun selectFromDialog(window: VWindow?, showSingleEntry: Boolean): Int =
           display.selectFromDialog((window?.getDisplay())!!, showSingleEntry)
 
+  /**
+   * Loads the rows of the dialog on demand.
+   *
+   * @param rowCount the number of rows of the dialog, computed while the first rows are shown
+   * @param loader   loads the rows following the loaded ones
+   */
+  fun setRowsLoader(rowCount: CompletableFuture<Int>?, loader: () -> Rows) {
+    this.rowCount = rowCount
+    this.rowsLoader = loader
+  }
+
+  /**
+   * Stops counting the rows of the dialog, when it is closed before the count is known.
+   */
+  fun cancelRowCount() {
+    rowCount?.cancel(true)
+  }
+
+  /**
+   * Registers an action executed once the number of rows of the dialog is known.
+   */
+  fun onTotalCount(action: (Int) -> Unit) {
+    rowCount?.thenAccept(action)
+  }
+
+  /**
+   * Loads the next rows of the dialog and appends them to the loaded ones.
+   *
+   * @return true if rows have been loaded.
+   */
+  fun loadMoreRows(): Boolean {
+    val loader = rowsLoader ?: return false
+    val next = loader()
+
+    if (next.last) {
+      rowsLoader = null
+    }
+    if (next.rows == 0) {
+      return false
+    }
+
+    val first = count + if (isSkipFirstLine) 1 else 0
+
+    data = Array(data.size) { col ->
+      data[col].copyOf(first + next.rows).also { System.arraycopy(next.data[col], 0, it, first, next.rows) }
+    }
+    idents = idents.copyOf(first + next.rows).also { System.arraycopy(next.idents, 0, it, first, next.rows) }
+    translatedIdents = translatedIdents.copyOf(count + next.rows)
+    for (i in 0 until next.rows) {
+      translatedIdents[count + i] = first + i
+    }
+    count += next.rows
+    return true
+  }
+
   /**
    * Sorts the model
    */
@@ -292,6 +377,16 @@ class VListDialog(list: Array<VListColumn?>,
 
   fun getColumnName(column: Int): String? = titles[column]
 
+  /**
+   * Rows loaded after the first rows of a dialog.
+   *
+   * @param data   the values of the rows, by column
+   * @param idents the identifiers of the rows
+   * @param rows   the number of rows
+   * @param last   true if no rows are left after these ones
+   */
+  class Rows(val data: Array<Array<Any?>>, val idents: IntArray, val rows: Int, val last: Boolean)
+
   companion object {
 
     /**
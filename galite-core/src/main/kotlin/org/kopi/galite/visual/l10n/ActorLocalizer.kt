@@ -19,42 +19,45 @@
 package org.kopi.galite.visual.l10n
 
 import org.jdom2.Document
-import org.jdom2.Element
 import org.kopi.galite.util.base.InconsistencyException
 
 /**
  * Implements an actor localizer.
  *
- * @param             document        the document containing the actor localization
+ * @param             root            the root element of the file containing the actor localization
  * @param             ident           the identifier of the actor localization
  */
-class ActorLocalizer(document: Document, ident: String) {
+class ActorLocalizer(root: LocalizationElement, ident: String) {
   /**
    * Returns the value of the label attribute.
    */
-  fun getLabel(): String = self.getAttributeValue("label")
+  fun getLabel(): String = self.getAttributeValue("label")!!
 
   /**
    * Returns the value of the help attribute.
    */
-  fun getHelp(): String = self.getAttributeValue("help")
+  fun getHelp(): String = self.getAttributeValue("help")!!
 
   // ----------------------------------------------------------------------
   // DATA MEMBERS
   // ----------------------------------------------------------------------
-  private val self: Element
+  private val self: LocalizationElement
 
   // ----------------------------------------------------------------------
   // CONSTRUCTOR
   // ----------------------------------------------------------------------
 
   init {
-    val root: Element = document.rootElement
     val names = listOf("form", "report", "chart", "insert", "pivottable") // FIXME: Do we steel need insert root element?
 
     if (root.name !in names) {
       throw InconsistencyException("bad root element $root")
     }
-    self = Utils.lookupChild(root, "actor", "ident", ident)
+    self = root.lookupChild("actor", "ident", ident)
   }
+
+  /**
+   * Constructs the localizer from a JDOM document.
+   */
+  constructor(document: Document, ident: String) : this(LocalizationElement.of(document), ident)
 }
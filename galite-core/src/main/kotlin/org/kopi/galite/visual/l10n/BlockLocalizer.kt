@@ -19,41 +19,44 @@
 package org.kopi.galite.visual.l10n
 
 import org.jdom2.Document
-import org.jdom2.Element
 import org.kopi.galite.util.base.InconsistencyException
 
 /**
  * Implements a block localizer.
  *
  * @param             manager         the manager to use for localization
- * @param             document        the document containing the block localization
+ * @param             root            the root element of the file containing the block localization
  * @param             ident           the identifier of the block
  */
 class BlockLocalizer(manager: LocalizationManager,
-                     document: Document,
+                     root: LocalizationElement,
                      ident: String) : Localizer(manager) {
 
   // ----------------------------------------------------------------------
   // DATA MEMBERS
   // ----------------------------------------------------------------------
-  private val self: Element
+  private val self: LocalizationElement
 
   // ----------------------------------------------------------------------
   // CONSTRUCTOR
   // ----------------------------------------------------------------------
   init {
-    val root: Element = document.rootElement
     val names = listOf("form", "blockinsert")
 
     if (root.name !in names) {
       throw InconsistencyException("bad root element $root")
     }
-    self = Utils.lookupChild(root, "block", "name", ident)
+    self = root.lookupChild("block", "name", ident)
   }
+
+  /**
+   * Constructs the localizer from a JDOM document.
+   */
+  constructor(manager: LocalizationManager, document: Document, ident: String) : this(manager, LocalizationElement.of(document), ident)
   /**
    * Returns the value of the title attribute.
    */
-  fun getTitle(): String = self.getAttributeValue("title")
+  fun getTitle(): String = self.getAttributeValue("title")!!
 
   /**
    * Returns the value of the help attribute.
@@ -66,8 +69,8 @@ class BlockLocalizer(manager: LocalizationManager,
    * @param             ident           the identifier of the index
    */
   fun getIndexMessage(ident: String): String {
-    val e: Element = Utils.lookupChild(self, "index", "ident", ident)
-    return e.getAttributeValue("message")
+    val e: LocalizationElement = self.lookupChild("index", "ident", ident)
+    return e.getAttributeValue("message")!!
   }
 
   /**
@@ -76,6 +79,6 @@ class BlockLocalizer(manager: LocalizationManager,
    * @param             ident           the identifier of the field
    */
   fun getFieldLocalizer(ident: String): FieldLocalizer {
-    return FieldLocalizer(manager, Utils.lookupChild(self, "field", "ident", ident))
+    return FieldLocalizer(manager, self.lookupChild("field", "ident", ident))
   }
 }
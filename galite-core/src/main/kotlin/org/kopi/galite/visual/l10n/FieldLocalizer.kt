@@ -18,12 +18,11 @@
 
 package org.kopi.galite.visual.l10n
 
-import org.jdom2.Element
 
 /**
  * Implements a field localizer.
  */
-class FieldLocalizer(manager: LocalizationManager, private val self: Element) : Localizer(manager) {
+class FieldLocalizer(manager: LocalizationManager, private val self: LocalizationElement) : Localizer(manager) {
   /**
    * Returns the value of the label attribute.
    */
@@ -19,20 +19,19 @@
 package org.kopi.galite.visual.l10n
 
 import org.jdom2.Document
-import org.jdom2.Element
 import org.kopi.galite.util.base.InconsistencyException
 
 /**
  * Implements a form localizer.
  *
- * @param             document        the document containing the form localization
+ * @param             root            the root element of the file containing the form localization
  */
-class FormLocalizer(document: Document) {
+class FormLocalizer(root: LocalizationElement) {
 
   // ----------------------------------------------------------------------
   // DATA MEMBERS
   // ----------------------------------------------------------------------
-  private val root: Element = document.rootElement
+  private val root: LocalizationElement = root
 
   // ----------------------------------------------------------------------
   // CONSTRUCTOR
@@ -43,10 +42,15 @@ class FormLocalizer(document: Document) {
     }
   }
 
+  /**
+   * Constructs the localizer from a JDOM document.
+   */
+  constructor(document: Document) : this(LocalizationElement.of(document))
+
   /**
    * Returns the value of the title attribute.
    */
-  fun getTitle(): String = root.getAttributeValue("title")
+  fun getTitle(): String = root.getAttributeValue("title")!!
 
   /**
    * Returns the value of the page child.
@@ -54,10 +58,10 @@ class FormLocalizer(document: Document) {
    * @param             position                the position of the page
    */
   fun getPage(position: Int): String {
-    val pages: List<Element> = root.getChildren("page")
+    val pages: List<LocalizationElement> = root.getChildren("page")
     pages.forEach {
       if (it.getAttributeValue("ident") == "Id$$position") {
-        return it.getAttributeValue("title")
+        return it.getAttributeValue("title")!!
       }
     }
     throw InconsistencyException("page $position not found")
@@ -69,10 +73,10 @@ class FormLocalizer(document: Document) {
    * @param             ident                the identifier of the page
    */
   fun getPage(ident: String): String {
-    val pages: List<Element> = root.getChildren("page")
+    val pages: List<LocalizationElement> = root.getChildren("page")
     pages.forEach {
       if (it.getAttributeValue("ident") == ident) {
-        return it.getAttributeValue("title")
+        return it.getAttributeValue("title")!!
       }
     }
     throw InconsistencyException("page $ident not found")
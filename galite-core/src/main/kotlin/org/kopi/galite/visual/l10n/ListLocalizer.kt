@@ -19,44 +19,47 @@
 package org.kopi.galite.visual.l10n
 
 import org.jdom2.Document
-import org.jdom2.Element
 import org.kopi.galite.util.base.InconsistencyException
 
 /**
  * Implements a list localizer.
  *
  * @param             manager         the manager to use for localization
- * @param             document        the document containing the list localization
+ * @param             root            the root element of the file containing the list localization
  * @param             ident           the identifier of the list
  */
 class ListLocalizer(manager: LocalizationManager,
-                    document: Document,
+                    root: LocalizationElement,
                     ident: String) : Localizer(manager) {
   // ----------------------------------------------------------------------
   // DATA MEMBERS
   // ----------------------------------------------------------------------
-  private val self: Element
+  private val self: LocalizationElement
 
   // ----------------------------------------------------------------------
   // CONSTRUCTOR
   // ----------------------------------------------------------------------
   init {
-    val root: Element = document.rootElement
     val names = listOf("form", "report", "blockinsert", "insert")
 
     if (root.name !in names) {
       throw InconsistencyException("bad root element $root")
     }
-    val type: Element = Utils.lookupChild(root, "type", "ident", ident)
+    val type: LocalizationElement = root.lookupChild("type", "ident", ident)
 
-    self = Utils.lookupChild(type, "list")
+    self = type.lookupChild("list")
   }
 
+  /**
+   * Constructs the localizer from a JDOM document.
+   */
+  constructor(manager: LocalizationManager, document: Document, ident: String) : this(manager, LocalizationElement.of(document), ident)
+
   /**
    * Returns the title of the specified item.
    *
    * @param             column          the identifier of the column
    */
   fun getColumnTitle(column: String): String =
-          Utils.lookupChild(self, "listdesc", "column", column).getAttributeValue("title")
+          self.lookupChild("listdesc", "column", column).getAttributeValue("title")!!
 }
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2013-2026 kopiLeft Services SARL, Tunis TN
+ * Copyright (c) 1990-2026 kopiRight Managed Solutions GmbH, Wien AT
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1 as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package org.kopi.galite.visual.l10n
+
+import java.io.BufferedInputStream
+import java.io.DataInputStream
+import java.util.Locale
+import java.util.concurrent.ConcurrentHashMap
+
+import org.jdom2.input.SAXBuilder
+import org.kopi.galite.util.base.InconsistencyException
+
+/**
+ * JVM-wide catalog of the localization files, shared by all the localization managers.
+ *
+ * Each file is loaded once for a source and a locale, from its compiled form
+ * (`Name-fr_FR.l10n`, see [LocalizationElement.write]) when it is available and
+ * from its XML form otherwise. The loaded files are immutable and can be read by
+ * several threads at the same time.
+ */
+object LocalizationCatalog {
+
+  /**
+   * The extension of the compiled localization files.
+   */
+  const val COMPILED_EXTENSION = ".l10n"
+
+  private val files = ConcurrentHashMap<CatalogKey, LocalizationElement>()
+
+  /**
+   * Returns the localization of a source in a locale.
+   *
+   * @param     source          the source qualified name
+   * @param     locale          the locale of the localization
+   * @throws    InconsistencyException if there is no localization file for the source in this locale
+   */
+  fun get(source: String, locale: Locale?): LocalizationElement =
+    // missing files are not kept in the catalog: they can be generated later
+    files.computeIfAbsent(CatalogKey(source, locale)) { load(it) }
+
+  /**
+   * Loads the localization of several sources in several locales in parallel.
+   * Missing files are ignored, they are reported when they are requested.
+   *
+   * @param     sources         the sources qualified names
+   * @param     locales         the locales of the localization
+   */
+  fun preload(sources: Collection<String>, locales: Collection<Locale>) {
+    sources.flatMap { source -> locales.map { CatalogKey(source, it) } }
+      .parallelStream()
+      .forEach { key ->
+        try {
+          get(key.source, key.locale)
+        } catch (e: InconsistencyException) {
+          // reported when the file is requested
+        }
+      }
+  }
+
+  /**
+   * Removes all the loaded files from the catalog, and the formats built from them.
+   */
+  fun clear() {
+    files.clear()
+    LocalizedFormats.clear()
+  }
+
+  /**
+   * Returns the name of the localization file of a source in a locale.
+   */
+  fun getFileName(source: String, locale: Locale?): String = source.replace('.', '/') + "-" + locale.toString() + ".xml"
+
+  private fun load(key: CatalogKey): LocalizationElement {
+    val fileName = getFileName(key.source, key.locale)
+    val classLoader = LocalizationCatalog::class.java.classLoader
+
+    return try {
+      val compiled = classLoader.getResourceAsStream(fileName.removeSuffix(".xml") + COMPILED_EXTENSION)
+
+      if (compiled != null) {
+        DataInputStream(BufferedInputStream(compiled)).use { LocalizationElement.read(it, fileName) }
+      } else {
+        val document = SAXBuilder().build(classLoader.getResourceAsStream(fileName))
+
+        // the URI is used to report the file name when a child lookup fails
+        document.baseURI = fileName
+        LocalizationElement.of(document)
+      }
+    } catch (e: Exception) {
+      throw InconsistencyException("Cannot load file " + fileName + ": " + e.message)
+    }
+  }
+
+  private data class CatalogKey(val source: String, val locale: Locale?)
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2013-2026 kopiLeft Services SARL, Tunis TN
+ * Copyright (c) 1990-2026 kopiRight Managed Solutions GmbH, Wien AT
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1 as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package org.kopi.galite.visual.l10n
+
+import java.io.DataInput
+import java.io.DataOutput
+
+import org.jdom2.Document
+import org.jdom2.Element
+import org.kopi.galite.util.base.InconsistencyException
+
+/**
+ * An immutable element of a localization file.
+ *
+ * Only the names, the attributes and the children of the elements are kept. The
+ * children are indexed by their type and by the values of their attributes, so
+ * that a localizer finds a child in constant time.
+ *
+ * @param name       the name of the element
+ * @param attributes the attributes of the element
+ * @param children   the child elements, in document order
+ * @param fileName   the name of the localization file, used in error messages
+ */
+class LocalizationElement(val name: String,
+                          private val attributes: Map<String, String>,
+                          private val children: List<LocalizationElement>,
+                          val fileName: String?) {
+
+  private val childrenByType: Map<String, List<LocalizationElement>> = children.groupBy { it.name }
+  private val index = HashMap<LookupKey, LocalizationElement>()
+
+  init {
+    children.forEach { child ->
+      child.attributes.forEach { (attribute, value) ->
+        // the first matching child is returned, as in document order
+        index.putIfAbsent(LookupKey(child.name, attribute, value), child)
+      }
+    }
+  }
+
+  /**
+   * Returns the value of an attribute, null if it is not set.
+   */
+  fun getAttributeValue(attribute: String): String? = attributes[attribute]
+
+  /**
+   * Returns the children of a given type.
+   */
+  fun getChildren(type: String): List<LocalizationElement> = childrenByType[type].orEmpty()
+
+  /**
+   * Returns the child with specified type and attribute = value.
+   */
+  fun lookupChild(type: String, attribute: String, value: String?): LocalizationElement =
+    (if (value == null) null else index[LookupKey(type, attribute, value)])
+      ?: throw InconsistencyException("$fileName: $type $attribute = $value not found")
+
+  /**
+   * Returns the child with specified type.
+   */
+  fun lookupChild(type: String): LocalizationElement {
+    val children = getChildren(type)
+
+    when {
+      children.isEmpty() -> throw InconsistencyException("$fileName: $type not found")
+      children.size > 1 -> throw InconsistencyException("$fileName: $type not unique")
+      else -> return children[0]
+    }
+  }
+
+  /**
+   * Writes this element and its children in the compiled format of the localization files.
+   */
+  fun write(output: DataOutput) {
+    output.writeUTF(name)
+    output.writeInt(attributes.size)
+    attributes.forEach { (attribute, value) ->
+      output.writeUTF(attribute)
+      output.writeUTF(value)
+    }
+    output.writeInt(children.size)
+    children.forEach { it.write(output) }
+  }
+
+  override fun toString(): String = "[Element: <$name/>]"
+
+  private data class LookupKey(val type: String, val attribute: String, val value: String)
+
+  companion object {
+
+    /**
+     * Builds the element from the root of a JDOM document.
+     */
+    fun of(document: Document): LocalizationElement = of(document.rootElement, document.baseURI)
+
+    /**
+     * Builds the element from a JDOM element.
+     *
+     * @param element  the JDOM element
+     * @param fileName the name of the localization file
+     */
+    fun of(element: Element, fileName: String?): LocalizationElement =
+      LocalizationElement(element.name,
+                          element.attributes.associate { it.name to it.value },
+                          element.children.map { of(it, fileName) },
+                          fileName)
+
+    /**
+     * Reads an element written by [write].
+     *
+     * @param input    the compiled localization file
+     * @param fileName the name of the localization file
+     */
+    fun read(input: DataInput, fileName: String?): LocalizationElement {
+      val name = input.readUTF()
+      val attributes = HashMap<String, String>()
+
+      repeat(input.readInt()) {
+        attributes[input.readUTF()] = input.readUTF()
+      }
+      return LocalizationElement(name, attributes, List(input.readInt()) { read(input, fileName) }, fileName)
+    }
+  }
+}
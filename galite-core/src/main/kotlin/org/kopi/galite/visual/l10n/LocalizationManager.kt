@@ -18,25 +18,20 @@
 
 package org.kopi.galite.visual.l10n
 
-import java.util.Hashtable
 import java.util.Locale
 
-import org.jdom2.Document
-import org.jdom2.input.SAXBuilder
 import org.kopi.galite.util.base.InconsistencyException
 
 /**
  * Implements a localization manager.
  *
+ * The localization files are read from the JVM-wide [LocalizationCatalog], so
+ * managers are cheap to create and the files are loaded once for all of them.
+ *
  * @param     locale          the locale used for localization management
  * @param     defaultLocale   the default locale used when there is no file in [locale]
  */
-class LocalizationManager(val locale: Locale?, private val defaultLocale: Locale?) {
-
-  // ----------------------------------------------------------------------
-  // DATA MEMBERS
-  // ----------------------------------------------------------------------
-  private val documents = Hashtable<String, Document>()
+class LocalizationManager(val locale: Locale?, val defaultLocale: Locale?) {
 
   /**
    * Constructs a form localizer using the specified source.
@@ -164,44 +159,22 @@ class LocalizationManager(val locale: Locale?, private val defaultLocale: Locale
   }
 
   /**
-   * Returns the document manging the given source.
+   * Returns the localization of the given source, in the default locale if
+   * there is no file for the source in the locale of this manager.
    *
    * @param     source          the source qualified name
    */
-  private fun getDocument(source: String?): Document {
-    if (!documents.containsKey(source)) {
-      documents[source] = loadDocument(source)
-    }
-    return documents[source] ?: throw InconsistencyException("Cannot find document for $source")
-  }
+  private fun getDocument(source: String?): LocalizationElement {
+    val name = source!!
 
-  /**
-   * Loads the XML document with specified qualified name in current locale.
-   *
-   * @param     source          the qualified name of the document.
-   */
-  private fun loadDocument(source: String?): Document {
-    var fileName: String
-    var document: Document
-    val builder = SAXBuilder()
-
-    fileName = source!!.replace('.', '/') + "-" + locale.toString() + ".xml"
-    try {
-      document = builder.build(LocalizationManager::class.java.classLoader.getResourceAsStream(fileName))
-    } catch (localeException: Exception) {
+    return try {
+      LocalizationCatalog.get(name, locale)
+    } catch (localeException: InconsistencyException) {
       if (defaultLocale == null) {
-        throw InconsistencyException("Cannot load file " + fileName + localeException.message)
-      }
-      System.err.println("Warning: Cannot load file " + fileName + ": " + localeException.message)
-      try {
-        fileName = source.replace('.', '/') + "-" + defaultLocale.toString() + ".xml"
-        document = builder.build(LocalizationManager::class.java.classLoader.getResourceAsStream(fileName))
-      } catch (defaultLocaleException: Exception) {
-        throw InconsistencyException("Cannot load file " + fileName + ": " + defaultLocaleException.message)
+        throw localeException
       }
+      System.err.println("Warning: " + localeException.message)
+      LocalizationCatalog.get(name, defaultLocale)
     }
-    // the URI is used to report the file name when a child lookup fails
-    document.baseURI = fileName
-    return document
   }
 }
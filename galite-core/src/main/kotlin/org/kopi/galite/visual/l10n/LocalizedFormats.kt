@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2013-2026 kopiLeft Services SARL, Tunis TN
+ * Copyright (c) 1990-2026 kopiRight Managed Solutions GmbH, Wien AT
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1 as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package org.kopi.galite.visual.l10n
+
+import java.text.MessageFormat
+import java.util.Locale
+import java.util.concurrent.ConcurrentHashMap
+
+import org.kopi.galite.visual.base.ExtendedMessageFormat
+
+/**
+ * JVM-wide cache of the parsed formats of the localized messages and properties.
+ *
+ * The formats are built once for a source, an identifier and the locales of the
+ * localization manager, from the files of the [LocalizationCatalog]. Lookup
+ * failures are not cached, they are reported on each request.
+ */
+object LocalizedFormats {
+
+  private val formats = ConcurrentHashMap<FormatKey, LocalizedFormat>()
+
+  /**
+   * Returns the format of a message.
+   *
+   * @param     manager         the manager to use for localization
+   * @param     source          the source qualified name
+   * @param     ident           the identifier of the message
+   * @param     locale          the locale used to format the parameters
+   */
+  fun getMessageFormat(manager: LocalizationManager, source: String, ident: String, locale: Locale?): LocalizedFormat =
+    formats.computeIfAbsent(FormatKey(MESSAGE, source, ident, manager.locale, manager.defaultLocale, locale)) {
+      LocalizedFormat(ExtendedMessageFormat(escape(manager.getMessageLocalizer(source, ident).getText()), locale))
+    }
+
+  /**
+   * Returns the format of a property.
+   *
+   * @param     manager         the manager to use for localization
+   * @param     source          the source qualified name
+   * @param     key             the property key
+   * @param     locale          the locale used to format the parameters
+   */
+  fun getPropertyFormat(manager: LocalizationManager, source: String, key: String, locale: Locale?): LocalizedFormat =
+    formats.computeIfAbsent(FormatKey(PROPERTY, source, key, manager.locale, manager.defaultLocale, locale)) {
+      LocalizedFormat(MessageFormat(escape(manager.getPropertyLocalizer(source, key).getValue()), locale))
+    }
+
+  /**
+   * Removes all the formats from the cache.
+   */
+  fun clear() {
+    formats.clear()
+  }
+
+  // Within a String, "''" represents a single quote in java.text.MessageFormat.
+  private fun escape(text: String): String = text.replace("'", "''")
+
+  private data class FormatKey(val type: Int,
+                               val source: String,
+                               val ident: String,
+                               val locale: Locale?,
+                               val defaultLocale: Locale?,
+                               val formatLocale: Locale?)
+
+  private const val MESSAGE = 0
+  private const val PROPERTY = 1
+}
+
+/**
+ * A parsed localized format that can be used by several threads.
+ *
+ * The text of a format without parameters is computed once.
+ */
+class LocalizedFormat internal constructor(private val format: MessageFormat) {
+
+  private val text: String? = if (format.formats.isEmpty()) apply(null) else null
+
+  /**
+   * Formats the parameters.
+   *
+   * @param     params          the parameters, null if there is none
+   */
+  fun format(params: Array<Any?>?): String = text ?: synchronized(format) { apply(params) }
+
+  private fun apply(params: Array<Any?>?): String =
+    if (format is ExtendedMessageFormat) {
+      format.formatMessage(params)
+    } else {
+      format.format(params)
+    }
+}
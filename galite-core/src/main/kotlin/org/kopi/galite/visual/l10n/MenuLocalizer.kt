@@ -19,37 +19,40 @@
 package org.kopi.galite.visual.l10n
 
 import org.jdom2.Document
-import org.jdom2.Element
 import org.kopi.galite.util.base.InconsistencyException
 
 /**
  * Implements a menu localizer.
  *
- * @param             document        the document containing the menu localization
+ * @param             root            the root element of the file containing the menu localization
  * @param             ident           the identifier of the menu localization
  */
-class MenuLocalizer(document: Document, ident: String) {
+class MenuLocalizer(root: LocalizationElement, ident: String) {
 
   // ----------------------------------------------------------------------
   // DATA MEMBERS
   // ----------------------------------------------------------------------
-  private val self: Element
+  private val self: LocalizationElement
 
   // ----------------------------------------------------------------------
   // CONSTRUCTOR
   // ----------------------------------------------------------------------
   init {
-    val root: Element = document.rootElement
     val names = listOf("form", "report", "chart", "insert", "pivottable") // FIXME: Do we steel need insert root element?
 
     if (root.name !in names) {
       throw InconsistencyException("bad root element $root")
     }
-    self = Utils.lookupChild(root, "menu", "ident", ident)
+    self = root.lookupChild("menu", "ident", ident)
   }
 
+  /**
+   * Constructs the localizer from a JDOM document.
+   */
+  constructor(document: Document, ident: String) : this(LocalizationElement.of(document), ident)
+
   /**
    * Returns the value of the label attribute.
    */
-  fun getLabel(): String = self.getAttributeValue("label")
+  fun getLabel(): String = self.getAttributeValue("label")!!
 }
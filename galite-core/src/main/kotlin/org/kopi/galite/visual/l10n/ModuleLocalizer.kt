@@ -19,33 +19,36 @@
 package org.kopi.galite.visual.l10n
 
 import org.jdom2.Document
-import org.jdom2.Element
 import org.kopi.galite.util.base.InconsistencyException
 
 /**
  * Implements an actor localizer.
  *
- * @param             document        the document containing the actor localization
+ * @param             root            the root element of the file containing the actor localization
  * @param             ident           the identifier of the actor localization
  */
-class ModuleLocalizer(document: Document, ident: String) {
+class ModuleLocalizer(root: LocalizationElement, ident: String) {
   // ----------------------------------------------------------------------
   // DATA MEMBERS
   // ----------------------------------------------------------------------
-  private val self: Element
+  private val self: LocalizationElement
 
   // ----------------------------------------------------------------------
   // CONSTRUCTOR
   // ----------------------------------------------------------------------
   init {
-    val root: Element = document.rootElement
 
     if (root.name != "modules") {
       throw InconsistencyException("bad root element $root")
     }
-    self = Utils.lookupChild(root, "module", "ident", ident)
+    self = root.lookupChild("module", "ident", ident)
   }
 
+  /**
+   * Constructs the localizer from a JDOM document.
+   */
+  constructor(document: Document, ident: String) : this(LocalizationElement.of(document), ident)
+
   /**
    * Returns the value of the label attribute.
    */
@@ -19,7 +19,6 @@
 package org.kopi.galite.visual.l10n
 
 import org.jdom2.Document
-import org.jdom2.Element
 import org.kopi.galite.util.base.InconsistencyException
 
 /**
@@ -30,8 +29,8 @@ class PropertyLocalizer {
   // ----------------------------------------------------------------------
   // DATA MEMBERS
   // ----------------------------------------------------------------------
-  private var root: Element
-  private lateinit var self: Element
+  private var root: LocalizationElement
+  private lateinit var self: LocalizationElement
 
   // ----------------------------------------------------------------------
   // CONSTRUCTOR
@@ -39,41 +38,51 @@ class PropertyLocalizer {
   /**
    * Constructor
    *
-   * @param             document        the document containing the properties localization
+   * @param             root            the root element of the file containing the properties localization
    * @param             ident           the identifier of the menu localization
    */
-  constructor(document: Document, ident: String) {
-    root = document.rootElement
+  constructor(root: LocalizationElement, ident: String) {
+    this.root = root
     if (root.name != "properties") {
       throw InconsistencyException("bad root element $root")
     }
-    self = Utils.lookupChild(root, "property", "key", ident)
+    self = root.lookupChild("property", "key", ident)
   }
 
   /**
    * Constructor
    *
-   * @param             document        the document containing the properties localization
+   * @param             root            the root element of the file containing the properties localization
    */
-  constructor(document: Document) {
-    root = document.rootElement
+  constructor(root: LocalizationElement) {
+    this.root = root
 
     if (root.name != "properties") {
       throw InconsistencyException("bad root element $root")
     }
   }
 
+  /**
+   * Constructs the localizer from a JDOM document.
+   */
+  constructor(document: Document, ident: String) : this(LocalizationElement.of(document), ident)
+
+  /**
+   * Constructs the localizer from a JDOM document.
+   */
+  constructor(document: Document) : this(LocalizationElement.of(document))
+
   /**
    * Returns the value of the label attribute.
    */
-  fun getValue(): String = self.getAttributeValue("value")
+  fun getValue(): String = self.getAttributeValue("value")!!
 
   /**
    * Returns the value of the label attribute.
    */
   fun getValue(ident: String): String {
-    self = Utils.lookupChild(root, "property", "key", ident)
+    self = root.lookupChild("property", "key", ident)
 
-    return self.getAttributeValue("value")
+    return self.getAttributeValue("value")!!
   }
 }
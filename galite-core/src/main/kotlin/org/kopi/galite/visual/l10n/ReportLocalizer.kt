@@ -19,21 +19,20 @@
 package org.kopi.galite.visual.l10n
 
 import org.jdom2.Document
-import org.jdom2.Element
 import org.kopi.galite.util.base.InconsistencyException
 
 /**
  * Implements a report localizer.
  *
  * @param             manager         the manager to use for localization
- * @param             document        the document containing the report localization
+ * @param             root            the root element of the file containing the report localization
  */
-class ReportLocalizer(manager: LocalizationManager, document: Document) : Localizer(manager) {
+class ReportLocalizer(manager: LocalizationManager, root: LocalizationElement) : Localizer(manager) {
 
   // ----------------------------------------------------------------------
   // DATA MEMBERS
   // ----------------------------------------------------------------------
-  private val root: Element = document.rootElement
+  private val root: LocalizationElement = root
 
   // ----------------------------------------------------------------------
   // CONSTRUCTOR
@@ -44,10 +43,15 @@ class ReportLocalizer(manager: LocalizationManager, document: Document) : Locali
     }
   }
 
+  /**
+   * Constructs the localizer from a JDOM document.
+   */
+  constructor(manager: LocalizationManager, document: Document) : this(manager, LocalizationElement.of(document))
+
   /**
    * Returns the value of the title attribute.
    */
-  fun getTitle(): String = root.getAttributeValue("title")
+  fun getTitle(): String = root.getAttributeValue("title")!!
 
   /**
    * Returns the value of the help attribute.
@@ -61,6 +65,6 @@ class ReportLocalizer(manager: LocalizationManager, document: Document) : Locali
    */
   fun getFieldLocalizer(ident: String): FieldLocalizer {
     return FieldLocalizer(manager,
-                          Utils.lookupChild(root, "field", "ident", ident))
+                          root.lookupChild("field", "ident", ident))
   }
 }
@@ -19,46 +19,49 @@
 package org.kopi.galite.visual.l10n
 
 import org.jdom2.Document
-import org.jdom2.Element
 import org.kopi.galite.util.base.InconsistencyException
 
 /**
  * Implements a type localizer.
  *
  * @param             manager         the manager to use for localization
- * @param             document        the document containing the type localization
+ * @param             root            the root element of the file containing the type localization
  * @param             ident           the identifier of the type
  */
 class TypeLocalizer(manager: LocalizationManager,
-                    document: Document,
+                    root: LocalizationElement,
                     ident: String?) : Localizer(manager) {
 
   // ----------------------------------------------------------------------
   // DATA MEMBERS
   // ----------------------------------------------------------------------
-  private val self: Element
+  private val self: LocalizationElement
 
   // ----------------------------------------------------------------------
   // CONSTRUCTOR
   // ----------------------------------------------------------------------
   init {
-    val type: Element
-    val root: Element = document.rootElement
+    val type: LocalizationElement
     val names = listOf("form", "report", "blockinsert", "insert")
 
     if (root.name !in names) {
       throw InconsistencyException("bad root element $root")
     }
-    type = Utils.lookupChild(root, "type", "ident", ident)
-    self = Utils.lookupChild(type, "code")
+    type = root.lookupChild("type", "ident", ident)
+    self = type.lookupChild("code")
   }
 
+  /**
+   * Constructs the localizer from a JDOM document.
+   */
+  constructor(manager: LocalizationManager, document: Document, ident: String?) : this(manager, LocalizationElement.of(document), ident)
+
   /**
    * Returns the title of the specified item.
    */
   fun getCodeLabel(column: String): String {
-    val e: Element = Utils.lookupChild(self, "codedesc", "ident", column)
+    val e: LocalizationElement = self.lookupChild("codedesc", "ident", column)
 
-    return e.getAttributeValue("label")
+    return e.getAttributeValue("label")!!
   }
 }
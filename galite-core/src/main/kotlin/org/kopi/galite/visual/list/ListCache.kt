@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2013-2026 kopiLeft Services SARL, Tunis TN
+ * Copyright (c) 1990-2026 kopiRight Managed Solutions GmbH, Wien AT
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1 as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package org.kopi.galite.visual.list
+
+import org.jetbrains.exposed.sql.Query
+import org.jetbrains.exposed.sql.QueryBuilder
+import org.jetbrains.exposed.sql.ResultRow
+import org.jetbrains.exposed.sql.Table
+import org.jetbrains.exposed.sql.transactions.TransactionManager
+
+import org.kopi.galite.util.base.Metrics
+
+/**
+ * Application-wide cache of the rows read from list tables.
+ *
+ * Only the lists enabled with [VList.cached] use this cache. Entries are keyed by the
+ * database and the SQL of the list query, that is by list table plus condition, and
+ * are evicted after [timeToLive] milliseconds or when the cache holds more than
+ * [maximumSize] entries. Entries reading a table are invalidated when a block commits
+ * changes to this table, other writers should call [invalidate] once they commit.
+ */
+object ListCache {
+
+  /**
+   * The number of milliseconds a cached list query stays valid.
+   */
+  @Volatile
+  var timeToLive: Long = 5 * 60 * 1000L
+
+  /**
+   * The maximum number of list queries kept in the cache.
+   */
+  @Volatile
+  var maximumSize: Int = 1000
+
+  private val entries = object : LinkedHashMap<String, Entry>(16, 0.75f, true) {
+    override fun removeEldestEntry(eldest: MutableMap.MutableEntry<String, Entry>): Boolean = size > maximumSize
+  }
+
+  private val hits = Metrics.counter("galite.list.cache.hits")
+  private val misses = Metrics.counter("galite.list.cache.misses")
+
+  init {
+    Metrics.gauge("galite.list.cache.size") { synchronized(entries) { entries.size } }
+  }
+
+  /**
+   * Returns the rows of the given list query, reading them from the database if they
+   * are not cached. Must be called inside a transaction.
+   */
+  fun rows(query: Query): List<ResultRow> {
+    val transaction = TransactionManager.current()
+    val key = "${transaction.db.url}/${query.prepareSQL(QueryBuilder(false))}"
+    val now = System.currentTimeMillis()
+    val cached = synchronized(entries) {
+      entries[key]?.takeIf { it.expiresAt > now }
+    }
+
+    if (cached != null) {
+      hits.increment()
+      return cached.rows
+    }
+
+    misses.increment()
+
+    val rows = query.toList()
+    val tables = query.targets.map { it.tableName.uppercase() }.toSet()
+
+    synchronized(entries) {
+      entries[key] = Entry(rows, tables, now + timeToLive)
+    }
+    return rows
+  }
+
+  /**
+   * Removes the cached list queries reading the given table.
+   */
+  fun invalidate(table: Table) {
+    invalidate(table.tableName)
+  }
+
+  /**
+   * Removes the cached list queries reading the table with the given name.
+   */
+  fun invalidate(tableName: String) {
+    val name = tableName.uppercase()
+
+    synchronized(entries) {
+      entries.values.removeIf { name in it.tables }
+    }
+  }
+
+  /**
+   * Removes all the cached list queries.
+   */
+  fun invalidateAll() {
+    synchronized(entries) {
+      entries.clear()
+    }
+  }
+
+  private class Entry(val rows: List<ResultRow>, val tables: Set<String>, val expiresAt: Long)
+}
@@ -68,6 +68,28 @@ class VList(private val ident: String,
               autocompleteLength,
               hasShortcut)
 
+  /**
+   * True if the rows read from the list table are kept in the [ListCache].
+   */
+  var cached = false
+
+  /**
+   * The maximum number of suggestions returned by an autocomplete query.
+   */
+  var suggestionLimit = DEFAULT_SUGGESTION_LIMIT
+
+  /**
+   * The number of milliseconds an autocomplete query waits for a newer query
+   * of the same field before it is executed.
+   */
+  var suggestionDelay = DEFAULT_SUGGESTION_DELAY
+
+  /**
+   * The number of rows read at once by the queries of this list, 0 to read
+   * as many rows as the list dialog or the suggestions show.
+   */
+  var fetchSize = 0
+
   /**
    * Returns the number of columns.
    */
@@ -99,5 +121,8 @@ class VList(private val ident: String,
     const val AUTOCOMPLETE_NONE = 0
     const val AUTOCOMPLETE_STARTSWITH = 1
     const val AUTOCOMPLETE_CONTAINS = 2
+
+    const val DEFAULT_SUGGESTION_LIMIT = 50
+    const val DEFAULT_SUGGESTION_DELAY = 200L
   }
 }
@@ -36,6 +36,9 @@ interface Constants : Constants {
     // ---------------------------------------------------------------------
     // PIVOT TABLE Aggregator
     // ---------------------------------------------------------------------
+    const val INTEGER_SUM = "Integer Sum"
+    const val MINIMUM = "Minimum"
+    const val MAXIMUM = "Maximum"
     const val SUM_OVER_SUM = "Sum Over Sum"
     const val UPPER_BOUND = "80% Upper Bound"
     const val LOWER_BOUND = "80% Lower Bound"
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2013-2026 kopiLeft Services SARL, Tunis TN
+ * Copyright (c) 1990-2026 kopiRight Managed Solutions GmbH, Wien AT
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1 as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package org.kopi.galite.visual.pivottable
+
+import java.math.BigDecimal
+
+import org.vaadin.addons.componentfactory.PivotTable.Aggregator
+
+/**
+ * Pre-aggregates the rows of a pivot table on the server.
+ *
+ * The rows are grouped by the formatted values of all the dimensions, whatever their
+ * position, and the browser aggregates the groups again in its cells: the result of
+ * the aggregator on the groups is the same as on the rows. This holds for the count,
+ * the sum, the minimum, the maximum and the fractions of the sum or of the count.
+ * The other aggregators need the rows themselves.
+ */
+object PivotTableAggregation {
+
+  /**
+   * Groups the rows of a pivot table model. The groups are built in parallel.
+   *
+   * @param model      the pivot table model
+   * @param aggregator the aggregator name and the label of the aggregated measure
+   * @return the groups, null if the aggregator does not support pre-aggregation
+   */
+  fun aggregate(model: MPivotTable, aggregator: Pair<String, String>): PivotTableCube? {
+    val reaggregator = REAGGREGATORS[aggregator.first] ?: return null
+    val dimensions = model.columns.indices.filter { !model.getModelColumn(it).isMeasure }
+    val measure = model.columns.indexOfFirst { it!!.isMeasure && it.label == aggregator.second }
+    val count = aggregator.first == Aggregator.COUNT || aggregator.first in COUNT_FRACTIONS
+
+    if (!count && measure == -1) {
+      return null
+    }
+
+    val groups = model.userRows!!.parallelStream().collect(
+      { HashMap<List<String>, Group>() },
+      { groups, row ->
+        val key = dimensions.map { model.getModelColumn(it).format(row.getValueAt(it)) }
+
+        groups.getOrPut(key) { Group() }.add(if (count) null else row.getValueAt(measure))
+      },
+      { left, right ->
+        right.forEach { (key, group) -> left.merge(key, group, Group::merge) }
+      }
+    )
+    val rows = groups.map { (key, group) ->
+      val value = when {
+        count -> group.count.toString()
+        aggregator.first == Constants.MINIMUM -> group.minimum?.toPlainString()
+        aggregator.first == Constants.MAXIMUM -> group.maximum?.toPlainString()
+        else -> group.sum?.toPlainString()
+      }
+
+      (key + value.orEmpty()).toTypedArray()
+    }
+
+    return PivotTableCube(dimensions.map { model.getModelColumn(it) },
+                          if (measure == -1) null else model.getModelColumn(measure),
+                          if (count) aggregator.first else aggregator.second,
+                          reaggregator,
+                          rows)
+  }
+
+  /**
+   * The aggregated values of a group of rows.
+   */
+  private class Group {
+    var count = 0L
+    var sum: BigDecimal? = null
+    var minimum: BigDecimal? = null
+    var maximum: BigDecimal? = null
+
+    fun add(value: Any?) {
+      count += 1
+      if (value != null) {
+        val decimal = if (value is BigDecimal) value else BigDecimal(value.toString())
+
+        sum = sum?.add(decimal) ?: decimal
+        minimum = minimum?.min(decimal) ?: decimal
+        maximum = maximum?.max(decimal) ?: decimal
+      }
+    }
+
+    fun merge(other: Group): Group {
+      count += other.count
+      other.sum?.let { sum = sum?.add(it) ?: it }
+      other.minimum?.let { minimum = minimum?.min(it) ?: it }
+      other.maximum?.let { maximum = maximum?.max(it) ?: it }
+      return this
+    }
+  }
+
+  /**
+   * The aggregator applied by the browser to the groups, by aggregator applied to the rows.
+   */
+  private val REAGGREGATORS = mapOf(
+    Aggregator.COUNT to Constants.INTEGER_SUM,
+    Aggregator.SUM to Aggregator.SUM,
+    Constants.INTEGER_SUM to Constants.INTEGER_SUM,
+    Constants.MINIMUM to Constants.MINIMUM,
+    Constants.MAXIMUM to Constants.MAXIMUM,
+    Constants.SUM_FRACTION_TOTALS to Constants.SUM_FRACTION_TOTALS,
+    Constants.SUM_FRACTION_ROWS to Constants.SUM_FRACTION_ROWS,
+    Constants.SUM_FRACTION_COLUMNS to Constants.SUM_FRACTION_COLUMNS,
+    Constants.COUNT_FRACTION_TOTALS to Constants.SUM_FRACTION_TOTALS,
+    Constants.COUNT_FRACTION_ROWS to Constants.SUM_FRACTION_ROWS,
+    Constants.COUNT_FRACTION_COLUMNS to Constants.SUM_FRACTION_COLUMNS
+  )
+
+  private val COUNT_FRACTIONS = setOf(Constants.COUNT_FRACTION_TOTALS,
+                                      Constants.COUNT_FRACTION_ROWS,
+                                      Constants.COUNT_FRACTION_COLUMNS)
+}
+
+/**
+ * The rows of a pivot table grouped by the values of its dimensions.
+ *
+ * @param dimensions the dimension columns, in the order of the row values
+ * @param measure    the aggregated measure, null for a count
+ * @param valueLabel the label of the aggregated value, the last value of the rows
+ * @param aggregator the aggregator to apply to the aggregated values
+ * @param rows       the formatted dimension values of each group, followed by the aggregated value
+ */
+class PivotTableCube(val dimensions: List<VPivotTableColumn>,
+                     val measure: VPivotTableColumn?,
+                     val valueLabel: String,
+                     val aggregator: String,
+                     val rows: List<Array<String>>)
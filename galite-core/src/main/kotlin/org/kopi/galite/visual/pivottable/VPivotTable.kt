@@ -58,6 +58,7 @@ abstract class VPivotTable internal constructor() : VWindow(), VConstants {
   var aggregator = Pair(Aggregator.COUNT, "") // default Aggregator
   var disabledRerenders = mutableListOf<String>()
   var interactive = Constants.MODE_INTERACTIVE
+  var serverAggregation = false // pre-aggregate the rows before sending them to the browser
   val PIVOT_TABLE_Triggers = listOf(arrayOfNulls<Trigger>(Constants.TRG_TYPES.size))
   private val activeCommands = ArrayList<VCommand>()
   var help: String? = null
@@ -107,6 +108,29 @@ abstract class VPivotTable internal constructor() : VWindow(), VConstants {
     interactive = mode
   }
 
+  /**
+   * Sets whether the rows are pre-aggregated on the server, see [PivotTableAggregation].
+   * @param aggregate true to pre-aggregate the rows.
+   */
+  internal fun setServerAggregation(aggregate: Boolean) {
+    serverAggregation = aggregate
+  }
+
+  /**
+   * Returns the rows grouped on the server, null if the rows are sent as they are.
+   * The rows are sent as they are if the aggregator needs the rows themselves.
+   *
+   * @exception InconsistencyException if the server aggregation is asked for an
+   * interactive pivot table: its user could choose aggregators that need the rows.
+   */
+  fun aggregateRows(): PivotTableCube? =
+    when {
+      !serverAggregation -> null
+      interactive != Constants.MODE_NONINTERACTIVE ->
+        throw InconsistencyException("Server aggregation of pivot table ${getTitle()} needs a non-interactive mode")
+      else -> PivotTableAggregation.aggregate(model, aggregator)
+    }
+
   /**
    * initialise fields
    */
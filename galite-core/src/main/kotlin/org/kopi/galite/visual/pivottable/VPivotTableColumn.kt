@@ -35,6 +35,12 @@ abstract class VPivotTableColumn(val ident: String?, val position: Dimension.Pos
   var label: String = ""
   var help: String? = null
 
+  /**
+   * True if this column is a measure: its values are aggregated, they do not group the rows.
+   */
+  var isMeasure: Boolean = false
+    internal set
+
   open fun format(o: Any?): String {
     return o.toString()
   }
@@ -34,8 +34,8 @@ import org.apache.poi.xssf.usermodel.XSSFColor
 
 /**
  * Manage the CellStyle cache.
- * In order to not have the 4000 style limit, cell styles are cached base on their
- * hash codes within a [Set] and reused when it two or more cells have the same
+ * In order to not have the 4000 style limit, cell styles are cached by alignment,
+ * data format and background color, and reused when two or more cells have the same
  * style.
  * Use [.setCellStyle] for caching functions.
  */
@@ -66,8 +66,7 @@ class CellStyleCacheManager : Serializable {
     dataFormat: Short,
     color: Color,
   ): CellStyle {
-    val key = StyleKey(alignment, dataFormat, color)
-    if (!stylesCache.containsKey(key)) {
+    return stylesCache.getOrPut(StyleKey(alignment, dataFormat, color)) {
       val style: CellStyle = wb.createCellStyle()
 
       style.verticalAlignment = VerticalAlignment.TOP
@@ -90,26 +89,12 @@ class CellStyleCacheManager : Serializable {
       } else {
         style.fillForegroundColor = (exporter.createFillForegroundColor(color) as HSSFColor).index
       }
-      stylesCache[key] = style
+      style
     }
-    return stylesCache[key]!!
   }
 
   //---------------------------------------------------
   // INNER CLASSES
   //---------------------------------------------------
-  inner class StyleKey(private val alignment: Short, private val dataFormat: Short, private val color: Color) {
-
-    //---------------------------------------
-    // IMPLEMENTATIONS
-    //---------------------------------------
-    override fun equals(other: Any?): Boolean =
-            if (other is StyleKey) {
-              alignment == other.alignment && dataFormat == other.dataFormat && color == other.color
-            } else {
-              super.equals(other)
-            }
-
-    override fun hashCode(): Int = alignment + dataFormat + color.hashCode()
-  }
+  private data class StyleKey(val alignment: Short, val dataFormat: Short, val color: Color) : Serializable
 }
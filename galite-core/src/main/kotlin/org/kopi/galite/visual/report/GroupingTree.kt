@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2013-2026 kopiLeft Services SARL, Tunis TN
+ * Copyright (c) 1990-2026 kopiRight Managed Solutions GmbH, Wien AT
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1 as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package org.kopi.galite.visual.report
+
+import java.io.Serializable
+import java.util.BitSet
+
+/**
+ * The grouping tree of a report, stored in int arrays.
+ *
+ * The base rows are sorted by the grouping columns, so each group covers a range of
+ * the sorted base rows. A group whose children are base rows refers to its range of
+ * [rows], the other groups refer to a range of [children] which holds the indexes of
+ * their child groups. Group values are kept in a row store, only for the columns
+ * which are set on groups: the grouping columns and the calculated columns.
+ *
+ * @param rows the base rows sorted by the grouping columns
+ */
+internal class GroupingTree(private val rows: Array<VReportRow?>) : Serializable {
+
+  private val values = ReportRowStore()
+  private var groups = arrayOfNulls<VGroupRow>(INITIAL_CAPACITY)
+  private var parents = IntArray(INITIAL_CAPACITY)        // index of the parent group, -1 for the root
+  private var positions = IntArray(INITIAL_CAPACITY)      // index of the group in the children of its parent
+  private var childFrom = IntArray(INITIAL_CAPACITY)      // first child in rows or in children
+  private var childTo = IntArray(INITIAL_CAPACITY)        // end (exclusive) of the children in rows or in children
+  private var rowFrom = IntArray(INITIAL_CAPACITY)        // first base row covered by the group
+  private var rowTo = IntArray(INITIAL_CAPACITY)          // end (exclusive) of the base rows covered by the group
+  private var children = IntArray(INITIAL_CAPACITY)       // child groups, the siblings are contiguous
+  private val hasRows = BitSet()                          // groups whose children are base rows
+  private val rowParents: IntArray                        // parent group of each base row, by store index
+  private val rowPositions: IntArray                      // position of each base row in rows, by store index
+
+  /**
+   * The number of groups in the tree, including the root.
+   */
+  var groupCount = 0
+    private set
+
+  init {
+    val size = rows.maxOfOrNull { (it as VBaseRow).index + 1 } ?: 0
+
+    rowParents = IntArray(size)
+    rowPositions = IntArray(size)
+  }
+
+  /**
+   * Adds the children groups of a group. The new groups cover consecutive ranges of base rows.
+   *
+   * @param parent the parent group, null to add the root
+   * @param level  the level of the new groups
+   * @param bounds the bounds of the new groups in the sorted base rows: group i covers
+   *               the rows from bounds[i] to bounds[i + 1] (exclusive)
+   * @return the new groups
+   */
+  fun addGroups(parent: VGroupRow?, level: Int, bounds: IntArray): List<VGroupRow> {
+    val count = bounds.size - 1
+    val first = groupCount
+
+    ensureCapacity(groupCount + count)
+    if (parent != null) {
+      childFrom[parent.index] = first
+      childTo[parent.index] = first + count
+    }
+    return List(count) { i ->
+      val index = values.add(EMPTY_LINE)
+      val group = VGroupRow(values, index, level)
+
+      groups[index] = group
+      parents[index] = parent?.index ?: -1
+      positions[index] = i
+      children[index] = index
+      rowFrom[index] = bounds[i]
+      rowTo[index] = bounds[i + 1]
+      group.tree = this
+      groupCount += 1
+      group
+    }
+  }
+
+  /**
+   * Sets the base rows covered by a group as its children.
+   */
+  fun setRows(group: VGroupRow) {
+    hasRows.set(group.index)
+    childFrom[group.index] = rowFrom[group.index]
+    childTo[group.index] = rowTo[group.index]
+    for (position in rowFrom[group.index] until rowTo[group.index]) {
+      val row = rows[position] as VBaseRow
+
+      rowParents[row.index] = group.index
+      rowPositions[row.index] = position
+      row.tree = this
+    }
+  }
+
+  /**
+   * Returns the children of a group.
+   */
+  fun getChildren(group: VGroupRow): Array<VReportRow?> = Array(getChildCount(group)) { getChildAt(group, it) }
+
+  /**
+   * Reorders the children of a group.
+   *
+   * @param group  the group
+   * @param sorted the children of the group in their new order
+   */
+  fun setChildren(group: VGroupRow, sorted: Array<VReportRow?>) {
+    val from = childFrom[group.index]
+
+    if (hasRows[group.index]) {
+      sorted.forEachIndexed { i, row ->
+        rows[from + i] = row
+        rowPositions[(row as VBaseRow).index] = from + i
+      }
+    } else {
+      sorted.forEachIndexed { i, row ->
+        children[from + i] = (row as VGroupRow).index
+        positions[row.index] = i
+      }
+    }
+  }
+
+  fun getParent(row: VReportRow): VGroupRow? =
+    when (row) {
+      is VBaseRow -> groups[rowParents[row.index]]
+      is VGroupRow -> if (parents[row.index] == -1) null else groups[parents[row.index]]
+      else -> null
+    }
+
+  fun getChildCount(row: VReportRow): Int =
+    if (row is VGroupRow) childTo[row.index] - childFrom[row.index] else 0
+
+  fun getChildAt(group: VReportRow, index: Int): VReportRow {
+    group as VGroupRow
+    if (index < 0 || index >= getChildCount(group)) {
+      throw ArrayIndexOutOfBoundsException("$index >= ${getChildCount(group)}")
+    }
+
+    return if (hasRows[group.index]) {
+      rows[childFrom[group.index] + index]!!
+    } else {
+      groups[children[childFrom[group.index] + index]]!!
+    }
+  }
+
+  /**
+   * Returns the index of a child in the children of a group, -1 if it is not a child of the group.
+   */
+  fun getIndex(group: VReportRow, child: VReportRow): Int =
+    when {
+      getParent(child) !== group -> -1
+      child is VBaseRow -> rowPositions[child.index] - childFrom[(group as VGroupRow).index]
+      else -> positions[(child as VGroupRow).index]
+    }
+
+  /**
+   * Returns the number of base rows under a node.
+   */
+  fun getLeafCount(row: VReportRow): Int =
+    if (row is VGroupRow) rowTo[row.index] - rowFrom[row.index] else 1
+
+  /**
+   * Returns true if a row is a descendant of a group.
+   */
+  fun isDescendant(group: VGroupRow, row: VReportRow): Boolean =
+    when (row) {
+      is VBaseRow -> rowPositions[row.index] in rowFrom[group.index] until rowTo[group.index]
+      is VGroupRow -> row !== group && row.level < group.level
+              && rowFrom[row.index] >= rowFrom[group.index] && rowTo[row.index] <= rowTo[group.index]
+      else -> false
+    }
+
+  private fun ensureCapacity(capacity: Int) {
+    if (capacity > groups.size) {
+      val size = maxOf(capacity, groups.size * 2)
+
+      groups = groups.copyOf(size)
+      parents = parents.copyOf(size)
+      positions = positions.copyOf(size)
+      childFrom = childFrom.copyOf(size)
+      childTo = childTo.copyOf(size)
+      rowFrom = rowFrom.copyOf(size)
+      rowTo = rowTo.copyOf(size)
+      children = children.copyOf(size)
+    }
+  }
+
+  companion object {
+    private const val serialVersionUID = 0L
+    private const val INITIAL_CAPACITY = 64
+    private val EMPTY_LINE = arrayOf<Any?>()
+  }
+}
@@ -24,6 +24,9 @@ import java.time.Instant
 import java.time.LocalDate
 import java.time.LocalDateTime
 import java.time.LocalTime
+import java.util.Arrays
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.stream.IntStream
 
 import javax.swing.event.EventListenerList
 
@@ -51,14 +54,17 @@ class MReport : Constants, Serializable {
 
   // Root is the root of the tree (which is our model to manipulate data)
   private var root: VGroupRow? = null    // root of grouping tree
+  private var tree: GroupingTree? = null  // storage of the grouping tree
 
   // Baserows contains data give by the request of the user
   // visibleRows contains all data which will be displayed. It's like a buffer. visibleRows
   // is changed when a column move or one or more row are folded
   internal var userRows: ArrayList<VBaseRow>? = ArrayList(500)
+  private val store = ReportRowStore()                 // values of the base rows, stored by column
   private lateinit var baseRows: Array<VReportRow?>    // array of base data rows
   private var visibleRows: Array<VReportRow?>? = null  // array of visible rows
   private var maxRowCount = 0
+  private var columnWidths: ColumnWidths? = null       // cached widths of the columns of the base rows
 
   // Sortedcolumn contain the index of the sorted column
   // sortingOrder store the type of sort of the sortedColumn : ascending or descending
@@ -74,23 +80,49 @@ class MReport : Constants, Serializable {
   private lateinit var displayLevels: IntArray   // column levels in display order
   private val listenerList = EventListenerList()  // List of listeners
 
+  /**
+   * Returns the maximum length of the formatted values of a column, plus 2.
+   *
+   * The widths of all the columns are computed together, in parallel for large
+   * reports, and cached until the values or the columns of the report change.
+   *
+   * @param    column        the index of the column
+   */
   fun computeColumnWidth(column: Int): Int {
+    var widths = columnWidths
+
+    if (widths == null || widths.modificationCount != store.modificationCount) {
+      val columnCount = store.columnCount
+      val modificationCount = store.modificationCount
+      val columns = IntStream.range(0, columnCount)
+
+      widths = ColumnWidths(modificationCount,
+                            (if (store.size < PARALLEL_COMPUTE_THRESHOLD) columns else columns.parallel())
+                              .map { computeStoredColumnWidth(it) }
+                              .toArray())
+      columnWidths = widths
+    }
+
+    return if (column < widths.widths.size) widths.widths[column] else 2
+  }
+
+  private fun computeStoredColumnWidth(column: Int): Int {
     var max = 0
 
-    baseRows.forEach { row ->
-      if (row!!.getValueAt(column) != null) {
-        val value = row.getValueAt(column).let { value ->
-          when (value) {
-            is BigDecimal -> value.format()
-            is LocalDate -> value.format()
-            is LocalTime -> value.format()
-            is Instant -> value.format()
-            is LocalDateTime -> value.format()
-            else -> value.toString()
-          }
+    for (line in 0 until store.size) {
+      val value = store[line, column]
+
+      if (value != null) {
+        val formatted = when (value) {
+          is BigDecimal -> value.format()
+          is LocalDate -> value.format()
+          is LocalTime -> value.format()
+          is Instant -> value.format()
+          is LocalDateTime -> value.format()
+          else -> value.toString()
         }
 
-        max = max(max, value.length)
+        max = max(max, formatted.length)
       }
     }
     return max + 2
@@ -118,21 +150,8 @@ class MReport : Constants, Serializable {
     position -= hiddenColumns
     columns = cols.clone().toMutableList()
     createAccessibleTab()
-    val rows = arrayOfNulls<VBaseRow>(baseRows.size)
-
-    baseRows.forEachIndexed { index, element ->
-      val data = arrayOfNulls<Any>(getAccessibleColumnCount())
-
-      for (j in 0 until position) {
-        data[j] = element!!.getValueAt(j)
-      }
-      // skip position.
-      for (j in position until getAccessibleColumnCount()) {
-        data[j] = element!!.getValueAt(j + 1)
-      }
-      rows[index] = VBaseRow(data)
-    }
-    baseRows = rows.filterIsInstance<VBaseRow>().toTypedArray()
+    store.removeColumn(position)
+    store.setColumnCount(getAccessibleColumnCount())
   }
 
   fun initializeAfterRemovingColumn(position: Int) {
@@ -170,19 +189,9 @@ class MReport : Constants, Serializable {
     }
     columns = cols.clone().toMutableList()
     initializeAfterAddingColumn()
-    val rows = arrayOfNulls<VBaseRow>(baseRows.size)
-
-    baseRows.forEachIndexed { index, element ->
-      val data = arrayOfNulls<Any>(getAccessibleColumnCount())
-
-      for (j in 0 until getAccessibleColumnCount() - 1) {
-        data[j] = element!!.getValueAt(j)
-      }
-      // fill the new column with  null , column data will be set by user.
-      data[getAccessibleColumnCount() - 1] = null
-      rows[index] = VBaseRow(data)
-    }
-    baseRows = rows.filterIsInstance<VBaseRow>().toTypedArray()
+    store.setColumnCount(getAccessibleColumnCount() - 1)
+    // fill the new column with  null , column data will be set by user.
+    store.setColumnCount(getAccessibleColumnCount())
   }
 
   private fun initializeAfterAddingColumn() {
@@ -213,10 +222,10 @@ class MReport : Constants, Serializable {
     val paramColumns = IntArray(params.size)
     val functions = IntArray(params.size)
     val NONE = -1
-    val MAX = 0
-    val MIN = 1
-    val OVR = 2
-    val SUM = 3
+    val MAX = AGGREGATE_MAX
+    val MIN = AGGREGATE_MIN
+    val OVR = AGGREGATE_OVR
+    val SUM = AGGREGATE_SUM
 
     for (i in params.indices) {
       try {
@@ -264,112 +273,112 @@ class MReport : Constants, Serializable {
         throw VExecFailedException(MessageCode.getMessage("VIS-00063", params[i].substring(1)))
       }
     }
-    val vm = VarMap(false /* case sensitive */)
-    val fm: FuncMap? = null   // no functions in expression
-    var tmp: Float
-
-    for (i in baseRows.indices) {
-      for (j in paramColumns.indices) {
-        when (functions[j]) {
-          NONE -> {
-            val value = if (baseRows[i]!!.getValueAt(paramColumns[j]) == null) {
-              0.0
-            } else {
-              // !!! wael 20070622 : use 0 instead of null values.
-              (baseRows[i]!!.getValueAt(paramColumns[j]) as BigDecimal).toDouble()
-            }
-            vm.setValue(params[j], value)
-          }
-          MAX -> {
-            var max: Float
-            // init max
-            max = if (baseRows[0]!!.getValueAt(paramColumns[j]) == null) {
-              0F
-            } else {
-              (baseRows[0]!!.getValueAt(paramColumns[j]) as BigDecimal).toFloat()
-            }
-            // calculate max value.
-            baseRows.forEach {
-              tmp = if (it!!.getValueAt(paramColumns[j]) == null) {
-                0F
-              } else {
-                (it.getValueAt(paramColumns[j]) as BigDecimal).toFloat()
-              }
-              if (tmp > max) {
-                max = tmp
-              }
-            }
-            vm.setValue(params[j], max.toDouble())
-          }
-          MIN -> {
-            var min: Float
-
-            // init max
-            min = if (baseRows[0]!!.getValueAt(paramColumns[j]) == null) {
-              0F
-            } else {
-              (baseRows[0]!!.getValueAt(paramColumns[j]) as BigDecimal).toFloat()
-            }
-            // calculate min value.
-            baseRows.forEach {
-              tmp = if (it!!.getValueAt(paramColumns[j]) == null) {
-                0F
-              } else {
-                (it.getValueAt(paramColumns[j]) as BigDecimal).toFloat()
-              }
-              if (tmp < min) {
-                min = tmp
-              }
-            }
-            vm.setValue(params[j], min.toDouble())
-          }
-          OVR -> {
-            var ovr = 0f
-            // calculate average.
-            baseRows.forEach {
-              tmp = if (it!!.getValueAt(paramColumns[j]) == null) {
-                0F
-              } else {
-                (it.getValueAt(paramColumns[j]) as BigDecimal).toFloat()
-              }
-              ovr += tmp / baseRows.size
-            }
-            vm.setValue(params[j], ovr.toDouble())
-          }
-          SUM -> {
-            var sum = 0f
-            // calculate sum.
-            baseRows.forEach {
-              tmp = if (it!!.getValueAt(paramColumns[j]) == null) {
-                0F
-              } else {
-                (it.getValueAt(paramColumns[j]) as BigDecimal).toFloat()
-              }
-              sum += tmp
-            }
-            vm.setValue(params[j], sum.toDouble())
+    // aggregate parameters are computed once for the whole column
+    val aggregates = DoubleArray(params.size)
+
+    for (j in params.indices) {
+      if (functions[j] != NONE) {
+        aggregates[j] = computeAggregate(paramColumns[j], functions[j])
+      }
+    }
+
+    val failed = AtomicBoolean(false)
+    // the results are written to the row store after the evaluation, the store is not thread safe
+    val results = arrayOfNulls<BigDecimal>(baseRows.size)
+    val evaluate = { from: Int, to: Int ->
+      val vm = VarMap(false /* case sensitive */)
+      val fm: FuncMap? = null   // no functions in expression
+
+      for (j in params.indices) {
+        if (functions[j] != NONE) {
+          vm.setValue(params[j], aggregates[j])
+        }
+      }
+      for (i in from until to) {
+        for (j in params.indices) {
+          if (functions[j] == NONE) {
+            // !!! wael 20070622 : use 0 instead of null values.
+            vm.setValue(params[j], (baseRows[i]!!.getValueAt(paramColumns[j]) as BigDecimal?)?.toDouble() ?: 0.0)
           }
         }
+        try {
+          results[i] = BigDecimal(x.eval(vm, fm))
+        } catch (e: NumberFormatException) {
+          // this exception occurs with INFINITE double values. (ex : division by ZERO)
+          // return a null value (can not evaluate expression)
+          results[i] = null
+        } catch (e: Exception) {
+          failed.set(true)
+        }
       }
-      try {
-        baseRows[i]!!.setValueAt(column, BigDecimal(x.eval(vm, fm)))
-      } catch (e: NumberFormatException) {
-        // this exception occurs with INFINITE double values. (ex : division by ZERO)
-        // return a null value (can not evaluate expression)
-        baseRows[i]!!.setValueAt(column, null)
-      } catch (e: Exception) {
-        throw VExecFailedException(MessageCode.getMessage("VIS-00066"))
+    }
+
+    if (baseRows.size < PARALLEL_COMPUTE_THRESHOLD) {
+      evaluate(0, baseRows.size)
+    } else {
+      val chunks = (baseRows.size + COMPUTE_CHUNK_SIZE - 1) / COMPUTE_CHUNK_SIZE
+
+      IntStream.range(0, chunks).parallel().forEach { chunk ->
+        evaluate(chunk * COMPUTE_CHUNK_SIZE, minOf((chunk + 1) * COMPUTE_CHUNK_SIZE, baseRows.size))
+      }
+    }
+    if (failed.get()) {
+      throw VExecFailedException(MessageCode.getMessage("VIS-00066"))
+    }
+    results.forEachIndexed { i, result ->
+      baseRows[i]!!.setValueAt(column, result)
+    }
+  }
+
+  /**
+   * Computes the maximum, the minimum, the average or the sum of a column in a
+   * single pass. Null values are counted as 0.
+   */
+  private fun computeAggregate(column: Int, function: Int): Double {
+    var sum = BigDecimal.ZERO
+    var max: BigDecimal? = null
+    var min: BigDecimal? = null
+
+    for (row in baseRows) {
+      val value = row!!.getValueAt(column) as BigDecimal? ?: BigDecimal.ZERO
+
+      sum += value
+      if (max == null || value > max) {
+        max = value
+      }
+      if (min == null || value < min) {
+        min = value
       }
     }
+
+    return when (function) {
+      AGGREGATE_MAX -> max?.toDouble() ?: 0.0
+      AGGREGATE_MIN -> min?.toDouble() ?: 0.0
+      AGGREGATE_OVR -> if (baseRows.isEmpty()) 0.0 else sum.toDouble() / baseRows.size
+      else -> sum.toDouble()
+    }
   }
 
   /**
    * Add a row to the list of rows defined by the user
    */
   fun addLine(line: Array<Any?>) {
-    userRows!!.add(VBaseRow(line))
+    userRows!!.add(VBaseRow(store, store.add(line)))
   }
 
+  /**
+   * Returns the number of rows added with [addLine].
+   */
+  fun getLineCount(): Int = store.size
+
+  /**
+   * Returns a value of a row added with [addLine], rows are numbered in the order they were added.
+   *
+   * @param    line          the index of the row
+   * @param    column        the index of the column
+   */
+  fun getLineValueAt(line: Int, column: Int): Any? = store[line, column]
+
   /**
    * Build the base row table + initialisation
    */
@@ -531,46 +540,44 @@ class MReport : Constants, Serializable {
 
   /**
    * Sort base rows wrt to each grouping column
-   * Note: we assume that the sorting algorithm ist stable: we thus
-   * can sort the complete table for each column, starting with the
-   * last grouping column.
+   * The rows are sorted once, comparing the grouping columns from the
+   * highest level to the lowest one. The sort is stable: rows having the
+   * same values keep the order in which they were added.
    */
   private fun sortBaseRows() {
-    visibleRows = arrayOfNulls(baseRows.size)
-    sortBaseRows(0)
-  }
-
-  private fun sortBaseRows(column: Int) {
-    if (displayLevels[column] > 0) {
-      var next = column + 1
-
-      while (displayLevels[next] == displayLevels[next - 1]) {
-        next += 1
+    val keys = mutableListOf<Int>()
+    var column = 0
+
+    while (true) {
+      // the first visible column of each level
+      var i = column
+      while (!accessibleColumns[i]!!.isVisible) {
+        i += 1
+      }
+      keys.add(displayOrder[i])
+      if (displayLevels[column] == 0) {
+        break
+      }
+      column += 1
+      while (displayLevels[column] == displayLevels[column - 1]) {
+        column += 1
       }
-      sortBaseRows(next)
     }
     // sort in ascending order
-    var i = column
-    while (!accessibleColumns[i]!!.isVisible) {
-      i += 1
-    }
-    if (i >= 0) {
-      sortArray(baseRows, displayOrder[i], 1)
-      // this value is overwritten in each pass: at the end
-      // of the recursion it will hold the first column
-      sortedColumn = displayOrder[i]
-      sortingOrder = 1
-    }
+    sortArray(baseRows, keys.toIntArray(), 1)
+    sortedColumn = keys[0]
+    sortingOrder = 1
   }
 
   /**
    * Build the grouping tree
    */
   private fun buildGroupingTree() {
-    maxRowCount = baseRows.size + 1
-    root = VGroupRow(arrayOfNulls(getModelColumnCount()), displayLevels[0] + 1)
+    tree = GroupingTree(baseRows)
+    root = tree!!.addGroups(null, displayLevels[0] + 1, intArrayOf(0, baseRows.size)).first()
     // even if column 0 is hidden, it has the highest level
     buildGroupingTree(root!!, 0, baseRows.size - 1, 0)
+    maxRowCount = baseRows.size + tree!!.groupCount
     visibleRows = arrayOfNulls(maxRowCount)
     root!!.visible = true
     for (i in 0 until root!!.childCount) {
@@ -578,14 +585,12 @@ class MReport : Constants, Serializable {
     }
   }
 
-  private fun buildGroupingTree(tree: VReportRow, loRow: Int, hiRow: Int, start: Int) {
+  private fun buildGroupingTree(group: VGroupRow, loRow: Int, hiRow: Int, start: Int) {
     var loRow = loRow
     var start = start
 
     if (displayLevels[start] == 0) {    // even if the 0-index column is hidden, its displayLevels == 0
-      for (i in loRow..hiRow) {
-        tree.add(baseRows[i])
-      }
+      tree!!.setRows(group)
     } else {
       // get the interval of columns at this level
       var next: Int = start + 1
@@ -598,6 +603,9 @@ class MReport : Constants, Serializable {
         start++
       }
 
+      // the bounds of the groups of this level in the sorted base rows
+      val bounds = mutableListOf(loRow)
+
       do {
         val value = baseRows[loRow]!!.getValueAt(displayOrder[start])
         var split = loRow
@@ -606,62 +614,60 @@ class MReport : Constants, Serializable {
                         || value != null && value == baseRows[split]!!.getValueAt(displayOrder[start]))) {
           split += 1
         }
-        val newRow = VGroupRow(arrayOfNulls(getModelColumnCount()), displayLevels[start])
+        bounds.add(split)
+        loRow = split
+      } while (loRow <= hiRow)
 
-        maxRowCount++
+      tree!!.addGroups(group, displayLevels[start], bounds.toIntArray()).forEachIndexed { index, newRow ->
         for (i in 0 until next) {
-          newRow.setValueAt(displayOrder[i], baseRows[loRow]!!.getValueAt(displayOrder[i]))
+          newRow.setValueAt(displayOrder[i], baseRows[bounds[index]]!!.getValueAt(displayOrder[i]))
         }
-        buildGroupingTree(newRow, loRow, split - 1, next)
-        tree.add(newRow)
-        loRow = split
-      } while (loRow <= hiRow)
+        buildGroupingTree(newRow, bounds[index], bounds[index + 1] - 1, next)
+      }
     }
   }
 
   /**
-   * Sorts an array of rows wrt to given column using straight two-way merge sorting.
+   * Sorts an array of rows wrt to given columns. The sort is stable and runs in
+   * parallel for large arrays.
    *
    * @param        array                The array to sort
-   * @param        column               The index of the column on which to sort
+   * @param        columns              The indexes of the columns on which to sort, by priority
    * @param        order                The sorting order (1: ascending, -1: descending)
    */
-  private fun sortArray(array: Array<VReportRow?>, column: Int, order: Int) {
-    mergeSort(array, column, order, 0, array.size - 1, visibleRows)
+  private fun sortArray(array: Array<VReportRow?>, columns: IntArray, order: Int) {
+    val comparator = rowComparator(columns, order)
+
+    if (array.size < PARALLEL_SORT_THRESHOLD) {
+      array.sortWith(comparator)
+    } else {
+      Arrays.parallelSort(array, comparator)
+    }
   }
 
-  private fun mergeSort(array: Array<VReportRow?>,
-                        column: Int,
-                        order: Int,
-                        lo: Int,
-                        hi: Int,
-                        scratch: Array<VReportRow?>?) {
-    // a one-element array is always sorted
-    if (lo < hi) {
-      val mid = (lo + hi) / 2
-
-      // split into 2 sublists and sort them
-      mergeSort(array, column, order, lo, mid, scratch)
-      mergeSort(array, column, order, mid + 1, hi, scratch)
-
-      // Merge sorted sublists
-      var t_lo = lo
-      var t_hi = mid + 1
-
-      for (k in lo..hi) {
-        if (t_lo > mid ||
-                t_hi <= hi &&
-                order * array[t_hi]!!.compareTo(array[t_lo]!!, column, getModelColumn(column)) < 0) {
-          scratch!![k] = array[t_hi++]
+  /**
+   * Returns a comparator of rows wrt to given columns. Base rows are compared on
+   * the values of their row store when the column order is the natural order of
+   * the values.
+   */
+  private fun rowComparator(columns: IntArray, order: Int): Comparator<VReportRow?> {
+    val models = Array(columns.size) { getModelColumn(columns[it]) }
+    val natural = BooleanArray(columns.size) { VBaseRow.hasNaturalOrder(models[it]) }
+
+    return Comparator { row1, row2 ->
+      var result = 0
+      var i = 0
+
+      while (result == 0 && i < columns.size) {
+        result = if (natural[i] && row1 is VBaseRow && row2 is VBaseRow
+                     && row1.store === row2.store && row1.store.isComparable(columns[i])) {
+          row1.store.compare(row1.index, row2.index, columns[i])
         } else {
-          scratch!![k] = array[t_lo++]
+          row1!!.compareTo(row2!!, columns[i], models[i])
         }
+        i += 1
       }
-
-      // Copy back to array
-      for (k in lo..hi) {
-        array[k] = scratch!![k]
-      }
+      order * result
     }
   }
 
@@ -696,21 +702,59 @@ class MReport : Constants, Serializable {
   private fun addRowsInArray(node: VReportRow?, pos: Int): Int {
     var position = pos
 
-    if (node!!.visible) {
-      visibleRows!![position++] = node
+    forEachVisibleRow(node!!) { visibleRows!![position++] = it }
+    return position
+  }
+
+  /**
+   * Calls the given action for each visible row of the subtree of a node, in display order.
+   */
+  private fun forEachVisibleRow(node: VReportRow, action: (VReportRow) -> Unit) {
+    if (node.visible) {
+      action(node)
       for (i in 0 until node.childCount) {
         val row = node.getChildAt(i) as VReportRow
 
         if (row.level == 0) {
           if (row.visible) {
-            visibleRows!![position++] = row
+            action(row)
           }
         } else {
-          position = addRowsInArray(node.getChildAt(i) as VReportRow, position)
+          forEachVisibleRow(row, action)
         }
       }
     }
-    return position
+  }
+
+  /**
+   * Updates the visible rows after a node has been folded or unfolded: only the rows of
+   * its subtree are recomputed, the following rows are shifted.
+   *
+   * @param     node        the folded or unfolded node.
+   * @param     row         the index of a visible row of the subtree of the node.
+   */
+  private fun updateVisibleRows(node: VGroupRow, row: Int) {
+    val rows = visibleRows!!
+    var start = row
+
+    while (rows[start] !== node) {
+      start -= 1
+    }
+
+    var end = start + 1
+
+    while (end < maxRowCount && tree!!.isDescendant(node, rows[end]!!)) {
+      end += 1
+    }
+
+    val subtree = ArrayList<VReportRow>()
+
+    forEachVisibleRow(node) { subtree.add(it) }
+    System.arraycopy(rows, end, rows, start + subtree.size, maxRowCount - end)
+    subtree.forEachIndexed { index, subtreeRow -> rows[start + index] = subtreeRow }
+    maxRowCount += subtree.size - (end - start)
+    rows.fill(null, maxRowCount, rows.size)
+    fireContentChanged()
   }
   // --------------------------------------------------------------------
   // EVENTS FROM DISPLAY
@@ -752,28 +796,21 @@ class MReport : Constants, Serializable {
     sortingOrder = order
   }
 
-  private fun sortTree(tree: VReportRow?, column: Int, order: Int) {
+  private fun sortTree(group: VGroupRow?, column: Int, order: Int) {
 
-    // place the children of the root in an array
-    val rowTab: Array<VReportRow?> = arrayOfNulls(tree!!.childCount)
-
-    for (i in 0 until tree.childCount) {
-      rowTab[i] = tree.getChildAt(i) as VReportRow
-    }
+    // place the children of the group in an array
+    val rowTab: Array<VReportRow?> = tree!!.getChildren(group!!)
 
     // sort the array wrt to column: if already sorted, invert order
-    sortArray(rowTab, column, order)
+    sortArray(rowTab, intArrayOf(column), order)
 
-    // re-add the rows as children
-    tree.removeAllChildren()
-    for (i in rowTab.indices) {
-      tree.add(rowTab[i])
-    }
+    // reorder the children in the grouping tree
+    tree!!.setChildren(group, rowTab)
 
     // sort sub-trees recursively
-    if (tree.level > 1) {
-      for (i in 0 until tree.childCount) {
-        sortTree(tree.getChildAt(i) as VReportRow, column, order)
+    if (group.level > 1) {
+      for (i in 0 until group.childCount) {
+        sortTree(group.getChildAt(i) as VGroupRow, column, order)
       }
     }
   }
@@ -863,8 +900,10 @@ class MReport : Constants, Serializable {
       }
       if (currentRow is VGroupRow?) {
         currentRow.setChildNodesInvisible(level)
+        updateVisibleRows(currentRow, row)
+      } else {
+        fireContentChanged()
       }
-      updateTableModel()
     }
   }
 
@@ -880,8 +919,10 @@ class MReport : Constants, Serializable {
 
       if (currentRow is VGroupRow) {
         currentRow.setChildNodesVisible(level)
+        updateVisibleRows(currentRow, row)
+      } else {
+        fireContentChanged()
       }
-      updateTableModel()
     }
   }
 
@@ -1043,7 +1084,25 @@ class MReport : Constants, Serializable {
     }
   }
 
+  /**
+   * Widths of the columns computed from the store at the given modification count.
+   */
+  private class ColumnWidths(val modificationCount: Int, val widths: IntArray) : Serializable
+
   companion object {
     private const val serialVersionUID = 0L
+
+    // aggregate functions of computed column parameters
+    private const val AGGREGATE_MAX = 0
+    private const val AGGREGATE_MIN = 1
+    private const val AGGREGATE_OVR = 2
+    private const val AGGREGATE_SUM = 3
+
+    // computed columns of reports having more rows are evaluated in parallel
+    private const val PARALLEL_COMPUTE_THRESHOLD = 10000
+    private const val COMPUTE_CHUNK_SIZE = 2048
+
+    // rows of larger arrays are sorted in parallel
+    private const val PARALLEL_SORT_THRESHOLD = 10000
   }
 }
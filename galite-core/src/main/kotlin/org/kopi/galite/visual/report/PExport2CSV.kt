@@ -59,20 +59,29 @@ class PExport2CSV(table: UTable,
   }
 
   private fun writeData(data: Array<String?>) {
-    try {
-      var first = true
-      data.forEach { element ->
-        if (!first) {
-          writer.write("\t")
-        }
-        if (element != null) {
-          writer.write(element)
+    writeLine(writer, data)
+  }
+
+  companion object {
+    /**
+     * Writes a line of tab separated values.
+     */
+    fun writeLine(writer: Writer, data: Array<String?>) {
+      try {
+        var first = true
+        data.forEach { element ->
+          if (!first) {
+            writer.write("\t")
+          }
+          if (element != null) {
+            writer.write(element)
+          }
+          first = false
         }
-        first = false
+        writer.write("\n")
+      } catch (e: IOException) {
+        throw InconsistencyException(e)
       }
-      writer.write("\n")
-    } catch (e: IOException) {
-      throw InconsistencyException(e)
     }
   }
 }
@@ -59,11 +59,26 @@ abstract class PExport2Excel(table: UTable, model: MReport, printConfig: PConfig
   private val dataformats: ShortArray = ShortArray(columnCount)
   private val widths: ShortArray = ShortArray(columnCount)
   private var sheetIndex = 0
+  private var sheetTitle: String = title // title of the current group
+  private var sheetPart = 0              // number of sheets of the current group
+  private var groupEnded = false         // true if the last exported row ends a group
+
+  /**
+   * The number of rows after which the rows of a group are exported to a new sheet,
+   * at the next group boundary. The rows are split regardless of the groups when the
+   * maximum number of rows of a sheet is reached.
+   */
+  var maxSheetRows = DEFAULT_MAX_SHEET_ROWS
 
   // cell style cache
   private val cellStyleCacheManager: CellStyleCacheManager = CellStyleCacheManager()
 
   companion object {
+    private const val DEFAULT_MAX_SHEET_ROWS = 500000
+
+    // rows left to finish a group before the maximum number of rows of a sheet
+    private const val SHEET_ROWS_RESERVE = 5000
+
     /**
      * Set the value of the cell to the specified date value.
      */
@@ -80,6 +95,7 @@ abstract class PExport2Excel(table: UTable, model: MReport, printConfig: PConfig
   override fun export(stream: OutputStream) {
     rowNumber = 0
     sheetIndex = 0
+    groupEnded = false
     try {
       workbook = createWorkbook()
       format = workbook!!.createDataFormat()
@@ -111,11 +127,27 @@ abstract class PExport2Excel(table: UTable, model: MReport, printConfig: PConfig
     } else if (subTitle.isEmpty()) {
       subTitle = " "
     }
+    sheetTitle = subTitle
+    sheetPart = 1
+    createSheet(subTitle)
+  }
+
+  /**
+   * Continues the current group in a new sheet.
+   */
+  private fun continueSheet() {
+    val suffix = " (${++sheetPart})"
+
+    createSheet(sheetTitle.take(31 - suffix.length) + suffix)
+    exportHeader()
+  }
+
+  private fun createSheet(name: String) {
     rowNumber = 0
     sheet = try {
-      workbook!!.createSheet(subTitle)
+      workbook!!.createSheet(name)
     } catch (e: IllegalArgumentException) {
-      workbook!!.createSheet("" + subTitle.hashCode())
+      workbook!!.createSheet("" + name.hashCode())
     }
     for (i in 0 until columnCount) {
       sheet!!.setColumnWidth(i, widths[i].toInt())
@@ -127,7 +159,7 @@ abstract class PExport2Excel(table: UTable, model: MReport, printConfig: PConfig
     val footer = sheet!!.footer
     val header = sheet!!.header
 
-    header.left = title + "  " + getColumnLabel(0) + " : " + subTitle
+    header.left = title + "  " + getColumnLabel(0) + " : " + sheetTitle
 
     footer.left = title + " - " + VlibProperties.getString("print-page") + " &P / &N "
     footer.right = LocalDate.now().format(DateTimeFormatter.ofPattern("dd.MM.yyyy")) +
@@ -151,6 +183,19 @@ abstract class PExport2Excel(table: UTable, model: MReport, printConfig: PConfig
     }
   }
 
+  override fun exportRow(row: VReportRow, tail: Boolean) {
+    val lastRow = workbook!!.spreadsheetVersion.lastRowIndex
+    // a group of the first level starts with its row, or after the row of the previous group
+    // when the sums are at the tail
+    val boundary = if (tail) groupEnded else row.level >= maxLevel - 1
+
+    if (sheet != null && (rowNumber >= lastRow || boundary && rowNumber >= minOf(maxSheetRows, lastRow - SHEET_ROWS_RESERVE))) {
+      continueSheet()
+    }
+    super.exportRow(row, tail)
+    groupEnded = tail && row.level >= maxLevel - 1
+  }
+
   override fun exportRow(level: Int, data: Array<String?>, orig: Array<Any?>, alignments: IntArray) {
     val row = sheet!!.createRow(rowNumber + 1)
     val color = getBackgroundForLevel(level)
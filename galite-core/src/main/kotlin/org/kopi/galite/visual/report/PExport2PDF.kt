@@ -20,8 +20,6 @@ package org.kopi.galite.visual.report
 
 import java.awt.Color
 import java.io.File
-import java.io.FileInputStream
-import java.io.FileOutputStream
 import java.io.OutputStream
 import java.time.LocalDate
 import java.time.LocalTime
@@ -40,14 +38,15 @@ import com.lowagie.text.Chunk
 import com.lowagie.text.Document
 import com.lowagie.text.Element
 import com.lowagie.text.ExceptionConverter
+import com.lowagie.text.Font
 import com.lowagie.text.FontFactory
+import com.lowagie.text.Image
 import com.lowagie.text.Paragraph
 import com.lowagie.text.Rectangle
 import com.lowagie.text.pdf.PdfPCell
 import com.lowagie.text.pdf.PdfPTable
 import com.lowagie.text.pdf.PdfPageEventHelper
-import com.lowagie.text.pdf.PdfReader
-import com.lowagie.text.pdf.PdfStamper
+import com.lowagie.text.pdf.PdfTemplate
 import com.lowagie.text.pdf.PdfWriter
 
 class PExport2PDF(
@@ -68,10 +67,15 @@ class PExport2PDF(
   private var scale = 0.0
   private var widthSum = 0.0
   private val widths: FloatArray = FloatArray(columnCount)
+  private var tableRows = 0
+  private val baseFont = FontFactory.getFont(FontFactory.HELVETICA).getCalculatedBaseFont(false)
 
   companion object {
     private const val BORDER_PADDING = 1
     private const val BORDER_WIDTH = 1
+    private const val FOOTER_FONT_SIZE = 7f
+    // number of rows kept in memory before they are written to the document
+    private const val FLUSHED_ROWS = 200
   }
 
   fun export(): PrintJob {
@@ -104,7 +108,7 @@ class PExport2PDF(
       firstPage = true
       val head = createHeader()
       val firstPageHead = createFirstPageHeader()
-      val foot = createFooter(0, 0)
+      val foot = createFooter(0, null)
 
       if (firstPageHeader.isNotEmpty()) {
         firstPageHead.totalWidth = paperSize.width - printConfig.leftmargin - printConfig.rightmargin
@@ -122,14 +126,22 @@ class PExport2PDF(
         scale = printConfig.reportScale
         formatColumns()
       }
-      val tempFile = Utils.getTempFile("kopiexport", "pdf")
-      val writer = PdfWriter.getInstance(document, FileOutputStream(tempFile))
+      val writer = PdfWriter.getInstance(document, out)
 
       writer.pageEvent = object : PdfPageEventHelper() {
+        // the number of pages is known when the document is closed: it is written
+        // in a template which is shown in the footer of each page
+        private lateinit var pageCount: PdfTemplate
+
+        override fun onOpenDocument(writer: PdfWriter, document: Document) {
+          pageCount = writer.directContent.createTemplate(textWidth("00000", FOOTER_FONT_SIZE), FOOTER_FONT_SIZE)
+        }
+
         override fun onEndPage(writer: PdfWriter, document: Document) {
           try {
             val page: Rectangle = document.pageSize
             val head: PdfPTable = createHeader()
+            val foot: PdfPTable = createFooter(writer.pageNumber, pageCount)
 
             head.totalWidth = (page.width - document.leftMargin() - document.rightMargin())
             head.writeSelectedRows(0,
@@ -137,10 +149,21 @@ class PExport2PDF(
                                    document.leftMargin(),
                                    (page.height - document.topMargin()) + head.totalHeight + printConfig.headermargin,
                                    writer.directContent)
+            foot.totalWidth = page.width - document.leftMargin() - document.rightMargin()
+            foot.writeSelectedRows(0, -1, document.leftMargin(), printConfig.bottommargin + foot.totalHeight, writer.directContent)
           } catch (e: Exception) {
             throw ExceptionConverter(e)
           }
         }
+
+        override fun onCloseDocument(writer: PdfWriter, document: Document) {
+          pages = writer.pageNumber - 1
+          pageCount.beginText()
+          pageCount.setFontAndSize(baseFont, FOOTER_FONT_SIZE)
+          pageCount.setTextMatrix(0f, 0f)
+          pageCount.showText(pages.toString())
+          pageCount.endText()
+        }
       }
       document.open()
       if (firstPageHeader != "") {
@@ -161,30 +184,9 @@ class PExport2PDF(
         }
       }
       exportData()
+      datatable!!.isComplete = true
       document.add(datatable)
       document.close()
-      addFooter(tempFile, out)
-    } catch (e: Exception) {
-      throw InconsistencyException(e)
-    }
-  }
-
-  private fun addFooter(tempFile: File, out: OutputStream) {
-    // write footer;
-    try {
-      val reader = PdfReader(FileInputStream(tempFile))
-      val stamper = PdfStamper(reader, out)
-      val page = document.pageSize
-
-      pages = reader.numberOfPages
-      for (i in 1..pages) {
-        val foot = createFooter(i, pages)
-        val cb = stamper.getOverContent(i)
-
-        foot.totalWidth = page.width - document.leftMargin() - document.rightMargin()
-        foot.writeSelectedRows(0, -1, document.leftMargin(), printConfig.bottommargin + foot.totalHeight, cb)
-      }
-      stamper.close()
     } catch (e: Exception) {
       throw InconsistencyException(e)
     }
@@ -219,18 +221,27 @@ class PExport2PDF(
     return head
   }
 
-  private fun createFooter(page: Int, allPages: Int): PdfPTable {
+  /**
+   * Creates the footer of a page.
+   *
+   * @param page      the page number
+   * @param pageCount the template showing the number of pages
+   */
+  private fun createFooter(page: Int, pageCount: PdfTemplate?): PdfPTable {
     val foot = PdfPTable(2)
+    val text = Paragraph(Chunk(title + " - " + VlibProperties.getString("print-page") + " " + page + "/",
+                               createFont(FOOTER_FONT_SIZE.toDouble(), Color.black)))
 
-    foot.addCell(createCell(title + " - " + VlibProperties.getString("print-page") + " " + page + "/" + allPages,
-                            7.0,
-                            Color.black,
+    if (pageCount != null) {
+      text.add(Chunk(Image.getInstance(pageCount), 0f, 0f))
+    }
+    foot.addCell(createCell(text,
                             Color.white,
                             Constants.ALG_LEFT, false))
     foot.addCell(
       createCell(LocalDate.now().format(DateTimeFormatter.ofPattern("dd.MM.yyyy")) + " " +
                 LocalTime.now().format(DateTimeFormatter.ofPattern("HH:mm")),
-        7.0,
+        FOOTER_FONT_SIZE.toDouble(),
         Color.black,
         Color.white,
         Constants.ALG_RIGHT,
@@ -243,12 +254,16 @@ class PExport2PDF(
   override fun startGroup(subTitle: String?) {
     try {
       if (datatable != null) {
+        datatable!!.isComplete = true
         document.add(datatable)
       }
       currentSubtitle = nextPageSubtitle
       nextPageSubtitle = subTitle
       datatable = PdfPTable(columnCount)
       datatable!!.widthPercentage = 100f
+      // rows are written to the document as soon as enough rows are added
+      datatable!!.isComplete = false
+      tableRows = 0
       val defaultCell = datatable!!.defaultCell
 
       defaultCell.borderWidth = BORDER_WIDTH.toFloat()
@@ -306,20 +321,32 @@ class PExport2PDF(
       }
       cell += 1
     }
+    tableRows += 1
+    if (tableRows % FLUSHED_ROWS == 0) {
+      // the written rows are removed from the table, the header rows are kept
+      document.add(datatable)
+    }
   }
 
+  private fun createFont(size: Double, textColor: Color): Font =
+    FontFactory.getFont(FontFactory.HELVETICA, size.toFloat(),
+                        0,
+                        if (tonerSaveMode()) Color.black else textColor)
+
   private fun createCell(text: String,
                          size: Double,
                          textColor: Color,
+                         background: Color,
+                         alignment: Int,
+                         border: Boolean): PdfPCell =
+    createCell(Paragraph(Chunk(text, createFont(size, textColor))), background, alignment, border)
+
+  private fun createCell(text: Paragraph,
                          background: Color,
                          alignment: Int,
                          border: Boolean): PdfPCell {
-    val cell: PdfPCell
-    val font = FontFactory.getFont(FontFactory.HELVETICA, size.toFloat(),
-                                   0,
-                                   if (tonerSaveMode()) Color.black else textColor)
+    val cell = PdfPCell(text)
 
-    cell = PdfPCell(Paragraph(Chunk(text, font)))
     cell.borderWidth = 1f
     cell.paddingLeft = BORDER_PADDING.toFloat()
     cell.paddingRight = BORDER_PADDING.toFloat()
@@ -381,58 +408,64 @@ class PExport2PDF(
     }
   }
 
+  /**
+   * Returns the width of a text in the report font at the current scale.
+   * The glyph widths are read from the font, no chunk is created.
+   */
+  private fun textWidth(text: String, size: Float = scale.toFloat()): Float = baseFont.getWidthPoint(text, size)
+
   override fun formatStringColumn(column: VReportColumn, index: Int) {
     // maximum of length of title AND width of column
-    widths[index] = max(Chunk(column.label, FontFactory.getFont(FontFactory.HELVETICA, scale.toFloat())).widthPoint,
-                        Chunk("X", FontFactory.getFont(FontFactory.HELVETICA, scale.toFloat())).widthPoint * column.width)
+    widths[index] = max(textWidth(column.label),
+                        textWidth("X") * column.width)
     widthSum += widths[index]
   }
 
   override fun formatWeekColumn(column: VReportColumn, index: Int) {
-    widths[index] = max(Chunk(column.label, FontFactory.getFont(FontFactory.HELVETICA, scale.toFloat())).widthPoint,
-                        Chunk("00.0000", FontFactory.getFont(FontFactory.HELVETICA, scale.toFloat())).widthPoint)
+    widths[index] = max(textWidth(column.label),
+                        textWidth("00.0000"))
     widthSum += widths[index]
   }
 
   override fun formatDateColumn(column: VReportColumn, index: Int) {
-    widths[index] = max(Chunk(column.label, FontFactory.getFont(FontFactory.HELVETICA, scale.toFloat())).widthPoint,
-                        Chunk("00.00.0000", FontFactory.getFont(FontFactory.HELVETICA, scale.toFloat())).widthPoint)
+    widths[index] = max(textWidth(column.label),
+                        textWidth("00.00.0000"))
     widthSum += widths[index]
   }
 
   override fun formatMonthColumn(column: VReportColumn, index: Int) {
-    widths[index] = 4 + max(Chunk(column.label, FontFactory.getFont(FontFactory.HELVETICA, scale.toFloat())).widthPoint,
-                            Chunk("00.0000", FontFactory.getFont(FontFactory.HELVETICA, scale.toFloat())).widthPoint)
+    widths[index] = 4 + max(textWidth(column.label),
+                            textWidth("00.0000"))
     widthSum += widths[index]
   }
 
   override fun formatDecimalColumn(column: VReportColumn, index: Int) {
-    widths[index] = max(Chunk(column.label, FontFactory.getFont(FontFactory.HELVETICA, scale.toFloat())).widthPoint,
-                        Chunk("0", FontFactory.getFont(FontFactory.HELVETICA, scale.toFloat())).widthPoint * column.width)
+    widths[index] = max(textWidth(column.label),
+                        textWidth("0") * column.width)
     widthSum += widths[index]
   }
 
   override fun formatIntegerColumn(column: VReportColumn, index: Int) {
-    widths[index] = max(Chunk(column.label, FontFactory.getFont(FontFactory.HELVETICA, scale.toFloat())).widthPoint,
-                        Chunk("0", FontFactory.getFont(FontFactory.HELVETICA, scale.toFloat())).widthPoint * column.width)
+    widths[index] = max(textWidth(column.label),
+                        textWidth("0") * column.width)
     widthSum += widths[index]
   }
 
   override fun formatBooleanColumn(column: VReportColumn, index: Int) {
-    widths[index] = max(Chunk(column.label, FontFactory.getFont(FontFactory.HELVETICA, scale.toFloat())).widthPoint,
-                        Chunk("false", FontFactory.getFont(FontFactory.HELVETICA, scale.toFloat())).widthPoint)
+    widths[index] = max(textWidth(column.label),
+                        textWidth("false"))
     widthSum += widths[index]
   }
 
   override fun formatTimeColumn(column: VReportColumn, index: Int) {
-    widths[index] = max(Chunk(column.label, FontFactory.getFont(FontFactory.HELVETICA, scale.toFloat())).widthPoint,
-                        Chunk("00:00", FontFactory.getFont(FontFactory.HELVETICA, scale.toFloat())).widthPoint)
+    widths[index] = max(textWidth(column.label),
+                        textWidth("00:00"))
     widthSum += widths[index]
   }
 
   override fun formatTimestampColumn(column: VReportColumn, index: Int) {
-    widths[index] = max(Chunk(column.label, FontFactory.getFont(FontFactory.HELVETICA, scale.toFloat())).widthPoint,
-                        Chunk("00.00.0000 00:00.0000", FontFactory.getFont(FontFactory.HELVETICA, scale.toFloat())).widthPoint)
+    widths[index] = max(textWidth(column.label),
+                        textWidth("00.00.0000 00:00.0000"))
     widthSum += widths[index]
   }
 }
@@ -33,10 +33,11 @@ class PExport2XLSX(table: UTable,
   : PExport2Excel(table, model, printConfig, title), Constants {
 
   override fun createWorkbook(): Workbook {
-    return SXSSFWorkbook(XSSFWorkbook(), 10000, false)
+    // only the last rows are kept in memory, the previous ones are flushed to disk
+    return SXSSFWorkbook(XSSFWorkbook(), SXSSFWorkbook.DEFAULT_WINDOW_SIZE, false)
   }
 
   override fun createFillForegroundColor(color: Color): org.apache.poi.ss.usermodel.Color {
-    return XSSFColor(color, SXSSFWorkbook(XSSFWorkbook(), 10000, false).xssfWorkbook.stylesSource.indexedColors)
+    return XSSFColor(color, (workbook as SXSSFWorkbook).xssfWorkbook.stylesSource.indexedColors)
   }
 }
@@ -0,0 +1,426 @@
+/*
+ * Copyright (c) 2013-2026 kopiLeft Services SARL, Tunis TN
+ * Copyright (c) 1990-2026 kopiRight Managed Solutions GmbH, Wien AT
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1 as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package org.kopi.galite.visual.report
+
+import java.io.Serializable
+import java.math.BigDecimal
+import java.time.LocalDate
+import java.util.BitSet
+
+/**
+ * Column oriented storage of the base rows of a report.
+ *
+ * Each column keeps its values in primitive arrays: integers as ints, decimals as
+ * unscaled longs and their scale, dates as epoch days, booleans as bits and strings
+ * as indexes in a dictionary of the distinct values of the column. The type of a
+ * column is chosen from its first non-null value. Columns holding other types, or
+ * values which do not fit in the primitive representation, fall back to an array
+ * of objects.
+ *
+ * @param columnCount the initial number of columns
+ */
+class ReportRowStore(columnCount: Int = 0) : Serializable {
+
+  private val columns = MutableList<StoreColumn>(columnCount) { EmptyColumn() }
+  private var capacity = INITIAL_CAPACITY
+
+  /**
+   * The number of rows in the store.
+   */
+  var size = 0
+    private set
+
+  /**
+   * The number of columns in the store.
+   */
+  val columnCount: Int
+    get() = columns.size
+
+  /**
+   * The number of modifications of the values or of the columns of the store.
+   * Allows to check whether values computed from the store are still valid.
+   */
+  var modificationCount = 0
+    private set
+
+  /**
+   * Adds a row to the store. Columns are added if the row is wider than the store.
+   *
+   * @param line the values of the row
+   * @return the index of the added row
+   */
+  fun add(line: Array<Any?>): Int {
+    if (size == capacity) {
+      capacity *= 2
+      columns.forEach { it.resize(capacity) }
+    }
+    setColumnCount(maxOf(columns.size, line.size))
+    size += 1
+    line.forEachIndexed { column, value ->
+      set(size - 1, column, value)
+    }
+    return size - 1
+  }
+
+  /**
+   * Returns the value of a cell.
+   *
+   * @param row    the index of the row
+   * @param column the index of the column
+   */
+  operator fun get(row: Int, column: Int): Any? = if (column < columns.size) columns[column][row] else null
+
+  /**
+   * Sets the value of a cell.
+   *
+   * @param row    the index of the row
+   * @param column the index of the column
+   * @param value  the new value
+   */
+  operator fun set(row: Int, column: Int, value: Any?) {
+    modificationCount += 1
+    if (column >= columns.size) {
+      if (value == null) {
+        return
+      }
+      setColumnCount(column + 1)
+    }
+
+    val current = columns[column]
+
+    if (!current.set(row, value)) {
+      // the column cannot hold this value: change its representation
+      val replacement = if (current is EmptyColumn) createColumn(value!!) else ObjectColumn(capacity)
+
+      if (current !is EmptyColumn) {
+        for (i in 0 until size) {
+          replacement.set(i, current[i])
+        }
+      }
+      columns[column] = if (replacement.set(row, value)) {
+        replacement
+      } else {
+        // the first value of the column does not fit in its primitive representation
+        ObjectColumn(capacity).also { it.set(row, value) }
+      }
+    }
+  }
+
+  /**
+   * Returns the values of a row.
+   *
+   * @param row the index of the row
+   */
+  fun getRow(row: Int): Array<Any?> = Array(columns.size) { columns[it][row] }
+
+  /**
+   * Returns true if the values of the given column can be compared with [compare]
+   * without creating objects.
+   */
+  fun isComparable(column: Int): Boolean = column < columns.size && columns[column] !is ObjectColumn
+
+  /**
+   * Compares the values of a column in two rows using the natural order of the values.
+   * Null values are less than everything.
+   *
+   * @param row1   the index of the first row
+   * @param row2   the index of the second row
+   * @param column the index of the column
+   */
+  fun compare(row1: Int, row2: Int, column: Int): Int {
+    val values = columns[column]
+    val null1 = values.isNull(row1)
+    val null2 = values.isNull(row2)
+
+    return when {
+      null1 && null2 -> 0
+      null1 -> -1
+      null2 -> 1
+      else -> values.compare(row1, row2)
+    }
+  }
+
+  /**
+   * Removes a column, the following columns are shifted to the left.
+   *
+   * @param column the index of the column
+   */
+  fun removeColumn(column: Int) {
+    if (column < columns.size) {
+      columns.removeAt(column)
+      modificationCount += 1
+    }
+  }
+
+  /**
+   * Truncates the store to the given number of columns or adds empty columns to it.
+   *
+   * @param count the new number of columns
+   */
+  fun setColumnCount(count: Int) {
+    if (count != columns.size) {
+      modificationCount += 1
+    }
+    while (columns.size > count) {
+      columns.removeAt(columns.size - 1)
+    }
+    while (columns.size < count) {
+      columns.add(EmptyColumn())
+    }
+  }
+
+  private fun createColumn(value: Any): StoreColumn =
+    when (value) {
+      is Int -> IntColumn(capacity)
+      is BigDecimal -> DecimalColumn(capacity)
+      is LocalDate -> DateColumn(capacity)
+      is Boolean -> BooleanColumn(capacity)
+      is String -> StringColumn(capacity)
+      else -> ObjectColumn(capacity)
+    }
+
+  // --------------------------------------------------------------------
+  // COLUMNS
+  // --------------------------------------------------------------------
+
+  private abstract class StoreColumn : Serializable {
+    abstract operator fun get(row: Int): Any?
+
+    /**
+     * Sets the value of a row, returns false if this column cannot represent the value.
+     */
+    abstract fun set(row: Int, value: Any?): Boolean
+
+    abstract fun resize(capacity: Int)
+
+    abstract fun isNull(row: Int): Boolean
+
+    /**
+     * Compares the non-null values of two rows.
+     */
+    abstract fun compare(row1: Int, row2: Int): Int
+  }
+
+  /**
+   * A column which has only received null values until now.
+   */
+  private class EmptyColumn : StoreColumn() {
+    override fun get(row: Int): Any? = null
+
+    override fun set(row: Int, value: Any?): Boolean = value == null
+
+    override fun resize(capacity: Int) {}
+
+    override fun isNull(row: Int): Boolean = true
+
+    override fun compare(row1: Int, row2: Int): Int = 0
+  }
+
+  /**
+   * A column whose non-null values are flagged in a bit set.
+   */
+  private abstract class PrimitiveColumn : StoreColumn() {
+    protected val present = BitSet()
+
+    override fun isNull(row: Int): Boolean = !present[row]
+
+    override fun set(row: Int, value: Any?): Boolean =
+      if (value == null) {
+        present.clear(row)
+        true
+      } else if (setValue(row, value)) {
+        present.set(row)
+        true
+      } else {
+        false
+      }
+
+    abstract fun setValue(row: Int, value: Any): Boolean
+  }
+
+  private class IntColumn(capacity: Int) : PrimitiveColumn() {
+    private var values = IntArray(capacity)
+
+    override fun get(row: Int): Any? = if (present[row]) values[row] else null
+
+    override fun setValue(row: Int, value: Any): Boolean {
+      if (value !is Int) {
+        return false
+      }
+      values[row] = value
+      return true
+    }
+
+    override fun resize(capacity: Int) {
+      values = values.copyOf(capacity)
+    }
+
+    override fun compare(row1: Int, row2: Int): Int = values[row1].compareTo(values[row2])
+  }
+
+  private class DecimalColumn(capacity: Int) : PrimitiveColumn() {
+    private var unscaled = LongArray(capacity)
+    private var scales = ByteArray(capacity)
+
+    override fun get(row: Int): Any? = if (present[row]) BigDecimal.valueOf(unscaled[row], scales[row].toInt()) else null
+
+    override fun setValue(row: Int, value: Any): Boolean {
+      if (value !is BigDecimal || value.scale() !in Byte.MIN_VALUE..Byte.MAX_VALUE || value.unscaledValue().bitLength() > 63) {
+        return false
+      }
+      unscaled[row] = value.unscaledValue().toLong()
+      scales[row] = value.scale().toByte()
+      return true
+    }
+
+    override fun resize(capacity: Int) {
+      unscaled = unscaled.copyOf(capacity)
+      scales = scales.copyOf(capacity)
+    }
+
+    override fun compare(row1: Int, row2: Int): Int =
+      if (scales[row1] == scales[row2]) {
+        unscaled[row1].compareTo(unscaled[row2])
+      } else {
+        (get(row1) as BigDecimal).compareTo(get(row2) as BigDecimal)
+      }
+  }
+
+  private class DateColumn(capacity: Int) : PrimitiveColumn() {
+    private var days = LongArray(capacity)
+
+    override fun get(row: Int): Any? = if (present[row]) LocalDate.ofEpochDay(days[row]) else null
+
+    override fun setValue(row: Int, value: Any): Boolean {
+      if (value !is LocalDate) {
+        return false
+      }
+      days[row] = value.toEpochDay()
+      return true
+    }
+
+    override fun resize(capacity: Int) {
+      days = days.copyOf(capacity)
+    }
+
+    override fun compare(row1: Int, row2: Int): Int = days[row1].compareTo(days[row2])
+  }
+
+  private class BooleanColumn(capacity: Int) : PrimitiveColumn() {
+    private val values = BitSet(capacity)
+
+    override fun get(row: Int): Any? = if (present[row]) values[row] else null
+
+    override fun setValue(row: Int, value: Any): Boolean {
+      if (value !is Boolean) {
+        return false
+      }
+      values[row] = value
+      return true
+    }
+
+    override fun resize(capacity: Int) {}
+
+    override fun compare(row1: Int, row2: Int): Int = values[row1].compareTo(values[row2])
+  }
+
+  /**
+   * A dictionary encoded column of strings. The code 0 stands for null, the
+   * code n for the n-th distinct value of the column.
+   */
+  private class StringColumn(capacity: Int) : StoreColumn() {
+    private var codes = IntArray(capacity)
+    private val dictionary = ArrayList<String>()
+    private val codesByValue = HashMap<String, Int>()
+
+    override fun get(row: Int): Any? = if (codes[row] == 0) null else dictionary[codes[row] - 1]
+
+    override fun set(row: Int, value: Any?): Boolean {
+      if (value == null) {
+        codes[row] = 0
+        return true
+      }
+      if (value !is String) {
+        return false
+      }
+
+      var code = codesByValue[value]
+
+      if (code == null) {
+        if (dictionary.size == MAX_DICTIONARY_SIZE) {
+          // mostly distinct values: a dictionary does not save memory
+          return false
+        }
+        dictionary.add(value)
+        code = dictionary.size
+        codesByValue[value] = code
+      }
+      codes[row] = code
+      return true
+    }
+
+    override fun resize(capacity: Int) {
+      codes = codes.copyOf(capacity)
+    }
+
+    override fun isNull(row: Int): Boolean = codes[row] == 0
+
+    override fun compare(row1: Int, row2: Int): Int =
+      if (codes[row1] == codes[row2]) 0 else dictionary[codes[row1] - 1].compareTo(dictionary[codes[row2] - 1])
+  }
+
+  private class ObjectColumn(capacity: Int) : StoreColumn() {
+    private var values = arrayOfNulls<Any>(capacity)
+
+    override fun get(row: Int): Any? = values[row]
+
+    override fun set(row: Int, value: Any?): Boolean {
+      values[row] = value
+      return true
+    }
+
+    override fun resize(capacity: Int) {
+      values = values.copyOf(capacity)
+    }
+
+    override fun isNull(row: Int): Boolean = values[row] == null
+
+    /**
+     * Compares the values of the same class with their natural order and the values
+     * of different classes with the names of their classes.
+     */
+    override fun compare(row1: Int, row2: Int): Int {
+      val value1 = values[row1]!!
+      val value2 = values[row2]!!
+
+      @Suppress("UNCHECKED_CAST")
+      return if (value1 is Comparable<*> && value1.javaClass == value2.javaClass) {
+        (value1 as Comparable<Any>).compareTo(value2)
+      } else {
+        value1.javaClass.name.compareTo(value2.javaClass.name)
+      }
+    }
+  }
+
+  companion object {
+    private const val serialVersionUID = 0L
+    private const val INITIAL_CAPACITY = 64
+    private const val MAX_DICTIONARY_SIZE = 1 shl 16
+  }
+}
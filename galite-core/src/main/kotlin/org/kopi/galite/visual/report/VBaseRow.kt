@@ -18,13 +18,58 @@
 
 package org.kopi.galite.visual.report
 
-class VBaseRow(data: Array<Any?>) : VReportRow(data) {
+/**
+ * A base row of a report. Its values are kept in the row [store] of the report.
+ *
+ * @param store the store holding the values of the row
+ * @param index the index of the row in the store
+ */
+class VBaseRow(val store: ReportRowStore, val index: Int) : VReportRow() {
+
+  /**
+   * Creates a base row holding its own values.
+   *
+   * @param data the values of the row
+   */
+  constructor(data: Array<Any?>) : this(ReportRowStore(data.size), 0) {
+    store.add(data)
+  }
+
   /**
    * Return the level of the node. For base rows it is always 0
    */
   override fun getLevel(): Int = 0
 
+  override fun getValueAt(column: Int): Any? = store[index, column]
+
+  override fun setValueAt(column: Int, value: Any?) {
+    store[index, column] = value
+  }
+
+  override fun cloneArray(): Array<Any?> = store.getRow(index)
+
+  /**
+   * Compares base rows of the same store without creating objects for the
+   * columns whose order is the natural order of their values.
+   */
+  override fun compareTo(other: VReportRow, position: Int, column: VReportColumn): Int =
+    if (other is VBaseRow && other.store === store && hasNaturalOrder(column) && store.isComparable(position)) {
+      store.compare(index, other.index, position)
+    } else {
+      super.compareTo(other, position, column)
+    }
+
   companion object {
     private const val serialVersionUID = 0L
+
+    /**
+     * Returns true if the order of the column is the natural order of its values.
+     */
+    internal fun hasNaturalOrder(column: VReportColumn): Boolean =
+      column is VIntegerColumn || column is VIntegerCodeColumn
+              || column is VDecimalColumn || column is VDecimalCodeColumn
+              || column is VStringColumn || column is VStringCodeColumn
+              || column is VBooleanColumn || column is VBooleanCodeColumn
+              || column is VDateColumn
   }
 }
@@ -21,10 +21,29 @@ package org.kopi.galite.visual.report
 /**
  * Represents a description for a grouping row
  *
- * @param data The grouping row data
+ * @param store the store holding the grouping row data
+ * @param index the index of the grouping row in the store
  * @param level the grouping row level
  */
-class VGroupRow(data: Array<Any?>, private val level: Int) : VReportRow(data) {
+class VGroupRow(val store: ReportRowStore, val index: Int, private val level: Int) : VReportRow() {
+
+  /**
+   * Creates a grouping row holding its own values.
+   *
+   * @param data The grouping row data
+   * @param level the grouping row level
+   */
+  constructor(data: Array<Any?>, level: Int) : this(ReportRowStore(data.size), 0, level) {
+    store.add(data)
+  }
+
+  /**
+   * Return the object at column
+   *
+   * @param        column                the index of the column
+   * @return        the object to be displayed
+   */
+  override fun getValueAt(column: Int): Any? = store[index, column]
 
   /**
    * Sets data row
@@ -33,9 +52,14 @@ class VGroupRow(data: Array<Any?>, private val level: Int) : VReportRow(data) {
    * @param        value                the value for the column
    */
   override fun setValueAt(column: Int, value: Any?) {
-    data[column] = value
+    store[index, column] = value
   }
 
+  /**
+   * Clone Array's objects
+   */
+  override fun cloneArray(): Array<Any?> = store.getRow(index)
+
   /**
    * Return the level of the node in the grouping tree
    */
@@ -29,6 +29,7 @@ import kotlin.jvm.Throws
 
 import org.jetbrains.annotations.TestOnly
 import org.kopi.galite.visual.cross.VDynamicReport
+import org.kopi.galite.visual.database.FetchPolicy
 import org.kopi.galite.visual.dsl.common.Trigger
 import org.kopi.galite.visual.form.VConstants
 import org.kopi.galite.visual.l10n.LocalizationManager
@@ -97,6 +98,12 @@ abstract class VReport internal constructor() : VWindow(), Constants, VConstants
   var media: String? = null             // The media for this document
   var help: String? = null
 
+  /**
+   * The number of rows read at once by the queries loading the report, 0 for the
+   * default of [FetchPolicy].
+   */
+  var fetchSize = 0
+
   override fun getType() = org.kopi.galite.visual.Constants.MDL_REPORT
 
   /**
@@ -18,11 +18,25 @@
 
 package org.kopi.galite.visual.report
 
+import java.util.Collections
+import java.util.Enumeration
+
 import javax.swing.tree.DefaultMutableTreeNode
+import javax.swing.tree.TreeNode
 
-abstract class VReportRow(val data: Array<Any?>) : DefaultMutableTreeNode() {
+/**
+ * A row of a report: a base row or a grouping row.
+ *
+ * Rows are nodes of the grouping tree of the report. The tree is stored in a
+ * [GroupingTree], rows do not hold their children and the children methods
+ * of [DefaultMutableTreeNode] are served from the grouping tree.
+ */
+abstract class VReportRow : DefaultMutableTreeNode() {
   var visible = false
 
+  // the grouping tree this row belongs to
+  internal var tree: GroupingTree? = null
+
   /**
    * Return the level of the node in the grouping tree, starting with 0 at
    * the base rows (leafs).
@@ -37,7 +51,7 @@ abstract class VReportRow(val data: Array<Any?>) : DefaultMutableTreeNode() {
    * @param        column                the index of the column
    * @return        the object to be displayed
    */
-  fun getValueAt(column: Int): Any? = data[column]
+  abstract fun getValueAt(column: Int): Any?
 
   /**
    * Sets data at column of certain index
@@ -45,14 +59,18 @@ abstract class VReportRow(val data: Array<Any?>) : DefaultMutableTreeNode() {
    * @param        column                the index of the column
    * @param        value                the value for the column
    */
-  open fun setValueAt(column: Int, value: Any?) {
-    data[column] = value
-  }
+  abstract fun setValueAt(column: Int, value: Any?)
 
   /**
    * Clone Array's objects
    */
-  fun cloneArray() = data.clone()
+  abstract fun cloneArray(): Array<Any?>
+
+  /**
+   * A copy of the values of this row
+   */
+  val data: Array<Any?>
+    get() = cloneArray()
 
   /**
    * Compare two VReportRows within specified column
@@ -62,9 +80,9 @@ abstract class VReportRow(val data: Array<Any?>) : DefaultMutableTreeNode() {
    * @param column
    * @return
    */
-  fun compareTo(other: VReportRow, position: Int, column: VReportColumn): Int {
-    val data = data[position]
-    val rowData = other.data[position]
+  open fun compareTo(other: VReportRow, position: Int, column: VReportColumn): Int {
+    val data = getValueAt(position)
+    val rowData = other.getValueAt(position)
 
     // check for nulls: define null less than everything
     return when {
@@ -75,6 +93,27 @@ abstract class VReportRow(val data: Array<Any?>) : DefaultMutableTreeNode() {
     }
   }
 
+  // --------------------------------------------------------------------
+  // GROUPING TREE
+  // --------------------------------------------------------------------
+
+  override fun getParent(): TreeNode? = tree?.getParent(this)
+
+  override fun getChildCount(): Int = tree?.getChildCount(this) ?: 0
+
+  override fun getChildAt(index: Int): TreeNode =
+    tree?.getChildAt(this, index) ?: throw ArrayIndexOutOfBoundsException("node has no children")
+
+  override fun getIndex(aChild: TreeNode?): Int {
+    requireNotNull(aChild) { "argument is null" }
+
+    return if (aChild is VReportRow) tree?.getIndex(this, aChild) ?: -1 else -1
+  }
+
+  override fun children(): Enumeration<TreeNode> = Collections.enumeration(List(childCount) { getChildAt(it) })
+
+  override fun getLeafCount(): Int = tree?.getLeafCount(this) ?: 1
+
   companion object {
     private const val serialVersionUID = 0L
   }
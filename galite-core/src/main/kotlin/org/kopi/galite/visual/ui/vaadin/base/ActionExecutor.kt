@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2013-2026 kopiLeft Services SARL, Tunis TN
+ * Copyright (c) 1990-2026 kopiRight Managed Solutions GmbH, Wien AT
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1 as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package org.kopi.galite.visual.ui.vaadin.base
+
+import java.util.Collections
+import java.util.WeakHashMap
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.locks.ReentrantLock
+
+import kotlin.concurrent.withLock
+
+import org.kopi.galite.util.base.Metrics
+
+import com.vaadin.flow.component.UI
+import com.vaadin.flow.server.VaadinSession
+
+/**
+ * Runs the actions executed outside of the UI event processing: window actions,
+ * asynchronous menu actions and background tasks of the fields.
+ *
+ * Actions are run by [executor] which uses virtual threads when the JVM provides
+ * them (JDK 21 and later) and a pool of platform threads otherwise. The actions of
+ * a Vaadin session are queued once [maximumSessionActions] of them are running.
+ * An action waiting for the user, see [waitFor], is not counted.
+ */
+object ActionExecutor {
+
+  /**
+   * The executor running the actions. Applications can replace it with their own executor.
+   */
+  @Volatile
+  var executor: Executor = createDefaultExecutor()
+
+  /**
+   * The maximum number of actions of a session running at the same time.
+   */
+  @Volatile
+  var maximumSessionActions: Int = 8
+
+  private val sessions = Collections.synchronizedMap(WeakHashMap<VaadinSession, SessionActions>())
+  private val currentActions = ThreadLocal<SessionActions?>()
+  private val activeActions = AtomicInteger()
+  private val queuedActions = AtomicInteger()
+  private val executedActions = Metrics.counter("galite.actions.executed")
+
+  init {
+    Metrics.gauge("galite.actions.active") { activeActions.get() }
+    Metrics.gauge("galite.actions.queued") { queuedActions.get() }
+  }
+
+  /**
+   * Executes an action asynchronously.
+   *
+   * @param ui     the UI of the action, made available to [BackgroundThreadHandler.locateUI]
+   * @param action the action to execute
+   */
+  fun execute(ui: UI? = BackgroundThreadHandler.locateUI(), action: () -> Unit) {
+    val task = Runnable {
+      val previousUI = BackgroundThreadHandler.locateUI()
+
+      if (ui != null) {
+        BackgroundThreadHandler.setUI(ui)
+      }
+      try {
+        action()
+      } finally {
+        BackgroundThreadHandler.setUI(previousUI)
+      }
+    }
+    val session = ui?.session ?: VaadinSession.getCurrent()
+
+    if (session == null) {
+      executor.execute { runAction(task) }
+    } else {
+      sessions.computeIfAbsent(session) { SessionActions() }.submit(task)
+    }
+  }
+
+  /**
+   * Runs a block waiting for the user, until a dialog is closed for example. The
+   * current action does not count in the running actions of its session while it
+   * waits: the actions of nested dialogs can run whatever their number.
+   *
+   * @param block the block waiting for the user
+   */
+  fun <T> waitFor(block: () -> T): T {
+    val actions = currentActions.get() ?: return block()
+
+    try {
+      actions.release()
+      return block()
+    } finally {
+      actions.resume()
+    }
+  }
+
+  private fun runAction(task: Runnable) {
+    activeActions.incrementAndGet()
+    try {
+      task.run()
+    } catch (e: Throwable) {
+      e.printStackTrace()
+    } finally {
+      activeActions.decrementAndGet()
+      executedActions.increment()
+    }
+  }
+
+  private fun createDefaultExecutor(): Executor =
+    try {
+      Executors::class.java.getMethod("newVirtualThreadPerTaskExecutor").invoke(null) as Executor
+    } catch (e: ReflectiveOperationException) {
+      // virtual threads are not available before JDK 21
+      val count = AtomicInteger()
+
+      Executors.newCachedThreadPool { runnable ->
+        Thread(runnable, "galite-action-" + count.incrementAndGet()).also { it.isDaemon = true }
+      }
+    }
+
+  /**
+   * The actions of a session: up to [maximumSessionActions] are running, the other ones are pending.
+   * A thread running an action of the session goes on with the pending actions.
+   * A resumed action can exceed the maximum: no pending action starts until the
+   * running actions are back under it.
+   */
+  private class SessionActions {
+    private val lock = ReentrantLock()
+    private val pending = ArrayDeque<Runnable>()
+    private var running = 0
+
+    fun submit(task: Runnable) {
+      val start = lock.withLock {
+        if (running < maximumSessionActions) {
+          running += 1
+          true
+        } else {
+          pending.addLast(task)
+          queuedActions.incrementAndGet()
+          false
+        }
+      }
+
+      if (start) {
+        start(task)
+      }
+    }
+
+    /**
+     * Releases the place of an action waiting for the user: the first pending action takes it.
+     */
+    fun release() {
+      val task = lock.withLock { next() }
+
+      if (task != null) {
+        start(task)
+      }
+    }
+
+    /**
+     * Takes back the place of an action which has waited for the user.
+     */
+    fun resume() {
+      lock.withLock { running += 1 }
+    }
+
+    private fun start(task: Runnable) {
+      try {
+        executor.execute { runAll(task) }
+      } catch (e: RejectedExecutionException) {
+        lock.withLock { running -= 1 }
+        throw e
+      }
+    }
+
+    private fun runAll(first: Runnable) {
+      var task: Runnable? = first
+
+      currentActions.set(this)
+      try {
+        while (task != null) {
+          runAction(task)
+          task = lock.withLock { next() }
+        }
+      } finally {
+        currentActions.remove()
+      }
+    }
+
+    /**
+     * Returns the pending action taking the place of a running one, or releases the place.
+     */
+    private fun next(): Runnable? {
+      val task = if (running <= maximumSessionActions) pending.removeFirstOrNull() else null
+
+      if (task == null) {
+        running -= 1
+      } else {
+        queuedActions.decrementAndGet()
+      }
+      return task
+    }
+  }
+}
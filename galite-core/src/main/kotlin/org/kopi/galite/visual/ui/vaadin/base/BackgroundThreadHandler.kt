@@ -17,7 +17,12 @@
  */
 package org.kopi.galite.visual.ui.vaadin.base
 
+import java.util.Collections
+import java.util.WeakHashMap
 import java.util.concurrent.ExecutionException
+import java.util.concurrent.locks.ReentrantLock
+
+import kotlin.concurrent.withLock
 
 import com.vaadin.flow.component.UI
 
@@ -25,10 +30,15 @@ import com.vaadin.flow.component.UI
  * Utility object for managing background threads in a Vaadin application.
  *
  * Each background task is followed by a client UI update using Vaadin's push mechanism.
+ *
+ * Threads waiting for a dialog are parked on a [ReentrantLock] condition instead of a
+ * monitor, so that waiting virtual threads do not hold their carrier thread. They do
+ * not count in the running actions of their session, see [ActionExecutor.waitFor].
  */
 object BackgroundThreadHandler {
 
   private val uiThreadLocal = ThreadLocal<UI?>()
+  private val signals = Collections.synchronizedMap(WeakHashMap<Any, Signal>())
 
   /**
    * If a current UI context is found, directly execute the command
@@ -101,15 +111,11 @@ object BackgroundThreadHandler {
    * @param command The command to execute, which can access the UI.
    */
   fun startAndWait(lock: Object, currentUI: UI? = null, command: () -> Unit) {
+    val signal = signal(lock)
+    val release = signal.release
+
     access(currentUI, command)
-    synchronized(lock) {
-      try {
-        lock.wait()
-      } catch (e: InterruptedException) {
-        Thread.currentThread().interrupt()
-        e.printStackTrace()
-      }
-    }
+    ActionExecutor.waitFor { signal.await(release) }
   }
 
   /**
@@ -118,15 +124,11 @@ object BackgroundThreadHandler {
    * @param command The command to execute, which can access the UI.
    */
   fun startAndWaitAndPush(lock: Object, currentUI: UI? = null, command: () -> Unit) {
+    val signal = signal(lock)
+    val release = signal.release
+
     accessAndPush(currentUI, command)
-    synchronized(lock) {
-      try {
-        lock.wait()
-      } catch (e: InterruptedException) {
-        Thread.currentThread().interrupt()
-        e.printStackTrace()
-      }
-    }
+    ActionExecutor.waitFor { signal.await(release) }
   }
 
   /**
@@ -134,11 +136,11 @@ object BackgroundThreadHandler {
    * @param lock The lock object to release.
    */
   fun releaseLock(lock: Object) {
-    synchronized(lock) {
-      lock.notifyAll()
-    }
+    signal(lock).signalAll()
   }
 
+  private fun signal(lock: Any): Signal = signals.computeIfAbsent(lock) { Signal() }
+
   /**
    * Sets the UI in a thread-local variable for later retrieval.
    * Useful for scenarios where `UI.getCurrent()` is null.
@@ -160,4 +162,40 @@ object BackgroundThreadHandler {
    * Attempts to retrieve the current UI from `UI.getCurrent()` or the thread-local storage.
    */
   fun locateUI(): UI? = UI.getCurrent() ?: uiThreadLocal.get()
+
+  /**
+   * The releases of a lock. A thread waits until the lock is released after it has
+   * started its task, even if the release happens before the thread starts waiting.
+   */
+  private class Signal {
+    private val lock = ReentrantLock()
+    private val released = lock.newCondition()
+
+    /**
+     * The number of releases of the lock.
+     */
+    @Volatile
+    var release = 0L
+      private set
+
+    fun await(release: Long) {
+      lock.withLock {
+        try {
+          while (this.release == release) {
+            released.await()
+          }
+        } catch (e: InterruptedException) {
+          Thread.currentThread().interrupt()
+          e.printStackTrace()
+        }
+      }
+    }
+
+    fun signalAll() {
+      lock.withLock {
+        release += 1
+        released.signalAll()
+      }
+    }
+  }
 }
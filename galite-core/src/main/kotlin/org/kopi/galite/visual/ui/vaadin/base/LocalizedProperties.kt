@@ -67,6 +67,7 @@ object LocalizedProperties {
       val properties: HashMap<String, String> = HashMap()
       properties["OK"] = "Oui"
       properties["CLOSE"] = "Fermer"
+      properties["LOAD_MORE"] = "Afficher plus"
       properties["CANCEL"] = "Annuler"
       properties["NO"] = "Non"
       properties["position-number"] = "Numéro de position"
@@ -120,6 +121,7 @@ object LocalizedProperties {
       val properties: HashMap<String, String> = HashMap()
       properties["OK"] = "Yes"
       properties["CLOSE"] = "Close"
+      properties["LOAD_MORE"] = "Load more"
       properties["CANCEL"] = "Cancel"
       properties["NO"] = "No"
       properties["position-number"] = "Position number"
@@ -173,6 +175,7 @@ object LocalizedProperties {
       val properties = HashMap<String, String>()
       properties["OK"] = "Ja"
       properties["CLOSE"] = "Schließen"
+      properties["LOAD_MORE"] = "Mehr laden"
       properties["CANCEL"] = "Abbrechen"
       properties["NO"] = "Nein"
       properties["position-number"] = "Positionszahl"
@@ -226,6 +229,7 @@ object LocalizedProperties {
       val properties: HashMap<String, String> = HashMap()
       properties["OK"] = "نعم"
       properties["CLOSE"] = "غلق"
+      properties["LOAD_MORE"] = "تحميل المزيد"
       properties["CANCEL"] = "الغاء"
       properties["NO"] = "لا"
       properties["position-number"] = "رقم الموضع"
@@ -17,6 +17,7 @@
  */
 package org.kopi.galite.visual.ui.vaadin.block
 
+import org.kopi.galite.visual.ui.vaadin.base.ActionExecutor
 import org.kopi.galite.visual.ui.vaadin.base.Utils
 import org.kopi.galite.visual.ui.vaadin.field.TextField
 import org.kopi.galite.visual.ui.vaadin.form.DField
@@ -145,12 +146,12 @@ class AlignPanel(var align: BlockAlignment?, private val targetBlockName: String
 
           if (cell != null) {
             add(components!![i])
-            Thread {
+            ActionExecutor.execute(ui) {
               setComponentPosition(
                 components!![i],
                 Utils.getOffsetLeft(cell, ui),
                 align.y * 21) // text fields height is 15px
-            }.start()
+            }
           }
         }
       }
@@ -17,6 +17,7 @@
  */
 package org.kopi.galite.visual.ui.vaadin.field
 
+import org.kopi.galite.visual.ui.vaadin.base.ActionExecutor
 import org.kopi.galite.visual.ui.vaadin.base.BackgroundThreadHandler.access
 import org.kopi.galite.visual.ui.vaadin.base.Utils
 import org.kopi.galite.visual.ui.vaadin.base.addJSKeyDownListener
@@ -48,13 +49,13 @@ open class TextFieldNavigationHandler protected constructor(private val isMulti:
     addKeyNavigator(field, Key.KEY_D, KeyModifier.of("Control")) {
       val ui = UI.getCurrent()
 
-      Thread {
+      ActionExecutor.execute(ui) {
         val text = StringBuffer(field.value)
         text.insert(Utils.getCursorPos(field), "\u00D8")
         access(ui) {
           field.value = text.toString()
         }
-      }.start()
+      }
     }
     addKeyNavigator(field, Key.PAGE_DOWN) {
       field.fieldConnector.gotoNextRecord()
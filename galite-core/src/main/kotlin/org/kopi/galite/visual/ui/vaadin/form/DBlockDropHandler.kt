@@ -32,6 +32,7 @@ import org.kopi.galite.visual.form.VBlock
 import org.kopi.galite.visual.form.VField
 import org.kopi.galite.visual.form.VImageField
 import org.kopi.galite.visual.form.VStringField
+import org.kopi.galite.visual.ui.vaadin.base.ActionExecutor
 import org.kopi.galite.visual.VException
 import org.kopi.galite.visual.VExecFailedException
 
@@ -240,9 +241,9 @@ class DBlockDropHandler(private val block: VBlock) {
 
     fun streamingFailed(fileName: String, mimeType: String, contentLength: Long, exception: Exception) {
       exception.printStackTrace(System.err)
-      Thread {
+      ActionExecutor.execute {
         block.form.error(exception.message)
-      }.start()
+      }
     }
 
     /**
@@ -37,6 +37,7 @@ import com.vaadin.flow.component.icon.VaadinIcon
 import com.vaadin.flow.component.textfield.TextField
 import com.vaadin.flow.data.binder.Binder
 import com.vaadin.flow.data.event.SortEvent
+import com.vaadin.flow.data.provider.CallbackDataProvider
 import com.vaadin.flow.data.provider.ListDataProvider
 import com.vaadin.flow.data.provider.Query
 import com.vaadin.flow.data.renderer.ComponentRenderer
@@ -106,6 +107,10 @@ open class DGridBlock(parent: DForm, model: VBlock) : DBlock(parent, model) {
   private var filterRow: HeaderRow? = null
   private lateinit var sortableHeaders: MutableMap<Grid.Column<*>, DGridEditorLabel>
   private lateinit var deletedRecordsFilter: SerializablePredicate<GridBlockItem>
+  // the filter row predicate of a paged block, applied when the rows are fetched
+  private var pagedRecordsFilter: SerializablePredicate<GridBlockItem>? = null
+  // true while the next page of a paged block is loaded
+  private var loadingPage = false
   var lastSortOrder: List<GridSortOrder<GridBlockItem>>? = null
   lateinit var editor: Editor<GridBlockItem>
   val isEditorInitialized get() = ::editor.isInitialized
@@ -186,7 +191,8 @@ open class DGridBlock(parent: DForm, model: VBlock) : DBlock(parent, model) {
   }
 
   private fun setHeightByRows(buffer: Int, rows: Int) {
-    if (buffer == rows) {
+    // a paged block should only render the rows in the view port
+    if (buffer == rows && !model.isPaged()) {
       grid.isAllRowsVisible = true
     } else {
       grid.height = "calc(var(--_lumo-grid-border-width) + ${(rows + 1) * 24}px)"
@@ -283,8 +289,6 @@ open class DGridBlock(parent: DForm, model: VBlock) : DBlock(parent, model) {
   }
 
   override fun filterShown() {
-    val dataProvider = grid.dataProvider as ListDataProvider
-
     if (filterRow != null) {
       access(currentUI) {
         grid.element.themeList.remove("hidden-filter")
@@ -306,7 +310,7 @@ open class DGridBlock(parent: DForm, model: VBlock) : DBlock(parent, model) {
         filter.suffixComponent = search
         filter.className = "block-filter-text"
         filter.addValueChangeListener {
-          dataProvider.refreshAll()
+          grid.dataProvider.refreshAll()
         }
 
         filter.valueChangeMode = ValueChangeMode.EAGER
@@ -314,13 +318,25 @@ open class DGridBlock(parent: DForm, model: VBlock) : DBlock(parent, model) {
 
         FilterField(field, filter)
       }
-      dataProvider.addFilter(DGridBlockFilter(filterFields, true, false))
+      val recordsFilter = DGridBlockFilter(filterFields, true, false)
+
+      if (model.isPaged()) {
+        pagedRecordsFilter = recordsFilter
+        grid.dataProvider.refreshAll()
+      } else {
+        (grid.dataProvider as ListDataProvider).addFilter(recordsFilter)
+      }
     }
   }
 
   override fun filterHidden() {
     access {
-      (grid.dataProvider as ListDataProvider).filter = deletedRecordsFilter
+      if (model.isPaged()) {
+        pagedRecordsFilter = null
+        grid.dataProvider.refreshAll()
+      } else {
+        (grid.dataProvider as ListDataProvider).filter = deletedRecordsFilter
+      }
       if (filterRow != null) {
         grid.element.themeList.remove("shown-filter")
         grid.element.themeList.add("hidden-filter")
@@ -402,6 +418,12 @@ open class DGridBlock(parent: DForm, model: VBlock) : DBlock(parent, model) {
   }
 
   fun sort(sortOrder: List<GridSortOrder<GridBlockItem>>) {
+    if (model.isPaged()) {
+      // records are sorted in memory: the pages left would be appended in database order
+      while (loadNextPage()) {
+        // load the next page
+      }
+    }
     sortOrder.forEach {
       sortableHeaders[it.sorted]?.let { label ->
         label.model?.sortColumn(label.fieldIndex!!)
@@ -410,6 +432,10 @@ open class DGridBlock(parent: DForm, model: VBlock) : DBlock(parent, model) {
   }
 
   private fun getActualItems(): Stream<GridBlockItem> {
+    if (model.isPaged()) {
+      return getPagedItems().stream()
+    }
+
     val dataProvider = grid.dataProvider as ListDataProvider
     val totalSize = dataProvider.items.size
     val dataCommunicator = grid.dataCommunicator
@@ -436,7 +462,8 @@ open class DGridBlock(parent: DForm, model: VBlock) : DBlock(parent, model) {
    * Notifies the data source that the content of the block has changed.
    */
   protected fun contentChanged() {
-    if (::grid.isInitialized) {
+    // the grid fetches the rows of a loaded page by itself
+    if (::grid.isInitialized && !loadingPage) {
       access(currentUI) {
         grid.dataProvider.refreshAll()
         // correct grid width to add scroll bar width
@@ -555,16 +582,81 @@ open class DGridBlock(parent: DForm, model: VBlock) : DBlock(parent, model) {
         }
       }
     }
-    val items = mutableListOf<GridBlockItem>()
-
-    repeat(model.bufferSize) {
-      items.add(GridBlockItem(it))
-    }
-    grid.setItems(items)
     deletedRecordsFilter = SerializablePredicate<GridBlockItem> { item ->
       !model.isRecordDeleted(item.record)
     }
-    (grid.dataProvider as ListDataProvider).filter = deletedRecordsFilter
+
+    if (model.isPaged()) {
+      // rows are fetched lazily while the grid is scrolled
+      grid.setItems(CallbackDataProvider.FetchCallback<GridBlockItem, Void> { query ->
+        fetchPagedItems(query.offset, query.limit)
+      })
+    } else {
+      val items = mutableListOf<GridBlockItem>()
+
+      repeat(model.bufferSize) {
+        items.add(GridBlockItem(it))
+      }
+      grid.setItems(items)
+      (grid.dataProvider as ListDataProvider).filter = deletedRecordsFilter
+    }
+  }
+
+  /**
+   * Returns the rows of a paged block in the given range, loading next pages
+   * from the database until the range is filled or no more records are left.
+   *
+   * @param offset The index of the first row.
+   * @param limit The maximum number of rows.
+   */
+  private fun fetchPagedItems(offset: Int, limit: Int): Stream<GridBlockItem> {
+    var items = getPagedItems()
+
+    while (items.size < offset + limit && loadNextPage()) {
+      items = getPagedItems()
+    }
+
+    return items.stream().skip(offset.toLong()).limit(limit.toLong())
+  }
+
+  /**
+   * Loads the next page of a paged block.
+   *
+   * @return true if records have been loaded.
+   */
+  private fun loadNextPage(): Boolean {
+    if (!model.hasMoreRecords) {
+      return false
+    }
+
+    loadingPage = true
+    return try {
+      model.loadNextPage()
+    } catch (e: VException) {
+      // the grid fetches the rows in the UI thread: the error is
+      // reported by a form action, like the other block errors.
+      model.form.performAsyncAction(object : Action("load_next_page") {
+        override fun execute() {
+          throw e
+        }
+      })
+      false
+    } finally {
+      loadingPage = false
+    }
+  }
+
+  /**
+   * Returns the rows of a paged block in the current record order. Empty rows
+   * are only shown once all the records are loaded.
+   */
+  private fun getPagedItems(): List<GridBlockItem> {
+    val filter = pagedRecordsFilter
+
+    return model.sortedRecords
+      .filter { !model.hasMoreRecords || model.isRecordFilled(it) }
+      .map { GridBlockItem(it) }
+      .filter { deletedRecordsFilter.test(it) && (filter == null || filter.test(it)) }
   }
 
   /**
@@ -27,7 +27,6 @@ import org.kopi.galite.visual.VException
 import org.kopi.galite.visual.VRuntimeException
 
 import com.vaadin.flow.component.Component
-import com.vaadin.flow.data.provider.ListDataProvider
 
 /**
  * A based Grid multi block implementation
@@ -180,7 +179,7 @@ class DGridMultiBlock(parent: DForm,
       grid.setDetailsVisible(itemHasDetailVisible, false)
       model.isDetailMode = false
       if (recno != itemHasDetailVisible!!.record) {
-        itemHasDetailVisible = (grid.dataProvider as ListDataProvider).items.single { it.record == recno }
+        itemHasDetailVisible = GridBlockItem(recno)
         model.isDetailMode = true
         grid.setDetailsVisible(itemHasDetailVisible, true)
       }
@@ -24,6 +24,7 @@ import java.time.format.DateTimeFormatter
 
 import org.kopi.galite.visual.form.VFieldUI
 import org.kopi.galite.visual.form.VImageField
+import org.kopi.galite.visual.ui.vaadin.base.ActionExecutor
 import org.kopi.galite.visual.ui.vaadin.base.BackgroundThreadHandler
 import org.kopi.galite.visual.ui.vaadin.base.BackgroundThreadHandler.access
 import org.kopi.galite.visual.ui.vaadin.field.ImageField
@@ -182,9 +183,9 @@ class DImageField(
 
   private fun onUploadFailed(event: FailedEvent) {
     event.reason.printStackTrace(System.err)
-    Thread {
+    ActionExecutor.execute(currentUI) {
       getModel().getForm().error(event.reason.message)
       BackgroundThreadHandler.updateUI(currentUI)
-    }.start()
+    }
   }
 }
@@ -22,10 +22,14 @@ import org.kopi.galite.visual.form.UListDialog
 import org.kopi.galite.visual.form.VDictionary
 import org.kopi.galite.visual.form.VForm
 import org.kopi.galite.visual.form.VListDialog
+import org.kopi.galite.visual.ui.vaadin.base.ActionExecutor
+import org.kopi.galite.visual.ui.vaadin.base.BackgroundThreadHandler.accessAndPush
 import org.kopi.galite.visual.ui.vaadin.base.BackgroundThreadHandler.releaseLock
 import org.kopi.galite.visual.ui.vaadin.base.BackgroundThreadHandler.startAndWaitAndPush
+import org.kopi.galite.visual.ui.vaadin.base.LocalizedProperties
 import org.kopi.galite.visual.ui.vaadin.list.GridListDialog
 import org.kopi.galite.visual.ui.vaadin.list.ListTable
+import org.kopi.galite.visual.ui.vaadin.notif.ErrorNotification
 import org.kopi.galite.visual.ui.vaadin.notif.InformationNotification
 import org.kopi.galite.visual.ui.vaadin.notif.NotificationListener
 import org.kopi.galite.visual.ui.vaadin.visual.VApplication
@@ -42,8 +46,10 @@ import com.vaadin.flow.component.KeyDownEvent
 import com.vaadin.flow.component.KeyNotifier
 import com.vaadin.flow.component.KeyPressEvent
 import com.vaadin.flow.component.UI
+import com.vaadin.flow.component.button.Button
 import com.vaadin.flow.component.grid.Grid
 import com.vaadin.flow.component.grid.GridSingleSelectionModel
+import com.vaadin.flow.component.html.Span
 import com.vaadin.flow.data.provider.ListDataProvider
 
 /**
@@ -58,6 +64,8 @@ class DListDialog(private val model: VListDialog) : GridListDialog(), KeyNotifie
   private var doNewForm = false
   private var selectedPos = -1
   private val lock = Object()
+  private val rowCount = Span()
+  private val loadMore = Button(LocalizedProperties.getString(application.defaultLocale.toString(), "LOAD_MORE"))
 
   init {
     addDialogCloseActionListener(::onClose)
@@ -68,6 +76,10 @@ class DListDialog(private val model: VListDialog) : GridListDialog(), KeyNotifie
     close.addClickListener {
       doSelectFromDialog(-1, true, false)
     }
+    loadMore.addClickListener {
+      loadMoreRows()
+      table?.focus()
+    }
   }
 
   //---------------------------------------------------
@@ -138,6 +150,12 @@ class DListDialog(private val model: VListDialog) : GridListDialog(), KeyNotifie
       return
     }
     ensureTableSelection()
+    if ((keyCode == Key.ARROW_DOWN || keyCode == Key.PAGE_DOWN || keyCode == Key.END)
+        && model.hasMoreRows
+        && tableItems.indexOf(table!!.selectedItem) + 20 >= tableItems.size) {
+      // the next page goes beyond the loaded rows
+      loadMoreRows()
+    }
     when (keyCode) {
       Key.HOME -> {
         pattern = ""
@@ -335,9 +353,48 @@ class DListDialog(private val model: VListDialog) : GridListDialog(), KeyNotifie
     table.addColumnReorderListener {
       sort(it.columns)
     }
+    if (model.hasMoreRows) {
+      updateRowCount()
+      addToFooter(rowCount, loadMore)
+      model.onTotalCount {
+        accessAndPush(currentUI) {
+          updateRowCount()
+        }
+      }
+    }
     // TODO
   }
 
+  /**
+   * Loads the next rows of the list from the database and adds them to the table.
+   */
+  private fun loadMoreRows() {
+    try {
+      if (model.loadMoreRows()) {
+        table!!.appendRows()
+      }
+    } catch (e: VException) {
+      reportError(e)
+    }
+    if (model.isTooManyRows && !model.hasMoreRows) {
+      InformationNotification(VlibProperties.getString("Notice"),
+                              MessageCode.getMessage("VIS-00028"),
+                              application.defaultLocale.toString(),
+                              application.mainWindow).show()
+    }
+    updateRowCount()
+  }
+
+  /**
+   * Shows the number of loaded rows and the number of rows of the list when it is known.
+   */
+  private fun updateRowCount() {
+    val total = model.totalCount
+
+    rowCount.text = if (total == -1) "${model.count} / ..." else "${model.count} / $total"
+    loadMore.isVisible = model.hasMoreRows
+  }
+
   /**
    * Shows the dialog and wait until it is closed from client side.
    */
@@ -389,23 +446,66 @@ class DListDialog(private val model: VListDialog) : GridListDialog(), KeyNotifie
     this.selectedPos = selectedPos
     this.escaped = escaped
     this.doNewForm = doNewForm
+    model.cancelRowCount()
     close()
     releaseLock(lock) // release the background thread lock.
   }
 
+  /**
+   * Shows an error raised while loading the rows of the list, the dialog stays open.
+   * The error is not shown by the form: its notifications would wait on the UI thread.
+   * @param e The error.
+   */
+  private fun reportError(e: VException) {
+    ErrorNotification(VlibProperties.getString("Error"),
+                      e.message,
+                      application.defaultLocale.toString(),
+                      application.mainWindow).show()
+  }
+
   /**
    * Bubble sort the columns from right to left
    *
    * @param columns the new order of the columns
    */
   private fun sort(columns: MutableList<Grid.Column<ListTable.ListDialogItem>>) {
-    var left = 0
-    var sel: ListTable.ListDialogItem? = null
-
-    if (table != null) {
-      sel = table!!.selectedItem
-      left = columns[0].key.toInt()
+    val left = if (table != null) columns[0].key.toInt() else 0
+
+    if (model.hasMoreRows) {
+      // all the rows are needed to sort the list: the rows left, up to the fetch size
+      // of the block, are loaded outside the UI thread while the form shows its wait message.
+      table?.isEnabled = false
+      loadMore.isVisible = false
+      ActionExecutor.execute(currentUI) {
+        var error: VException? = null
+
+        try {
+          while (model.hasMoreRows) {
+            model.loadMoreRows()
+          }
+        } catch (e: VException) {
+          error = e
+        }
+        accessAndPush(currentUI) {
+          error?.let { reportError(it) }
+          table?.appendRows()
+          table?.isEnabled = true
+          updateRowCount()
+          sortRows(left)
+        }
+      }
+    } else {
+      sortRows(left)
     }
+  }
+
+  /**
+   * Sorts the loaded rows and keeps the selected row.
+   *
+   * @param left the index of the first column
+   */
+  private fun sortRows(left: Int) {
+    val sel = table?.selectedItem
 
     model.sort(left)
 
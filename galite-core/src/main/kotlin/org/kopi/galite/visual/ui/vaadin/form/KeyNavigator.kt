@@ -140,16 +140,19 @@ class KeyNavigator(private val model: VField, private val box: InputTextField<*>
   }
 
   override fun onQuery(query: String?) {
-    model.getForm().performAsyncAction(object : Action() {
-      override fun execute() {
-        val suggestions = model.getSuggestions(query)
-        if (box != null && suggestions != null) {
-          /*BackgroundThreadHandler.access(Runnable { TODO
-            box.setSuggestions(suggestions, query)
-          })*/
+    // the request is delayed outside the form actions, which run one at a time
+    model.scheduleSuggestionRequest { request ->
+      model.getForm().performAsyncAction(object : Action() {
+        override fun execute() {
+          val suggestions = model.getSuggestions(query, request)
+          if (box != null && suggestions != null) {
+            /*BackgroundThreadHandler.access(Runnable { TODO
+              box.setSuggestions(suggestions, query)
+            })*/
+          }
         }
-      }
-    })
+      })
+    }
   }
 
   /*fun onSuggestion(suggestion: AutocompleteSuggestion?) { TODO
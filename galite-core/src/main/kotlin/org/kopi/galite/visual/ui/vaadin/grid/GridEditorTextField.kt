@@ -17,6 +17,7 @@
  */
 package org.kopi.galite.visual.ui.vaadin.grid
 
+import org.kopi.galite.visual.ui.vaadin.base.ActionExecutor
 import org.kopi.galite.visual.ui.vaadin.base.BackgroundThreadHandler.access
 import org.kopi.galite.visual.ui.vaadin.base.JSKeyDownHandler
 import org.kopi.galite.visual.ui.vaadin.base.ShortcutAction
@@ -153,13 +154,13 @@ open class GridEditorTextField(val width: Int) : GridEditorField<String>(), JSKe
     addNavigationAction(Key.KEY_D, KeyModifier.of("Control")) {
       val ui = UI.getCurrent()
 
-      Thread {
+      ActionExecutor.execute(ui) {
         val text = StringBuffer(value)
         text.insert(Utils.getCursorPos(wrappedField), "\u00D8")
         access(ui) {
           value = text.toString()
         }
-      }.start()
+      }
     }
     addNavigationAction(Key.HOME, KeyModifier.of("Shift")) { dGridEditorField.onGotoFirstRecord() }
     addNavigationAction(Key.END, KeyModifier.of("Shift")) { dGridEditorField.onGotoLastRecord() }
@@ -41,6 +41,7 @@ import com.vaadin.flow.data.value.ValueChangeMode
 @CssImport("./styles/galite/list.css")
 class ListTable(val model: VListDialog) : Grid<ListTable.ListDialogItem>() {
   internal var widthStyler = Div()
+  private val items = mutableListOf<ListDialogItem>()
 
   init {
     isColumnReorderingAllowed = true
@@ -51,11 +52,20 @@ class ListTable(val model: VListDialog) : Grid<ListTable.ListDialogItem>() {
   }
 
   private fun buildRows() {
-    val items = (0 until model.count).map { ListDialogItem(it) }
+    (0 until model.count).mapTo(items) { ListDialogItem(it) }
 
     setItems(items)
   }
 
+  /**
+   * Adds the rows loaded by the model since the table has been built.
+   */
+  fun appendRows() {
+    (items.size until model.count).mapTo(items) { ListDialogItem(it) }
+
+    dataProvider.refreshAll()
+  }
+
   private fun buildColumns() {
     for(col in 0 until model.getColumnCount()) {
       if (model.columns[col] is VImageColumn) {
@@ -22,8 +22,11 @@ import com.vaadin.flow.component.dependency.CssImport
 
 import org.kopi.galite.visual.dsl.pivottable.Dimension.Position
 import org.kopi.galite.visual.pivottable.MPivotTable
+import org.kopi.galite.visual.pivottable.PivotTableCube
 import org.kopi.galite.visual.pivottable.UPivotTable
+import org.kopi.galite.visual.pivottable.VIntegerColumn
 import org.kopi.galite.visual.pivottable.VPivotTable
+import org.kopi.galite.visual.pivottable.VPivotTableColumn
 import org.kopi.galite.visual.ui.vaadin.visual.DWindow
 
 @CssImport("./styles/galite/pivottable.css")
@@ -52,19 +55,19 @@ class DPivotTable(private val pivotTable: VPivotTable) : DWindow(pivotTable), UP
   }
 
   override fun build() {
-    model.columns.forEach {
-      pivotData.addColumn(it?.label, it?.javaClass)
-      if (it?.position == Position.ROW) {
-        rows.add(it.label)
-      }
-      if (it?.position == Position.COLUMN) {
-        columns.add(it.label)
+    val cube = pivotTable.aggregateRows()
+
+    if (cube == null) {
+      model.columns.forEach {
+        addColumn(it!!)
       }
+      buildRows()
+      rowsValues
+        .chunked(model.columns.count()) { rows ->
+          pivotData.addRow(*rows.map{ it }.toTypedArray())}
+    } else {
+      buildCube(cube)
     }
-    buildRows()
-    rowsValues
-      .chunked(model.columns.count()) { rows ->
-        pivotData.addRow(*rows.map{ it }.toTypedArray())}
 
     // Pivot table dimension
     pivotOptions.setRows(*rows.toTypedArray())
@@ -74,7 +77,11 @@ class DPivotTable(private val pivotTable: VPivotTable) : DWindow(pivotTable), UP
     pivotOptions.setRenderer(pivotTable.defaultRenderer)
 
     // Pivot table aggregate function
-    pivotOptions.setAggregator(pivotTable.aggregator.first, pivotTable.aggregator.second)
+    if (cube == null) {
+      pivotOptions.setAggregator(pivotTable.aggregator.first, pivotTable.aggregator.second)
+    } else {
+      pivotOptions.setAggregator(cube.aggregator, cube.valueLabel)
+    }
 
     // Pivot table renderer
     if(rows.isNotEmpty() && columns.isNotEmpty()) {
@@ -94,6 +101,29 @@ class DPivotTable(private val pivotTable: VPivotTable) : DWindow(pivotTable), UP
     add(pivot)
   }
 
+  private fun addColumn(column: VPivotTableColumn) {
+    pivotData.addColumn(column.label, column.javaClass)
+    if (column.position == Position.ROW) {
+      rows.add(column.label)
+    }
+    if (column.position == Position.COLUMN) {
+      columns.add(column.label)
+    }
+  }
+
+  /**
+   * Sends the rows grouped on the server: the dimensions, then the aggregated value.
+   */
+  private fun buildCube(cube: PivotTableCube) {
+    cube.dimensions.forEach {
+      addColumn(it)
+    }
+    pivotData.addColumn(cube.valueLabel, cube.measure?.javaClass ?: VIntegerColumn::class.java)
+    cube.rows.forEach {
+      pivotData.addRow(*it)
+    }
+  }
+
   private fun buildRows(){
     for (i in 0 until model.userRows!!.count()) {
       for (j in 0 until model.columns.count()) {
@@ -79,7 +79,7 @@ class DReport(private val report: VReport) : DWindow(report), UReport {
   override fun build() {
     // load personal configuration
     parameters = Parameters(Color(71, 184, 221))
-    table = DTable(VTable(model, buildRows()))
+    table = DTable(VTable(model) { ReportModelItem(it) })
     table.isColumnReorderingAllowed = true
     table.cellStyler = ReportCellStyler(model, parameters!!, table)
     // 200 px is approximately the header window size + the actor pane size
@@ -169,7 +169,6 @@ class DReport(private val report: VReport) : DWindow(report), UReport {
   override fun contentChanged() {
     if (this::table.isInitialized) {
       accessAndPush(currentUI) {
-        table.setItems(buildRows())
         table.model.fireContentChanged()
         columnsSelector.build(table)
       }
@@ -412,17 +411,6 @@ class DReport(private val report: VReport) : DWindow(report), UReport {
     )
   }
 
-  /**
-   * Builds the grid rows.
-   */
-  private fun buildRows(): List<ReportModelItem> {
-    val rows = mutableListOf<ReportModelItem>()
-    for (i in 0 until model.getRowCount()) {
-      rows.add(ReportModelItem(i))
-    }
-    return rows
-  }
-
   //---------------------------------------------------
   // TABLE MODEL ITEM
   //---------------------------------------------------
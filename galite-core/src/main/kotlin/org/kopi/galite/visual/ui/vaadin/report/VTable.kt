@@ -21,35 +21,43 @@ import org.kopi.galite.visual.report.MReport
 import org.kopi.galite.visual.report.VReportColumn
 import org.kopi.galite.visual.ui.vaadin.report.DReport.ReportModelItem
 
+import java.util.stream.IntStream
+import java.util.stream.Stream
+
 import com.vaadin.flow.component.grid.Grid
-import com.vaadin.flow.data.provider.ListDataProvider
+import com.vaadin.flow.data.provider.AbstractBackEndDataProvider
 import com.vaadin.flow.data.provider.Query
-import com.vaadin.flow.function.SerializablePredicate
 
 /**
  * The VTable is a vaadin [Grid] data provider adapted
  * to dynamic reports needs.
  *
+ * Items are created on demand for the range of visible rows requested
+ * by the grid, no list of the report rows is kept.
+ *
  * @param model The table model.
+ * @param item  Creates the item of a visible row.
  */
 class VTable(
   internal val model: MReport,
-  reportItems: List<ReportModelItem>
-): ListDataProvider<ReportModelItem>(reportItems) {
+  private val item: (Int) -> ReportModelItem
+): AbstractBackEndDataProvider<ReportModelItem, Void>() {
 
-  init {
-    addFilter {
-      it != null
-    }
-  }
+  override fun fetchFromBackEnd(query: Query<ReportModelItem, Void>): Stream<ReportModelItem> {
+    val end = minOf(query.offset + query.limit, model.getRowCount())
 
-  override fun size(query: Query<ReportModelItem, SerializablePredicate<ReportModelItem>>?): Int {
-    return model.getRowCount()
+    return IntStream.range(query.offset, end).mapToObj { item(it) }
   }
 
+  override fun sizeInBackEnd(query: Query<ReportModelItem, Void>): Int = model.getRowCount()
+
+  override fun getId(item: ReportModelItem): Any = item.rowIndex
+
   /**
    * Notify the report table that the report content has been
    * change in order to update the table content.
+   *
+   * The grid fetches again the size and the rows of its viewport only.
    */
   fun fireContentChanged() {
     refreshAll()
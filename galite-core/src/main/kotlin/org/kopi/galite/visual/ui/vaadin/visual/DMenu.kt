@@ -22,6 +22,7 @@ import java.io.File
 import javax.swing.tree.DefaultMutableTreeNode
 import javax.swing.tree.TreeNode
 
+import org.kopi.galite.visual.ui.vaadin.base.ActionExecutor
 import org.kopi.galite.visual.ui.vaadin.base.BackgroundThreadHandler
 import org.kopi.galite.visual.ui.vaadin.base.BackgroundThreadHandler.accessAndPush
 import org.kopi.galite.visual.ui.vaadin.menu.ModuleItem
@@ -191,14 +192,13 @@ abstract class DMenu protected constructor(private val model: VMenuTree) : Modul
     if (currentUI == null) {
       currentUI = BackgroundThreadHandler.locateUI()
     }
-    Thread {
-      BackgroundThreadHandler.setUI(currentUI)
+    ActionExecutor.execute(currentUI) {
       try {
         action.execute()
       } catch (e: VException) {
         application.error(e.message)
       }
-    }.start()
+    }
   }
 
   override fun openURL(url: String) {}
@@ -43,6 +43,7 @@ import org.kopi.galite.visual.VlibProperties
 import org.kopi.galite.visual.WaitInfoListener
 import org.kopi.galite.visual.base.Utils
 import org.kopi.galite.visual.ui.vaadin.actor.VActorsNavigationPanel
+import org.kopi.galite.visual.ui.vaadin.base.ActionExecutor
 import org.kopi.galite.visual.ui.vaadin.base.BackgroundThreadHandler
 import org.kopi.galite.visual.ui.vaadin.base.BackgroundThreadHandler.access
 import org.kopi.galite.visual.ui.vaadin.base.BackgroundThreadHandler.accessAndPush
@@ -152,13 +153,10 @@ abstract class DWindow protected constructor(private var model: VWindow?) : Wind
     } finally {
       // model can be destroyed here
       if (model != null) {
-        synchronized(model) {
-
-          // set the return code
-          returnCode = code
-          // Inform all threads who wait for this panel
-          (model as Object).notifyAll()
-        }
+        // set the return code
+        returnCode = code
+        // Inform all threads who wait for this panel
+        releaseLock(model as Object)
       }
     }
   }
@@ -244,12 +242,11 @@ abstract class DWindow protected constructor(private var model: VWindow?) : Wind
         getModel()!!.executedAction(currentAction)
       }
     } else {
-      val currentThread = Thread(actionRunner)
       // Force the current UI in case the thread is started before attaching the window to the UI.
       if (currentUI == null) {
         currentUI = locateUI()
       }
-      currentThread.start()
+      ActionExecutor.execute(currentUI, actionRunner::run)
     }
   }
 
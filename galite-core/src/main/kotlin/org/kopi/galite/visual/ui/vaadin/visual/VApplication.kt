@@ -65,6 +65,7 @@ import org.kopi.galite.visual.WindowController
 import org.kopi.galite.visual.base.UComponent
 import org.kopi.galite.visual.l10n.LocalizationManager
 import org.kopi.galite.visual.print.PrintManager
+import org.kopi.galite.visual.ui.vaadin.base.ActionExecutor
 import org.kopi.galite.visual.ui.vaadin.base.BackgroundThreadHandler
 import org.kopi.galite.visual.ui.vaadin.base.BackgroundThreadHandler.access
 import org.kopi.galite.visual.ui.vaadin.base.BackgroundThreadHandler.accessAndAwait
@@ -491,7 +492,7 @@ abstract class VApplication(override val registry: Registry) : VerticalLayout(),
    * Closes the database connection
    */
   fun closeConnection() {
-    dBConnection?.poolConnection?.close()
+    dBConnection?.close()
   }
 
   /**
@@ -524,7 +525,7 @@ abstract class VApplication(override val registry: Registry) : VerticalLayout(),
       welcomeView!!.setSizeFull() // important to get the full screen size.
       welcomeView!!.addWelcomeViewListener { event: WelcomeViewEvent ->
         welcomeView!!.setWaitInfo()
-        Thread {
+        ActionExecutor.execute(currentUI) {
           accessAndPush(currentUI) {
             try {
               onLogin(event)
@@ -532,7 +533,7 @@ abstract class VApplication(override val registry: Registry) : VerticalLayout(),
               welcomeView?.unsetWaitInfo()
             }
           }
-        }.start()
+        }
       }
       add(welcomeView)
     }
@@ -743,8 +744,8 @@ class ApplicationServiceInitListener: VaadinServiceInitListener {
       connections?.forEach { connection ->
         try {
           // Close all opened connections in the current vaadin session.
-          if (!connection.poolConnection.isClosed) {
-            connection.poolConnection.close()
+          if (!connection.isClosed) {
+            connection.close()
             logger.info("${LocalDateTime.now()} - DB connection ${connection.poolConnection} closed " +
                             "for session [ID : ${session.session.id}].")
           }
@@ -52,6 +52,13 @@ class Connection {
   var poolConnection: HikariDataSource
   var user: Int = 0
 
+  /**
+   * The application-wide pool this connection borrows its physical connections from,
+   * null if the connection owns its pool.
+   */
+  var pool: ConnectionPool? = null
+    private set
+
   // ----------------------------------------------------------------------
   // CONSTRUCTORS
   // ----------------------------------------------------------------------
@@ -71,6 +78,10 @@ class Connection {
    * @param     waitMin         the minimum number (inclusive) of milliseconds to wait before retrying a transaction after it has aborted
    * @param     waitMax         the maximum number (inclusive) of milliseconds to wait before retrying a transaction after it has aborted
    * @param     logger          the SQL logger
+   * @param     poolSize        the maximum number of physical connections in the pool
+   * @param     idleTimeout     the number of milliseconds after which an idle connection is retired
+   * @param     leakDetectionThreshold  the number of milliseconds a connection can be out of the pool before
+   *                                    a possible leak is logged (0: disabled)
    */
   private constructor(url: String,
                       driver: String? = null,
@@ -83,16 +94,19 @@ class Connection {
                       maxRetries: Int? = null,
                       waitMin: Long? = null,
                       waitMax: Long? = null,
-                      logger: SqlLogger? = null) {
-    poolConnection = HikariDataSource().apply {
-      this.jdbcUrl = url
-      driver?.let { this.driverClassName = it }
-      schema?.let { this.schema = it }
-      this.username = userName
-      this.password = password
-      this.maximumPoolSize = 1
-      this.transactionIsolation = ISOLATION_LEVELS[isolationLevel]
-    }
+                      logger: SqlLogger? = null,
+                      poolSize: Int = 1,
+                      idleTimeout: Long? = null,
+                      leakDetectionThreshold: Long? = null) {
+    poolConnection = ConnectionPool.createDataSource(url = url,
+                                                     driver = driver,
+                                                     userName = userName,
+                                                     password = password,
+                                                     schema = schema,
+                                                     poolSize = poolSize,
+                                                     idleTimeout = idleTimeout,
+                                                     leakDetectionThreshold = leakDetectionThreshold,
+                                                     isolationLevel = isolationLevel)
     dbConnection = Database.connect(datasource = poolConnection,
                                     databaseConfig = databaseConfig(traceLevel = traceLevel,
                                                                     isolationLevel = isolationLevel,
@@ -119,6 +133,10 @@ class Connection {
    * @param     waitMin         the minimum number (inclusive) of milliseconds to wait before retrying a transaction after it has aborted
    * @param     waitMax         the maximum number (inclusive) of milliseconds to wait before retrying a transaction after it has aborted
    * @param     logger          the SQL logger
+   * @param     poolSize        the maximum number of physical connections in the pool
+   * @param     idleTimeout     the number of milliseconds after which an idle connection is retired
+   * @param     leakDetectionThreshold  the number of milliseconds a connection can be out of the pool before
+   *                                    a possible leak is logged (0: disabled)
    */
   private constructor(dataSource: javax.sql.DataSource,
                       lookupUserId: Boolean = true,
@@ -128,13 +146,16 @@ class Connection {
                       maxRetries: Int? = null,
                       waitMin: Long? = null,
                       waitMax: Long? = null,
-                      logger: SqlLogger? = null) {
-    poolConnection = HikariDataSource().apply {
-      this.dataSource = dataSource
-      schema?.let { this.schema = it }
-      this.maximumPoolSize = 1
-      this.transactionIsolation = ISOLATION_LEVELS[isolationLevel]
-    }
+                      logger: SqlLogger? = null,
+                      poolSize: Int = 1,
+                      idleTimeout: Long? = null,
+                      leakDetectionThreshold: Long? = null) {
+    poolConnection = ConnectionPool.createDataSource(dataSource = dataSource,
+                                                     schema = schema,
+                                                     poolSize = poolSize,
+                                                     idleTimeout = idleTimeout,
+                                                     leakDetectionThreshold = leakDetectionThreshold,
+                                                     isolationLevel = isolationLevel)
     dbConnection = Database.connect(datasource = poolConnection,
                                     databaseConfig = databaseConfig(traceLevel = traceLevel,
                                                                     isolationLevel = isolationLevel,
@@ -148,6 +169,52 @@ class Connection {
     password = null // already authenticated
   }
 
+  /**
+   * Creates a connection borrowing its physical connections from an application-wide pool.
+   * The user identity is kept by this connection, the database user is the one of the pool.
+   *
+   * @param     pool            the shared connection pool
+   * @param     userName        the name of the application user
+   * @param     lookupUserId    lookup user id in table of users ?
+   */
+  private constructor(pool: ConnectionPool,
+                      userName: String,
+                      lookupUserId: Boolean = true) {
+    this.pool = pool
+    poolConnection = pool.dataSource
+    dbConnection = pool.database
+    url = pool.dataSource.jdbcUrl ?: dbConnection.url
+    this.userName = userName
+    password = null // authenticated by the application
+    this.user = if (!lookupUserId) USERID_NO_LOOKUP else USERID_TO_DETERMINE
+    setUserID()
+  }
+
+  /**
+   * true if this connection borrows its physical connections from a shared pool.
+   */
+  val isPooled: Boolean
+    get() = pool != null
+
+  /**
+   * true if this connection can no longer be used.
+   */
+  val isClosed: Boolean
+    get() = closed || poolConnection.isClosed
+
+  private var closed = false
+
+  /**
+   * Closes this connection. The underlying pool is only closed if it is owned by
+   * this connection, shared pools remain open for the other sessions.
+   */
+  fun close() {
+    closed = true
+    if (!isPooled) {
+      poolConnection.close()
+    }
+  }
+
   /**
    * Returns the user ID
    */
@@ -202,6 +269,10 @@ class Connection {
      * @param   waitMin         the minimum number (inclusive) of milliseconds to wait before retrying a transaction after it has aborted
      * @param   waitMax         the maximum number (inclusive) of milliseconds to wait before retrying a transaction after it has aborted
      * @param   logger          the SQL logger
+     * @param   poolSize        the maximum number of physical connections in the pool
+     * @param   idleTimeout     the number of milliseconds after which an idle connection is retired
+     * @param   leakDetectionThreshold  the number of milliseconds a connection can be out of the pool before
+     *                                  a possible leak is logged (0: disabled)
      */
     fun createConnection(url: String,
                          driver: String? = null,
@@ -214,7 +285,10 @@ class Connection {
                          maxRetries: Int? = null,
                          waitMin: Long? = null,
                          waitMax: Long? = null,
-                         logger: SqlLogger? = null): Connection {
+                         logger: SqlLogger? = null,
+                         poolSize: Int = 1,
+                         idleTimeout: Long? = null,
+                         leakDetectionThreshold: Long? = null): Connection {
       return Connection(url,
                         driver,
                         userName,
@@ -226,7 +300,10 @@ class Connection {
                         maxRetries,
                         waitMin,
                         waitMax,
-                        logger)
+                        logger,
+                        poolSize,
+                        idleTimeout,
+                        leakDetectionThreshold)
     }
 
     /**
@@ -241,6 +318,10 @@ class Connection {
      * @param   waitMin         the minimum number (inclusive) of milliseconds to wait before retrying a transaction after it has aborted
      * @param   waitMax         the maximum number (inclusive) of milliseconds to wait before retrying a transaction after it has aborted
      * @param   logger          the SQL logger
+     * @param   poolSize        the maximum number of physical connections in the pool
+     * @param   idleTimeout     the number of milliseconds after which an idle connection is retired
+     * @param   leakDetectionThreshold  the number of milliseconds a connection can be out of the pool before
+     *                                  a possible leak is logged (0: disabled)
      */
     fun createConnection(dataSource: javax.sql.DataSource,
                          lookupUserId: Boolean = true,
@@ -250,7 +331,10 @@ class Connection {
                          maxRetries: Int? = null,
                          waitMin: Long? = null,
                          waitMax: Long? = null,
-                         logger: SqlLogger? = null): Connection {
+                         logger: SqlLogger? = null,
+                         poolSize: Int = 1,
+                         idleTimeout: Long? = null,
+                         leakDetectionThreshold: Long? = null): Connection {
       return Connection(dataSource,
                         lookupUserId,
                         schema,
@@ -259,7 +343,24 @@ class Connection {
                         maxRetries,
                         waitMin,
                         waitMax,
-                        logger)
+                        logger,
+                        poolSize,
+                        idleTimeout,
+                        leakDetectionThreshold)
+    }
+
+    /**
+     * Creates a connection for an application user from an application-wide pool.
+     * Physical connections are borrowed from the pool per transaction.
+     *
+     * @param   pool            the shared connection pool
+     * @param   userName        the name of the application user
+     * @param   lookupUserId    lookup user id in table of users ?
+     */
+    fun createConnection(pool: ConnectionPool,
+                         userName: String,
+                         lookupUserId: Boolean = true): Connection {
+      return Connection(pool, userName, lookupUserId)
     }
 
     // -1 not yet determined
@@ -270,11 +371,7 @@ class Connection {
   }
 
   // Isolation levels Hashmap : Links java.sql isolation levels (Int) to hikariCP isolation levels (String)
-  val ISOLATION_LEVELS = hashMapOf(java.sql.Connection.TRANSACTION_NONE             to "TRANSACTION_NONE",
-                                   java.sql.Connection.TRANSACTION_READ_UNCOMMITTED to "TRANSACTION_READ_UNCOMMITTED",
-                                   java.sql.Connection.TRANSACTION_READ_COMMITTED   to "TRANSACTION_READ_COMMITTED",
-                                   java.sql.Connection.TRANSACTION_REPEATABLE_READ  to "TRANSACTION_REPEATABLE_READ",
-                                   java.sql.Connection.TRANSACTION_SERIALIZABLE     to "TRANSACTION_SERIALIZABLE")
+  val ISOLATION_LEVELS: HashMap<Int, String> get() = ConnectionPool.ISOLATION_LEVELS
 }
 
 fun databaseConfig(schema: Schema? = null,
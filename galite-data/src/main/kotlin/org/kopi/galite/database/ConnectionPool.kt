@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2013-2026 kopiLeft Services SARL, Tunis TN
+ * Copyright (c) 1990-2026 kopiRight Managed Solutions GmbH, Wien AT
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1 as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package org.kopi.galite.database
+
+import java.util.concurrent.ConcurrentHashMap
+
+import com.zaxxer.hikari.HikariDataSource
+
+import org.jetbrains.exposed.sql.Database
+import org.jetbrains.exposed.sql.SqlLogger
+
+/**
+ * An application-wide pool of physical database connections.
+ *
+ * The pool is shared by all the [Connection]s created from it: each connection
+ * keeps its own user identity on the Galite side, while the physical JDBC
+ * connections are borrowed from the pool for the duration of a transaction and
+ * returned to it on commit or rollback.
+ *
+ * Pool metrics are registered as JMX MBeans under the name of the pool and are
+ * also available through [activeConnections], [idleConnections],
+ * [totalConnections] and [threadsAwaitingConnection].
+ */
+class ConnectionPool private constructor(val name: String,
+                                         val dataSource: HikariDataSource,
+                                         val database: Database) {
+
+  /**
+   * The number of connections currently borrowed by running transactions.
+   */
+  val activeConnections: Int
+    get() = dataSource.hikariPoolMXBean?.activeConnections ?: 0
+
+  /**
+   * The number of idle connections available in the pool.
+   */
+  val idleConnections: Int
+    get() = dataSource.hikariPoolMXBean?.idleConnections ?: 0
+
+  /**
+   * The total number of connections in the pool.
+   */
+  val totalConnections: Int
+    get() = dataSource.hikariPoolMXBean?.totalConnections ?: 0
+
+  /**
+   * The number of threads waiting for a connection.
+   */
+  val threadsAwaitingConnection: Int
+    get() = dataSource.hikariPoolMXBean?.threadsAwaitingConnection ?: 0
+
+  /**
+   * true if the pool has been closed.
+   */
+  val isClosed: Boolean
+    get() = dataSource.isClosed
+
+  /**
+   * Closes the pool and all its physical connections.
+   */
+  fun close() {
+    pools.remove(name, this)
+    dataSource.close()
+  }
+
+  companion object {
+
+    /**
+     * Creates a connection pool, or returns the already created pool having the same name.
+     *
+     * @param   url                     the URL of the database to connect to
+     * @param   driver                  the JDBC driver to use to access the database
+     * @param   userName                the name of the database user
+     * @param   password                the password of the database user
+     * @param   schema                  the database schema to set as current schema
+     * @param   name                    the name of the pool, used to share it and to register its MBeans,
+     *                                  it must not contain characters reserved by JMX object names
+     * @param   poolSize                the maximum number of physical connections in the pool
+     * @param   minimumIdle             the minimum number of idle connections kept in the pool
+     * @param   idleTimeout             the number of milliseconds after which an idle connection is retired
+     * @param   leakDetectionThreshold  the number of milliseconds a connection can be out of the pool before
+     *                                  a possible leak is logged (0: disabled)
+     * @param   traceLevel              the trace level to print database queries before execution (0: none, 1: all)
+     * @param   isolationLevel          the transaction isolation level
+     * @param   maxRetries              the number of maximum retries if a transaction fails
+     * @param   waitMin                 the minimum number (inclusive) of milliseconds to wait before retrying a transaction after it has aborted
+     * @param   waitMax                 the maximum number (inclusive) of milliseconds to wait before retrying a transaction after it has aborted
+     * @param   logger                  the SQL logger
+     */
+    fun getOrCreate(url: String,
+                    driver: String? = null,
+                    userName: String,
+                    password: String,
+                    schema: String? = null,
+                    name: String = defaultName(userName, url),
+                    poolSize: Int = DEFAULT_POOL_SIZE,
+                    minimumIdle: Int? = null,
+                    idleTimeout: Long? = null,
+                    leakDetectionThreshold: Long? = null,
+                    traceLevel: Int? = null,
+                    isolationLevel: Int = java.sql.Connection.TRANSACTION_SERIALIZABLE,
+                    maxRetries: Int? = null,
+                    waitMin: Long? = null,
+                    waitMax: Long? = null,
+                    logger: SqlLogger? = null): ConnectionPool =
+      pools.compute(name) { _, pool ->
+        if (pool != null && !pool.isClosed) {
+          pool
+        } else {
+          val dataSource = createDataSource(url = url,
+                                            driver = driver,
+                                            userName = userName,
+                                            password = password,
+                                            schema = schema,
+                                            poolName = name,
+                                            poolSize = poolSize,
+                                            minimumIdle = minimumIdle,
+                                            idleTimeout = idleTimeout,
+                                            leakDetectionThreshold = leakDetectionThreshold,
+                                            isolationLevel = isolationLevel,
+                                            registerMBeans = true)
+          val database = Database.connect(datasource = dataSource,
+                                          databaseConfig = databaseConfig(traceLevel = traceLevel,
+                                                                          isolationLevel = isolationLevel,
+                                                                          maxRetries = maxRetries,
+                                                                          waitMin = waitMin,
+                                                                          waitMax = waitMax,
+                                                                          logger = logger))
+
+          ConnectionPool(name, dataSource, database)
+        }
+      }!!
+
+    /**
+     * Returns the default name of the pool of a database user: the characters reserved
+     * by JMX object names (such as the colons of the URL) are replaced by underscores.
+     *
+     * @param   userName        the name of the database user
+     * @param   url             the URL of the database
+     */
+    fun defaultName(userName: String, url: String): String =
+      "galite-$userName@$url".replace(JMX_RESERVED_CHARACTERS, "_")
+
+    /**
+     * Returns the pool registered with the given name, null if there is none.
+     */
+    fun get(name: String): ConnectionPool? = pools[name]?.takeUnless { it.isClosed }
+
+    /**
+     * Closes all the registered pools.
+     */
+    fun closeAll() {
+      pools.values.toList().forEach { it.close() }
+    }
+
+    /**
+     * Creates a Hikari datasource.
+     */
+    internal fun createDataSource(url: String? = null,
+                                  driver: String? = null,
+                                  userName: String? = null,
+                                  password: String? = null,
+                                  dataSource: javax.sql.DataSource? = null,
+                                  schema: String? = null,
+                                  poolName: String? = null,
+                                  poolSize: Int,
+                                  minimumIdle: Int? = null,
+                                  idleTimeout: Long? = null,
+                                  leakDetectionThreshold: Long? = null,
+                                  isolationLevel: Int,
+                                  registerMBeans: Boolean = false): HikariDataSource =
+      HikariDataSource().apply {
+        url?.let { this.jdbcUrl = it }
+        driver?.let { this.driverClassName = it }
+        dataSource?.let { this.dataSource = it }
+        schema?.let { this.schema = it }
+        userName?.let { this.username = it }
+        password?.let { this.password = it }
+        poolName?.let { this.poolName = it }
+        this.maximumPoolSize = poolSize
+        // Hikari ignores the idle timeout of a fixed-size pool.
+        this.minimumIdle = minimumIdle ?: if (idleTimeout != null) 0 else poolSize
+        idleTimeout?.let { this.idleTimeout = it }
+        leakDetectionThreshold?.let { this.leakDetectionThreshold = it }
+        this.transactionIsolation = ISOLATION_LEVELS[isolationLevel]
+        this.isRegisterMbeans = registerMBeans
+      }
+
+    // Isolation levels Hashmap : Links java.sql isolation levels (Int) to hikariCP isolation levels (String)
+    internal val ISOLATION_LEVELS = hashMapOf(java.sql.Connection.TRANSACTION_NONE             to "TRANSACTION_NONE",
+                                              java.sql.Connection.TRANSACTION_READ_UNCOMMITTED to "TRANSACTION_READ_UNCOMMITTED",
+                                              java.sql.Connection.TRANSACTION_READ_COMMITTED   to "TRANSACTION_READ_COMMITTED",
+                                              java.sql.Connection.TRANSACTION_REPEATABLE_READ  to "TRANSACTION_REPEATABLE_READ",
+                                              java.sql.Connection.TRANSACTION_SERIALIZABLE     to "TRANSACTION_SERIALIZABLE")
+
+    const val DEFAULT_POOL_SIZE = 10
+
+    private val JMX_RESERVED_CHARACTERS = Regex("[:,=*?\"\\\\\n]")
+
+    private val pools = ConcurrentHashMap<String, ConnectionPool>()
+  }
+}
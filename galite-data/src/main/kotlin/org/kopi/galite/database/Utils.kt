@@ -20,7 +20,9 @@ package org.kopi.galite.database
 
 import java.sql.SQLException
 import java.util.UUID
+import java.util.concurrent.ConcurrentHashMap
 
+import org.jetbrains.exposed.sql.Column
 import org.jetbrains.exposed.sql.NextVal
 import org.jetbrains.exposed.sql.Sequence
 import org.jetbrains.exposed.sql.Table
@@ -28,6 +30,10 @@ import org.jetbrains.exposed.sql.Transaction
 import org.jetbrains.exposed.sql.nextIntVal
 import org.jetbrains.exposed.sql.selectAll
 import org.jetbrains.exposed.sql.transactions.TransactionManager
+import org.jetbrains.exposed.sql.vendors.H2Dialect
+import org.jetbrains.exposed.sql.vendors.OracleDialect
+import org.jetbrains.exposed.sql.vendors.PostgreSQLDialect
+import org.jetbrains.exposed.sql.vendors.currentDialect
 
 class Utils {
   companion object {
@@ -40,21 +46,57 @@ class Utils {
      *    - "<Table_Name>Id : default sequence name for Galite tables,
      *    - <Table_Name>_<Id_Name>_seq : default sequence name assigned by postgres.
      */
-    fun getNextTableId(table: Table, id: String, sequence: Sequence? = null): Int {
-      var seqNextVal: NextVal<Int>
+    fun getNextTableId(table: Table, id: String, sequence: Sequence? = null): Int =
+      getNextTableIds(table, id, 1, sequence)[0]
+
+    /**
+     * Increments table sequence [count] times and returns the reserved IDs of table.
+     * The IDs are fetched with as few queries as possible, and the sequence found for
+     * the table is remembered so that it is not searched again.
+     *
+     * @see getNextTableId
+     */
+    fun getNextTableIds(table: Table, id: String, count: Int, sequence: Sequence? = null): IntArray {
+      val ids = IntArray(count)
+      var filled = 0
+
+      if (count == 0) {
+        return ids
+      }
+
+      val key = "${TransactionManager.current().db.url}/${table.nameInDatabaseCase()}/${sequence?.name}"
+      val tableSequence = tableSequences[key] ?: run {
+        val found = findTableSequence(table, id, sequence)
+
+        ids[filled++] = found.second
+        tableSequences[key] = found.first
+        found.first
+      }
+
+      while (filled < count) {
+        val values = selectNextValues(tableSequence, (count - filled).coerceAtMost(MAX_VALUES_PER_QUERY))
+
+        values.forEach { ids[filled++] = it }
+      }
+
+      return ids
+    }
+
+    /**
+     * Searches the sequence of the table, and returns it with its next value.
+     */
+    private fun findTableSequence(table: Table, id: String, tableSequence: Sequence?): Pair<Sequence, Int> {
+      var sequence = tableSequence ?: Sequence("${table.nameInDatabaseCase()}Id")
 
       return try {
         TransactionManager.current().runWithSavepoint(UUID.randomUUID()) {
-          seqNextVal = (sequence ?: Sequence("${table.nameInDatabaseCase()}Id")).nextIntVal()
-
-          Table.Dual.slice(seqNextVal).selectAll().single()[seqNextVal]
+          sequence to selectNextValues(sequence, 1)[0]
         }
       } catch (e: SQLException) {
         try {
           TransactionManager.current().runWithSavepoint(UUID.randomUUID()) {
-            seqNextVal = Sequence("${table.nameInDatabaseCase()}_${id}_seq").nextIntVal()
-
-            Table.Dual.slice(seqNextVal).selectAll().single()[seqNextVal]
+            sequence = Sequence("${table.nameInDatabaseCase()}_${id}_seq")
+            sequence to selectNextValues(sequence, 1)[0]
           }
         } catch (e: SQLException) {
           throw RuntimeException("Unable to get the sequence next value for table ${table.nameInDatabaseCase()} : ${e.message}")
@@ -62,6 +104,65 @@ class Utils {
       }
     }
 
+    /**
+     * Increments the sequence [count] times with a single query when the database
+     * is able to generate rows, one value at a time otherwise.
+     */
+    private fun selectNextValues(sequence: Sequence, count: Int): List<Int> {
+      val seqNextVal: NextVal<Int> = sequence.nextIntVal()
+      val rows = when (currentDialect) {
+        is PostgreSQLDialect -> "generate_series(1, $count)"
+        is H2Dialect -> "SYSTEM_RANGE(1, $count)"
+        is OracleDialect -> "DUAL CONNECT BY LEVEL <= $count"
+        else -> null
+      }
+
+      return if (count == 1 || rows == null) {
+        List(count) { Table.Dual.slice(seqNextVal).selectAll().single()[seqNextVal] }
+      } else {
+        TransactionManager.current().exec("SELECT $seqNextVal FROM $rows") { resultSet ->
+          val values = mutableListOf<Int>()
+
+          while (resultSet.next()) {
+            values.add(resultSet.getInt(1))
+          }
+          values
+        }!!
+      }
+    }
+
+    /**
+     * Updates the rows of [table] whose IDs are the keys of [rows] with JDBC batches.
+     * Rows setting the same columns are sent in the same batch.
+     *
+     * @param     table           the table to update
+     * @param     idColumn        the ID column of the table
+     * @param     rows            the new column values of the rows, by ID
+     */
+    fun batchUpdate(table: Table, idColumn: Column<Int>, rows: Map<Int, List<Pair<Column<*>, Any?>>>) {
+      val transaction = TransactionManager.current()
+
+      rows.entries.filter { it.value.isNotEmpty() }.groupBy { row -> row.value.map { it.first } }.forEach { (columns, group) ->
+        val sql = "UPDATE ${transaction.identity(table)}" +
+                " SET ${columns.joinToString { "${transaction.identity(it)} = ?" }}" +
+                " WHERE ${transaction.identity(idColumn)} = ?"
+
+        group.chunked(MAX_ROWS_PER_BATCH).forEach { chunk ->
+          val statement = transaction.connection.prepareStatement(sql, false)
+
+          try {
+            chunk.forEach { (id, values) ->
+              statement.fillParameters(values.map { it.first.columnType to it.second } + (idColumn.columnType to id))
+              statement.addBatch()
+            }
+            statement.executeBatch()
+          } finally {
+            statement.closeIfPossible()
+          }
+        }
+      }
+    }
+
     /**
      * Run a transaction block with a savepoint : allow rollback to the added savepoint
      */
@@ -132,5 +233,14 @@ class Utils {
     }
 
     const val NULL_LITERAL = "NULL"
+
+    // the maximum number of sequence values fetched by a single query
+    private const val MAX_VALUES_PER_QUERY = 100
+
+    // the maximum number of rows sent in a single JDBC batch
+    private const val MAX_ROWS_PER_BATCH = 500
+
+    // the sequences found for the tables, by database URL and table name
+    private val tableSequences = ConcurrentHashMap<String, Sequence>()
   }
 }
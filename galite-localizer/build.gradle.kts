@@ -24,6 +24,7 @@ plugins {
 
 dependencies {
   implementation(project(":galite-core"))
+  implementation("org.jdom", "jdom2", Versions.JDOM)
   testImplementation(kotlin("test-junit"))
   testImplementation("com.h2database", "h2", Versions.H2)
 }
@@ -17,9 +17,12 @@
  */
 package org.kopi.galite.localizer
 
+import java.io.DataOutputStream
 import java.io.File
 import java.util.Locale
 
+import org.jdom2.input.SAXBuilder
+
 import org.jetbrains.exposed.sql.SortOrder
 import org.jetbrains.exposed.sql.select
 import org.jetbrains.exposed.sql.selectAll
@@ -30,6 +33,8 @@ import org.kopi.galite.database.Modules
 import org.kopi.galite.database.Symbols
 import org.kopi.galite.visual.Module
 import org.kopi.galite.visual.dsl.common.Window
+import org.kopi.galite.visual.l10n.LocalizationCatalog
+import org.kopi.galite.visual.l10n.LocalizationElement
 
 fun localizeWindows(url: String,
                     driver: String,
@@ -72,6 +77,32 @@ fun localizeWindow(module: Window, locale: Locale, output: String? = null) {
   module.genLocalization(destination, locale)
 }
 
+/**
+ * Compiles the localization files (`Name-fr_FR.xml`) found in a directory into the
+ * format read by [LocalizationCatalog]. The compiled files keep the relative path of
+ * the XML files, so that the destination can be added to the resources of the project.
+ *
+ * @param source      the root directory of the localization files
+ * @param destination the root directory of the compiled files
+ * @return the number of compiled files
+ */
+fun compileLocalization(source: File, destination: File): Int {
+  val files = source.walkTopDown()
+    .filter { it.isFile && it.name.matches(LOCALIZATION_FILE) }
+    .toList()
+
+  files.forEach { file ->
+    val element = LocalizationElement.of(SAXBuilder().build(file).rootElement, file.name)
+    val compiled = File(destination, file.relativeTo(source).path.removeSuffix(".xml") + LocalizationCatalog.COMPILED_EXTENSION)
+
+    compiled.parentFile.mkdirs()
+    DataOutputStream(compiled.outputStream().buffered()).use { element.write(it) }
+  }
+  return files.size
+}
+
+private val LOCALIZATION_FILE = Regex(".+-[a-z]{2}_[A-Z]{2}\\.xml")
+
 /**
  * Fetches the modules from the database.
  */
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2013-2026 kopiLeft Services SARL, Tunis TN
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1 as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.kopi.galite.localizer
+
+import org.gradle.api.DefaultTask
+import org.gradle.api.file.DirectoryProperty
+import org.gradle.api.file.FileTree
+import org.gradle.api.tasks.InputFiles
+import org.gradle.api.tasks.Internal
+import org.gradle.api.tasks.OutputDirectory
+import org.gradle.api.tasks.PathSensitive
+import org.gradle.api.tasks.PathSensitivity
+import org.gradle.api.tasks.TaskAction
+
+/**
+ * Compiles the localization files of the project into a generated resources directory,
+ * which is added to the main resources by [LocalizationPlugin].
+ */
+abstract class LocalizationCompileTask : DefaultTask() {
+  /**
+   * The root directory of the localization files.
+   */
+  @get:Internal
+  abstract val sourceDirectory: DirectoryProperty
+
+  /**
+   * The root directory of the compiled files.
+   */
+  @get:OutputDirectory
+  abstract val outputDirectory: DirectoryProperty
+
+  /**
+   * The localization files, the task is run again when one of them changes.
+   */
+  @get:InputFiles
+  @get:PathSensitive(PathSensitivity.RELATIVE)
+  val localizationFiles: FileTree
+    get() = sourceDirectory.asFileTree.matching { it.include("**/*.xml") }
+
+  @TaskAction
+  fun run() {
+    val destination = outputDirectory.get().asFile
+
+    // removes the files compiled from deleted localization files
+    destination.deleteRecursively()
+
+    val count = compileLocalization(sourceDirectory.get().asFile, destination)
+
+    logger.info("$count localization files compiled")
+  }
+}
@@ -18,21 +18,31 @@ package org.kopi.galite.localizer
 
 import org.gradle.api.Plugin
 import org.gradle.api.Project
+import org.gradle.api.plugins.JavaPlugin
+import org.gradle.api.tasks.SourceSet
+import org.gradle.api.tasks.SourceSetContainer
 
 /**
  * Localization task class
  */
 class LocalizationPlugin : Plugin<Project> {
   override fun apply(project: Project) {
-    project.extensions.create("localize", LocalizationExtension::class.java)
+    val extension = project.extensions.create("localize", LocalizationExtension::class.java)
+    val compileLocalization = project.tasks.register("compileLocalization", LocalizationCompileTask::class.java) {
+      it.sourceDirectory.convention(project.layout.projectDirectory.dir(project.provider { extension.output ?: "src/main/resources" }))
+      it.outputDirectory.convention(project.layout.buildDirectory.dir("generated/resources/localization"))
+    }
+
+    project.tasks.register("localize", LocalizationTask::class.java)
 
-    project.tasks.apply {
-      register("localize", LocalizationTask::class.java)
+    // the compiled files are packaged with the resources, processResources depends on them
+    project.plugins.withType(JavaPlugin::class.java) {
+      project.extensions.getByType(SourceSetContainer::class.java).named(SourceSet.MAIN_SOURCE_SET_NAME) {
+        it.resources.srcDir(compileLocalization)
+      }
     }
 
     project.afterEvaluate {
-      val extension = project.extensions.getByType(LocalizationExtension::class.java)
-
       extension.configure(project)
     }
   }
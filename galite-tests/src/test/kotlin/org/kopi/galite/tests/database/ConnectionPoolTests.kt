@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2013-2026 kopiLeft Services SARL, Tunis TN
+ * Copyright (c) 1990-2026 kopiRight Managed Solutions GmbH, Wien AT
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1 as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package org.kopi.galite.tests.database
+
+import java.lang.management.ManagementFactory
+
+import javax.management.ObjectName
+
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertSame
+import kotlin.test.assertTrue
+
+import org.junit.Test
+
+import org.jetbrains.exposed.sql.transactions.transaction
+
+import org.kopi.galite.database.Connection
+import org.kopi.galite.database.ConnectionPool
+
+class ConnectionPoolTests : DBSchemaTest() {
+
+  /**
+   * Tests that connections created from a shared pool keep their own user and do not close the pool
+   */
+  @Test
+  fun sharedPoolTest() {
+    val pool = ConnectionPool.getOrCreate(url = testURL,
+                                          driver = testDriver,
+                                          userName = testUser,
+                                          password = testPassword,
+                                          name = "shared-pool-test",
+                                          poolSize = 2,
+                                          idleTimeout = 10_000,
+                                          leakDetectionThreshold = 60_000)
+
+    try {
+      assertSame(pool, ConnectionPool.get("shared-pool-test"))
+
+      val first = Connection.createConnection(pool, testUser)
+      val second = Connection.createConnection(pool, "anonymous", lookupUserId = false)
+
+      assertTrue(first.isPooled)
+      assertSame(first.dbConnection, second.dbConnection)
+      assertEquals(testUser, first.userName)
+      assertEquals("anonymous", second.userName)
+
+      transaction(first.dbConnection) {
+        assertEquals(1, pool.activeConnections)
+      }
+      assertEquals(0, pool.activeConnections)
+
+      first.close()
+      assertTrue(first.isClosed)
+      assertFalse(second.isClosed)
+      assertFalse(pool.isClosed)
+    } finally {
+      pool.close()
+    }
+  }
+
+  /**
+   * Tests that a pool created with the default name registers its MBeans
+   */
+  @Test
+  fun defaultNameTest() {
+    val pool = ConnectionPool.getOrCreate(url = testURL,
+                                          driver = testDriver,
+                                          userName = testUser,
+                                          password = testPassword,
+                                          poolSize = 1)
+
+    try {
+      assertEquals(ConnectionPool.defaultName(testUser, testURL), pool.name)
+      assertFalse(pool.name.contains(':'))
+      assertSame(pool, ConnectionPool.get(pool.name))
+
+      transaction(pool.database) {
+        assertEquals(1, pool.activeConnections)
+      }
+      assertTrue(ManagementFactory.getPlatformMBeanServer()
+                   .isRegistered(ObjectName("com.zaxxer.hikari:type=Pool (${pool.name})")))
+    } finally {
+      pool.close()
+    }
+  }
+}
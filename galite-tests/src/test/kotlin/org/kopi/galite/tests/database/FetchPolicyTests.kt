@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2013-2026 kopiLeft Services SARL, Tunis TN
+ * Copyright (c) 1990-2026 kopiRight Managed Solutions GmbH, Wien AT
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1 as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package org.kopi.galite.tests.database
+
+import kotlin.test.assertEquals
+
+import org.junit.Test
+
+import org.jetbrains.exposed.sql.Table
+import org.jetbrains.exposed.sql.selectAll
+
+import org.kopi.galite.visual.database.FetchPolicy
+
+class FetchPolicyTests {
+
+  /**
+   * Tests that the fetch size defaults to the number of rows read, bounded by the maximum fetch size
+   */
+  @Test
+  fun fetchSizeTest() {
+    assertEquals(20, FetchPolicy.fetchSize(20, 100))
+    assertEquals(100, FetchPolicy.fetchSize(0, 100))
+    assertEquals(FetchPolicy.maximumFetchSize, FetchPolicy.fetchSize(0))
+    assertEquals(1, FetchPolicy.fetchSize(0, 0))
+    assertEquals(50, FetchPolicy.apply(Book.selectAll(), 0, 50).fetchSize)
+  }
+
+  object Book : Table("BOOK") {
+    val id = integer("ID")
+  }
+}
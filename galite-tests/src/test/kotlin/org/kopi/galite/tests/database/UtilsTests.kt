@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2013-2026 kopiLeft Services SARL, Tunis TN
+ * Copyright (c) 1990-2026 kopiRight Managed Solutions GmbH, Wien AT
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1 as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package org.kopi.galite.tests.database
+
+import kotlin.test.assertContentEquals
+import kotlin.test.assertEquals
+
+import org.junit.Test
+
+import org.jetbrains.exposed.sql.SchemaUtils
+import org.jetbrains.exposed.sql.Sequence
+import org.jetbrains.exposed.sql.Table
+import org.jetbrains.exposed.sql.transactions.transaction
+
+import org.kopi.galite.database.Utils
+
+class UtilsTests : DBSchemaTest() {
+
+  /**
+   * Tests that table IDs are reserved from the table sequence in one call
+   */
+  @Test
+  fun getNextTableIdsTest() {
+    transaction(connection.dbConnection) {
+      val sequence = Sequence("${Book.nameInDatabaseCase()}Id", startWith = 1)
+
+      try {
+        SchemaUtils.create(Book)
+        SchemaUtils.createSequence(sequence)
+
+        assertContentEquals(intArrayOf(1, 2, 3, 4, 5), Utils.getNextTableIds(Book, "ID", 5))
+        assertEquals(6, Utils.getNextTableId(Book, "ID"))
+        assertContentEquals(intArrayOf(), Utils.getNextTableIds(Book, "ID", 0))
+      } finally {
+        SchemaUtils.dropSequence(sequence)
+        SchemaUtils.drop(Book)
+      }
+    }
+  }
+
+  object Book : Table("BOOK") {
+    val id = integer("ID")
+  }
+}
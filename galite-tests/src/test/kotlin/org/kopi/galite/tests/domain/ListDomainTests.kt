@@ -67,6 +67,26 @@ class ListDomainTests : VApplicationTestBase() {
     assertEquals(TestTable.id, list[1].column)
   }
 
+  /**
+   * Tests that the fetch size of a list domain is passed to its list
+   */
+  @Test
+  fun fetchSizeTest() {
+    class FetchedType : ListDomain<String>(20) {
+      override val table = query(TestTable.selectAll())
+
+      init {
+        "name" keyOf TestTable.name
+        fetchSize = 50
+      }
+    }
+
+    val list = FetchedType().list
+
+    assertEquals(50, list.fetchSize)
+    assertEquals(50, list.buildListModel("", "FetchedType").fetchSize)
+  }
+
   @Test
   fun `test ListDomain with ExpressionWithColumnType`() {
     // Declaration of the domain
@@ -17,13 +17,21 @@
 
 package org.kopi.galite.tests.form
 
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
 import kotlin.test.assertEquals
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
 
 import org.jetbrains.exposed.sql.QueryAlias
 import org.jetbrains.exposed.sql.alias
 import org.jetbrains.exposed.sql.select
 import org.jetbrains.exposed.sql.targetTables
+import org.jetbrains.exposed.sql.transactions.transaction
 import org.junit.Test
+import org.kopi.galite.tests.database.insertIntoModule
 import org.kopi.galite.tests.ui.swing.JApplicationTestBase
 import org.kopi.galite.database.Users
 
@@ -50,4 +58,48 @@ class FormWithListDomainsTests : JApplicationTestBase() {
     model.setValueID(0)
     assertEquals(null as Int?, FormWithListDomains.userListBlock.user.value)
   }
+
+  @Test
+  fun getSuggestionsTest() {
+    val model = FormWithListDomains.userListBlock.module.vField
+
+    model.list!!.suggestionLimit = 2
+    model.list!!.suggestionDelay = 0
+    transaction(connection.dbConnection) {
+      try {
+        (0 until 4).forEach { insertIntoModule("910$it", "org/kopi/galite/test/Menu", 910 + it) }
+
+        assertEquals(2, model.getSuggestions("91")!!.size)
+
+        val superseded = model.newSuggestionRequest()
+        val latest = model.newSuggestionRequest()
+
+        assertNull(model.getSuggestions("91", superseded))
+        assertEquals(listOf("9100", "9101"), model.getSuggestions("91", latest)!!.map { it[0] })
+      } finally {
+        rollback()
+      }
+    }
+  }
+
+  @Test
+  fun scheduleSuggestionRequestTest() {
+    val model = FormWithListDomains.userListBlock.module.vField
+    val requests = Collections.synchronizedList(mutableListOf<Long>())
+    val scheduled = CountDownLatch(1)
+
+    model.list!!.suggestionDelay = 100
+    // quick typing: only the last request is made, once the delay has elapsed
+    repeat(3) {
+      model.scheduleSuggestionRequest { request ->
+        requests.add(request)
+        scheduled.countDown()
+      }
+    }
+
+    assertTrue(scheduled.await(5, TimeUnit.SECONDS))
+    Thread.sleep(300)
+    assertEquals(1, requests.size)
+    assertNull(model.getSuggestions("91", requests[0] - 1))
+  }
 }
@@ -16,6 +16,7 @@
  */
 package org.kopi.galite.tests.form
 
+import java.io.File
 import java.math.BigDecimal
 import kotlin.test.assertEquals
 import kotlin.test.assertFailsWith
@@ -31,23 +32,30 @@ import org.junit.Test
 
 import org.jetbrains.exposed.sql.SchemaUtils
 import org.jetbrains.exposed.sql.SortOrder
+import org.jetbrains.exposed.sql.SqlExpressionBuilder.neq
 import org.jetbrains.exposed.sql.and
+import org.jetbrains.exposed.sql.deleteWhere
 import org.jetbrains.exposed.sql.insert
 import org.jetbrains.exposed.sql.select
 import org.jetbrains.exposed.sql.selectAll
+import org.jetbrains.exposed.sql.update
 
 import org.kopi.galite.database.Users
+import org.kopi.galite.database.Utils
 import org.kopi.galite.tests.database.connectToDatabase
+import org.kopi.galite.tests.database.insertIntoModule
 import org.kopi.galite.tests.examples.Center
 import org.kopi.galite.tests.examples.FormToTestSaveMultipleBlock
 import org.kopi.galite.tests.examples.Training
 import org.kopi.galite.tests.examples.centerSequence
 import org.kopi.galite.tests.examples.initModules
 import org.kopi.galite.tests.ui.vaadin.VApplicationTestBase
+import org.kopi.galite.util.base.Metrics
 import org.kopi.galite.visual.ApplicationContext
 import org.kopi.galite.visual.MessageCode
 import org.kopi.galite.visual.VColor
 import org.kopi.galite.visual.VExecFailedException
+import org.kopi.galite.visual.cross.VDynamicReport
 import org.kopi.galite.visual.database.transaction
 import org.kopi.galite.visual.dsl.common.Mode
 import org.kopi.galite.visual.form.VConstants
@@ -265,6 +273,38 @@ class VBlockTests : VApplicationTestBase() {
     }
   }
 
+  @Test
+  fun refreshLookupsTest() {
+    val block = FormWithList.blockWithManyTables
+
+    block.shortName[0] = "5000"
+    block.shortName[1] = "5001"
+    block.shortName[2] = "5000"
+
+    transaction {
+      try {
+        insertIntoModule("5000", "org/kopi/galite/test/Menu", 500)
+        insertIntoModule("5001", "org/kopi/galite/test/Menu", 501)
+        block.block.refreshLookups(listOf(0, 1, 2))
+
+        assertNotNull(block.mid[0])
+        assertEquals(block.mid[0], block.mid[2])
+        assertNotEquals(block.mid[0], block.mid[1])
+
+        block.shortName[1] = "test"
+
+        val vExecFailedException = assertFailsWith<VExecFailedException> {
+          block.block.refreshLookups(listOf(0, 1, 2))
+        }
+
+        assertEquals(MessageCode.getMessage("VIS-00016", block.m.tableName), vExecFailedException.message)
+        assertEquals(1, block.block.activeRecord)
+      } finally {
+        rollback()
+      }
+    }
+  }
+
   @Test
   fun getSearchConditionsTest1() {
     val FormSample = FormSample()
@@ -452,6 +492,103 @@ class VBlockTests : VApplicationTestBase() {
     }
   }
 
+  @Test
+  fun `fetchNextRecord with prefetch scenario test`() {
+    val FormSample = FormSample()
+    val hits = Metrics.counter("galite.block.prefetch.hits")
+    val misses = Metrics.counter("galite.block.prefetch.misses")
+
+    transaction {
+      initSampleFormTables()
+      FormSample.tb1.prefetchSize = 10
+      FormSample.tb1.block.load()
+
+      val initialHits = hits.count
+      val initialMisses = misses.count
+      val ids = mutableListOf<Int?>()
+
+      // the first record is not prefetched: all the records are fetched in one query
+      FormSample.tb1.block.fetchNextRecord(0)
+      ids.add(FormSample.tb1.id.value)
+      // the next records are read from the prefetched rows
+      FormSample.tb1.block.fetchNextRecord(1)
+      ids.add(FormSample.tb1.id.value)
+      FormSample.tb1.block.fetchNextRecord(1)
+      ids.add(FormSample.tb1.id.value)
+      FormSample.tb1.block.fetchNextRecord(-1)
+
+      assertEquals(ids[1], FormSample.tb1.id.value)
+      assertEquals(3, ids.distinct().size)
+      assertEquals(User.select { User.id eq ids[1]!! }.single()[User.name], FormSample.tb1.name.value)
+      assertEquals(initialMisses + 1, misses.count)
+      assertEquals(initialHits + 3, hits.count)
+      SchemaUtils.drop(User)
+    }
+  }
+
+  @Test
+  fun `fetchNextRecord with outdated prefetched records scenario test`() {
+    val FormSample = FormSample()
+    val hits = Metrics.counter("galite.block.prefetch.hits")
+
+    transaction {
+      initSampleFormTables()
+      FormSample.tb1.prefetchSize = 10
+      FormSample.tb1.block.load()
+      FormSample.tb1.block.fetchNextRecord(0)
+
+      val firstId = FormSample.tb1.id.value!!
+      val others = User.slice(User.id).select { User.id neq firstId }.map { it[User.id] }
+
+      // the second record is updated with a new TS, the third one is deleted
+      User.update({ User.id neq firstId }) {
+        it[name] = "UPDATED"
+        it[ts] = 1
+      }
+      User.deleteWhere { User.id eq others.last() }
+
+      val initialHits = hits.count
+
+      FormSample.tb1.block.fetchNextRecord(1)
+      assertEquals("UPDATED", FormSample.tb1.name.value)
+      assertEquals(1, FormSample.tb1.ts.value)
+      // the deleted record is skipped
+      assertThrows(VExecFailedException::class.java) {
+        FormSample.tb1.block.fetchNextRecord(1)
+      }
+      // an unchanged prefetched record is still used
+      FormSample.tb1.block.fetchNextRecord(-1)
+      assertEquals(firstId, FormSample.tb1.id.value)
+      assertEquals(initialHits + 1, hits.count)
+      SchemaUtils.drop(User)
+    }
+  }
+
+  @Test
+  fun `exportCSV dynamic report scenario test`() {
+    val FormSample = FormSample()
+    val file = File.createTempFile("dynamic-report", ".csv")
+
+    try {
+      transaction {
+        initSampleFormTables()
+        val report = VDynamicReport(FormSample.tb1.block)
+
+        report.exportCSV(file)
+
+        val lines = file.readLines()
+
+        // a header line and one line by user, the report holds the same rows
+        assertEquals(User.selectAll().count() + 1, lines.size.toLong())
+        assertEquals(lines.size - 1, lines.drop(1).distinct().size)
+        assertEquals(lines.size - 1, report.model.getLineCount())
+        SchemaUtils.drop(User)
+      }
+    } finally {
+      file.delete()
+    }
+  }
+
   @Test
   fun `fetchNextRecord multi block scenario test`() {
     val error = assertThrows(AssertionError::class.java) {
@@ -650,6 +787,49 @@ class VBlockTests : VApplicationTestBase() {
     }
   }
 
+  @Test
+  fun `save batch multiple block scenario test`() {
+    val formMultiple = FormToTestSaveMultipleBlock()
+
+    transaction {
+      initMultipleBlockFormTables()
+      // skip the IDs of the existing centers
+      Utils.getNextTableIds(Center, "ID", 3)
+
+      formMultiple.multipleBlock.batchSave = true
+      for (i in 0 until 3) {
+        formMultiple.multipleBlock.centerId[i] = i + 1
+        formMultiple.multipleBlock.ts[i] = 0
+        formMultiple.multipleBlock.uc[i] = 0
+        formMultiple.multipleBlock.trainingId[i] = 1
+        formMultiple.multipleBlock.centerName[i] = "center ${i + 1}${i + 1}${i + 1}"
+        formMultiple.multipleBlock.address[i] = "adresse ${i + 1}${i + 1}${i + 1}"
+        formMultiple.multipleBlock.mail[i] = "center${i + 1}${i + 1}${i + 1}@gmail.com"
+      }
+      formMultiple.multipleBlock.trainingId[3] = 1
+      formMultiple.multipleBlock.centerName[3] = "center 444"
+      formMultiple.multipleBlock.address[3] = "adresse 444"
+      formMultiple.multipleBlock.mail[3] = "center444@gmail.com"
+
+      formMultiple.multipleBlock.setMode(Mode.UPDATE)
+      formMultiple.multipleBlock.block.setRecordFetched(0, true)
+      formMultiple.multipleBlock.block.setRecordFetched(1, true)
+      formMultiple.multipleBlock.block.setRecordFetched(2, true)
+      formMultiple.multipleBlock.block.setRecordDeleted(2, true)
+      formMultiple.multipleBlock.block.save()
+
+      val centers = Center.selectAll().orderBy(Center.id).map { it[Center.id] to it[Center.centerName] }
+
+      assertEquals(listOf(1 to "center 111", 2 to "center 222", 4 to "center 444"), centers)
+      assertEquals(4, formMultiple.multipleBlock.centerId[3])
+      assertEquals(1, formMultiple.multipleBlock.uc[0])
+      assertTrue(formMultiple.multipleBlock.block.isRecordFetched(3))
+      assertFalse(formMultiple.multipleBlock.block.isRecordChanged(3))
+      SchemaUtils.drop(Training, Center)
+      SchemaUtils.dropSequence(centerSequence)
+    }
+  }
+
   @Test
   fun `delete simple block scenario test`() {
     val FormSample = FormSample()
@@ -839,6 +1019,92 @@ class VBlockTests : VApplicationTestBase() {
     }
   }
 
+  @Test
+  fun `isPaged test`() {
+    val block = formMultiple.multipleBlock.block
+
+    assertFalse(block.isPaged())
+    block.pageSize = block.bufferSize
+    assertFalse(block.isPaged())
+    block.pageSize = 2
+    assertTrue(block.isPaged())
+    assertFalse(formMultiple.block.block.isPaged())
+  }
+
+  @Test
+  fun `loadNextPage paged multiple block scenario test`() {
+    val block = formMultiple.multipleBlock
+
+    block.block.pageSize = 2
+    transaction {
+      try {
+        initMultipleBlockFormTables()
+        block.block.clear()
+        block.block.load()
+
+        // only the first page is loaded
+        assertEquals(listOf("center 1", "center 2", null), (0 until 3).map { block.centerName[it] })
+        assertTrue(block.block.hasMoreRecords)
+
+        assertTrue(block.block.loadNextPage())
+        assertEquals("center 3", block.centerName[2])
+        assertFalse(block.block.hasMoreRecords)
+
+        assertFalse(block.block.loadNextPage())
+      } finally {
+        SchemaUtils.drop(Training, Center)
+        SchemaUtils.dropSequence(centerSequence)
+      }
+    }
+  }
+
+  @Test
+  fun `loadNextPage equal sort keys scenario test`() {
+    val block = formMultiple.multipleBlock
+
+    // all the centers have the same training: the pages are ordered by ID
+    block.block.pageSize = 1
+    transaction {
+      try {
+        initMultipleBlockFormTables()
+        block.block.clear()
+        block.block.load()
+        while (block.block.loadNextPage()) {
+          // load the next page
+        }
+
+        assertEquals(listOf(1, 2, 3), (0 until 3).map { block.centerId[it] })
+        assertNull(block.centerId[3])
+      } finally {
+        SchemaUtils.drop(Training, Center)
+        SchemaUtils.dropSequence(centerSequence)
+      }
+    }
+  }
+
+  @Test
+  fun `loadNextPage exec failed scenario test`() {
+    val block = formMultiple.multipleBlock
+
+    block.block.pageSize = 2
+    transaction {
+      try {
+        initMultipleBlockFormTables()
+        block.block.clear()
+        block.block.load()
+        SchemaUtils.drop(Center)
+
+        assertFailsWith<VExecFailedException> {
+          block.block.loadNextPage()
+        }
+        assertNull(block.centerName[2])
+      } finally {
+        SchemaUtils.drop(Training)
+        SchemaUtils.dropSequence(centerSequence)
+      }
+    }
+  }
+
   @Test
   fun `fetchLookup valid scenario test`() {
     val FormSample = FormSample()
@@ -955,6 +1221,52 @@ class VBlockTests : VApplicationTestBase() {
     }
   }
 
+  @Test
+  fun `buildQueryDialog paged test`() {
+    val FormSample = FormSample()
+    transaction {
+      initSampleFormTables()
+      FormSample.tb1.block.clear()
+      FormSample.tb1.block.queryDialogPageSize = 2
+
+      val query = FormSample.tb1.block.buildQueryDialog()!!
+
+      assertEquals(2, query.count)
+      assertTrue(query.hasMoreRows)
+
+      assertTrue(query.loadMoreRows())
+      assertEquals(3, query.count)
+      assertFalse(query.hasMoreRows)
+      assertEquals(3, query.totalCount)
+      assertEquals(User.selectAll().map { it[User.id] }.sorted(), (0 until 3).map { query.convert(it) }.sorted())
+      SchemaUtils.drop(User)
+    }
+  }
+
+  @Test
+  fun `buildQueryDialog paged equal values test`() {
+    val FormSample = FormSample()
+    transaction {
+      initSampleFormTables()
+      // the users cannot be ordered by the fields of the dialog
+      User.update {
+        it[name] = "USER"
+        it[age] = 30
+      }
+      FormSample.tb1.block.clear()
+      FormSample.tb1.block.queryDialogPageSize = 1
+
+      val query = FormSample.tb1.block.buildQueryDialog()!!
+
+      while (query.hasMoreRows) {
+        query.loadMoreRows()
+      }
+
+      assertEquals(listOf(1, 3, 4), (0 until query.count).map { query.convert(it) })
+      SchemaUtils.drop(User)
+    }
+  }
+
   @Test
   fun `getActiveCommands test`() {
     val model = formMultiple.multipleBlock.block
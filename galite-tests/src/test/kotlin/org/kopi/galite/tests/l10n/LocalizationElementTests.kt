@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2013-2026 kopiLeft Services SARL, Tunis TN
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1 as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package org.kopi.galite.tests.l10n
+
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+
+import org.jdom2.Document
+import org.jdom2.Element
+import org.junit.Test
+import org.kopi.galite.util.base.InconsistencyException
+import org.kopi.galite.visual.l10n.LocalizationElement
+import org.kopi.galite.visual.l10n.MessageLocalizer
+
+class LocalizationElementTests {
+
+  @Test
+  fun compiledLocalizationTest() {
+    val root = Element("messages")
+
+    listOf("first", "second", "first").forEachIndexed { index, ident ->
+      val message = Element("message")
+
+      message.setAttribute("ident", ident)
+      message.setAttribute("text", "text $index")
+      root.addContent(message)
+    }
+
+    val output = ByteArrayOutputStream()
+
+    LocalizationElement.of(Document(root)).write(DataOutputStream(output))
+
+    val element = LocalizationElement.read(DataInputStream(ByteArrayInputStream(output.toByteArray())), "Messages-en_GB.xml")
+
+    assertEquals("messages", element.name)
+    assertEquals(3, element.getChildren("message").size)
+    // the first child in document order is found
+    assertEquals("text 0", MessageLocalizer(element, "first").getText())
+    assertEquals("text 1", MessageLocalizer(element, "second").getText())
+
+    val exception = assertFailsWith<InconsistencyException> {
+      element.lookupChild("message", "ident", "third")
+    }
+    assertEquals("Messages-en_GB.xml: message ident = third not found", exception.message)
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2013-2026 kopiLeft Services SARL, Tunis TN
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1 as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package org.kopi.galite.tests.l10n
+
+import java.util.Locale
+
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertSame
+
+import org.junit.Test
+import org.kopi.galite.util.base.InconsistencyException
+import org.kopi.galite.visual.l10n.LocalizationManager
+import org.kopi.galite.visual.l10n.LocalizedFormats
+
+class LocalizedFormatsTests {
+
+  @Test
+  fun localizedFormatsTest() {
+    val locale = Locale("en", "GB")
+    val manager = LocalizationManager(locale, null)
+    val message = LocalizedFormats.getMessageFormat(manager, MESSAGES, "searching_database", locale)
+
+    assertEquals("Searching.", message.format(null))
+    assertEquals("Searching.", message.format(arrayOf("ignored")))
+    // the format is parsed once for all the managers of the locale
+    assertSame(message, LocalizedFormats.getMessageFormat(LocalizationManager(locale, null), MESSAGES, "searching_database", locale))
+
+    val property = LocalizedFormats.getPropertyFormat(manager, PROPERTIES, "integer-type-field", locale)
+
+    assertEquals("This field must be filled by an integer between 1 and 9.", property.format(arrayOf(1, 9)))
+    assertFailsWith<InconsistencyException> {
+      LocalizedFormats.getPropertyFormat(manager, PROPERTIES, "unknown-property", locale)
+    }
+  }
+
+  companion object {
+    const val MESSAGES = "org/kopi/galite/visual/VKMessages"
+    const val PROPERTIES = "org/kopi/galite/visual/VlibProperties"
+  }
+}
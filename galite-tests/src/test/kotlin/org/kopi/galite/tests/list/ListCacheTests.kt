@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2013-2026 kopiLeft Services SARL, Tunis TN
+ * Copyright (c) 1990-2026 kopiRight Managed Solutions GmbH, Wien AT
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1 as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package org.kopi.galite.tests.list
+
+import kotlin.test.assertEquals
+
+import org.junit.Test
+
+import org.jetbrains.exposed.sql.SchemaUtils
+import org.jetbrains.exposed.sql.Table
+import org.jetbrains.exposed.sql.insert
+import org.jetbrains.exposed.sql.select
+import org.jetbrains.exposed.sql.transactions.transaction
+
+import org.kopi.galite.tests.database.DBSchemaTest
+import org.kopi.galite.util.base.Metrics
+import org.kopi.galite.visual.list.ListCache
+
+class ListCacheTests : DBSchemaTest() {
+
+  /**
+   * Tests that list rows are read once until the table is invalidated or the entry expires
+   */
+  @Test
+  fun listCacheTest() {
+    transaction(connection.dbConnection) {
+      try {
+        SchemaUtils.create(Currency)
+        Currency.insert { it[code] = "EUR" }
+        Currency.insert { it[code] = "TND" }
+
+        val query = Currency.select { Currency.code like "%" }
+        val hits = Metrics.counter("galite.list.cache.hits").count
+        val misses = Metrics.counter("galite.list.cache.misses").count
+
+        assertEquals(2, ListCache.rows(query).size)
+        Currency.insert { it[code] = "USD" }
+        assertEquals(2, ListCache.rows(query).size)
+        assertEquals(hits + 1, Metrics.counter("galite.list.cache.hits").count)
+        assertEquals(misses + 1, Metrics.counter("galite.list.cache.misses").count)
+
+        ListCache.invalidate(Currency)
+        assertEquals(3, ListCache.rows(query).size)
+
+        ListCache.timeToLive = 0
+        Currency.insert { it[code] = "GBP" }
+        assertEquals(4, ListCache.rows(query).size)
+      } finally {
+        ListCache.timeToLive = 5 * 60 * 1000L
+        ListCache.invalidateAll()
+        SchemaUtils.drop(Currency)
+      }
+    }
+  }
+
+  object Currency : Table("CURRENCY") {
+    val code = varchar("CODE", 3)
+  }
+}
@@ -22,15 +22,21 @@ import java.math.BigDecimal
 import java.util.Locale
 
 import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertNull
 
 import org.jdom2.input.SAXBuilder
 import org.junit.Test
+import org.vaadin.addons.componentfactory.PivotTable.Aggregator
 import org.kopi.galite.tests.ui.vaadin.VApplicationTestBase
+import org.kopi.galite.util.base.InconsistencyException
 import org.kopi.galite.visual.domain.DECIMAL
 import org.kopi.galite.visual.domain.INT
 import org.kopi.galite.visual.domain.STRING
 import org.kopi.galite.visual.dsl.pivottable.Dimension.Position
 import org.kopi.galite.visual.dsl.pivottable.PivotTable
+import org.kopi.galite.visual.pivottable.Constants
+import org.kopi.galite.visual.pivottable.PivotTableAggregation
 
 class PivotTableTests: VApplicationTestBase() {
 
@@ -109,6 +115,49 @@ class PivotTableTests: VApplicationTestBase() {
     assertEquals("age", ageField.getAttributeValue("label"))
     assertEquals("The user age", ageField.getAttributeValue("help"))
   }
+
+  /**
+   * Tests that the rows are grouped by the dimensions on the server.
+   */
+  @Test
+  fun serverAggregationTest() {
+    val pivotTable = SalariesPivotTable()
+    val sums = PivotTableAggregation.aggregate(pivotTable.model.model, Pair(Aggregator.SUM, "salary"))!!
+
+    assertEquals(listOf("name"), sums.dimensions.map { it.label })
+    assertEquals("salary", sums.valueLabel)
+    assertEquals(Aggregator.SUM, sums.aggregator)
+    assertEquals(mapOf("Sami" to "2000", "Sofia" to "3000.55"), sums.rows.associate { it[0] to it[1] })
+
+    val counts = PivotTableAggregation.aggregate(pivotTable.model.model, Pair(Aggregator.COUNT, ""))!!
+
+    assertEquals(Constants.INTEGER_SUM, counts.aggregator)
+    assertEquals(mapOf("Sami" to "1", "Sofia" to "2"), counts.rows.associate { it[0] to it[1] })
+
+    val minimums = PivotTableAggregation.aggregate(pivotTable.model.model, Pair(Constants.MINIMUM, "salary"))!!
+
+    assertEquals(mapOf("Sami" to "2000", "Sofia" to "1000.00"), minimums.rows.associate { it[0] to it[1] })
+    // the average of the groups is not the average of the rows
+    assertNull(PivotTableAggregation.aggregate(pivotTable.model.model, Pair("Average", "salary")))
+  }
+
+  @Test
+  fun interactiveServerAggregationTest() {
+    val pivotTable = SalariesPivotTable()
+
+    pivotTable.aggregator = Pair(Aggregator.SUM, "salary")
+    pivotTable.serverAggregation = true
+    // the user of an interactive pivot table could choose aggregators that need the rows
+    assertFailsWith<InconsistencyException> {
+      pivotTable.model.aggregateRows()
+    }
+
+    pivotTable.interactive = Constants.MODE_NONINTERACTIVE
+    val cube = pivotTable.model.aggregateRows()!!
+
+    assertEquals(Aggregator.SUM, cube.aggregator)
+    assertEquals(mapOf("Sami" to "2000", "Sofia" to "3000.55"), cube.rows.associate { it[0] to it[1] })
+  }
 }
 
 /**
@@ -163,3 +212,32 @@ class SimplePivotTable : PivotTable(title = "SimplePivotTable", locale = Locale.
     }
   }
 }
+
+/**
+ * Pivot table with rows sharing their dimensions.
+ */
+class SalariesPivotTable : PivotTable(title = "SalariesPivotTable", locale = Locale.UK) {
+
+  val name = dimension(STRING(20), Position.COLUMN) {
+    label = "name"
+  }
+
+  val salary = measure(DECIMAL(width = 10, scale = 5)) {
+    label = "salary"
+  }
+
+  init {
+    add {
+      this[name] = "Sami"
+      this[salary] = BigDecimal("2000")
+    }
+    add {
+      this[name] = "Sofia"
+      this[salary] = BigDecimal("2000.55")
+    }
+    add {
+      this[name] = "Sofia"
+      this[salary] = BigDecimal("1000.00")
+    }
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2013-2026 kopiLeft Services SARL, Tunis TN
+ * Copyright (c) 1990-2026 kopiRight Managed Solutions GmbH, Wien AT
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1 as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package org.kopi.galite.tests.report
+
+import java.math.BigDecimal
+import java.time.LocalDate
+import java.time.LocalTime
+
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+import org.junit.Test
+import org.kopi.galite.tests.common.TestBase
+import org.kopi.galite.visual.report.ReportRowStore
+
+class ReportRowStoreTests : TestBase() {
+
+  /**
+   * Tests that typed values are read back unchanged
+   */
+  @Test
+  fun storeValuesTest() {
+    val store = ReportRowStore()
+    val rows = listOf<Array<Any?>>(arrayOf(1, BigDecimal("298.70"), LocalDate.of(2020, 2, 29), true, "Tunis", LocalTime.NOON),
+                                   arrayOf(null, null, null, null, null, null),
+                                   arrayOf(-7, BigDecimal("-1.5"), LocalDate.of(1970, 1, 1), false, "Wien", null))
+
+    rows.forEach { store.add(it) }
+    // more rows than the initial capacity
+    repeat(100) { store.add(arrayOf(it, BigDecimal(it), null, null, "Tunis", null)) }
+
+    assertEquals(103, store.size)
+    rows.forEachIndexed { index, row ->
+      assertArraysEquals(row, store.getRow(index))
+    }
+    assertEquals(99, store[102, 0])
+    assertEquals("Tunis", store[102, 4])
+    assertTrue(store.isComparable(0))
+    assertFalse(store.isComparable(5))
+  }
+
+  /**
+   * Tests that a column falls back to objects when a value does not fit its representation
+   */
+  @Test
+  fun storeFallbackTest() {
+    val store = ReportRowStore(2)
+
+    store.add(arrayOf(1, BigDecimal("1.00")))
+    store.add(arrayOf(2, BigDecimal("1E+400")))
+    store[1, 0] = "two"
+
+    assertEquals(1, store[0, 0])
+    assertEquals("two", store[1, 0])
+    assertEquals(BigDecimal("1.00"), store[0, 1])
+    assertEquals(BigDecimal("1E+400"), store[1, 1])
+    assertFalse(store.isComparable(0))
+  }
+
+  /**
+   * Tests the comparison of the values of a column, null being less than everything
+   */
+  @Test
+  fun compareTest() {
+    val store = ReportRowStore()
+
+    store.add(arrayOf(BigDecimal("2.5"), "b"))
+    store.add(arrayOf(BigDecimal("10"), "a"))
+    store.add(arrayOf(null, null))
+
+    assertTrue(store.compare(0, 1, 0) < 0)
+    assertTrue(store.compare(0, 1, 1) > 0)
+    assertTrue(store.compare(2, 0, 0) < 0)
+    assertEquals(0, store.compare(2, 2, 1))
+  }
+
+  /**
+   * Tests the comparison of the values of a column stored as objects
+   */
+  @Test
+  fun compareObjectsTest() {
+    val store = ReportRowStore()
+
+    store.add(arrayOf(LocalTime.of(10, 0), 2))
+    store.add(arrayOf(LocalTime.of(9, 30), 1))
+    store.add(arrayOf(null, "one"))
+    store.add(arrayOf(LocalTime.of(9, 30), 3))
+
+    assertTrue(store.compare(0, 1, 0) > 0)
+    assertTrue(store.compare(2, 1, 0) < 0)
+    assertEquals(0, store.compare(1, 3, 0))
+    // the integers and the strings are compared with the names of their classes
+    assertTrue(store.compare(0, 1, 1) > 0)
+    assertTrue(store.compare(0, 2, 1) < 0)
+  }
+
+  /**
+   * Tests that columns can be removed and added
+   */
+  @Test
+  fun columnsTest() {
+    val store = ReportRowStore()
+
+    store.add(arrayOf(1, "a", true))
+    store.removeColumn(1)
+    assertArraysEquals(arrayOf<Any?>(1, true), store.getRow(0))
+
+    store.setColumnCount(3)
+    assertNull(store[0, 2])
+    store[0, 2] = BigDecimal.TEN
+    assertArraysEquals(arrayOf<Any?>(1, true, BigDecimal.TEN), store.getRow(0))
+  }
+}
@@ -24,6 +24,13 @@ import kotlin.test.assertEquals
 
 import org.jdom2.input.SAXBuilder
 import org.junit.Test
+
+import org.jetbrains.exposed.sql.SchemaUtils
+import org.jetbrains.exposed.sql.Table
+import org.jetbrains.exposed.sql.insert
+import org.jetbrains.exposed.sql.selectAll
+import org.jetbrains.exposed.sql.transactions.transaction
+
 import org.kopi.galite.tests.ui.vaadin.VApplicationTestBase
 import org.kopi.galite.visual.domain.DECIMAL
 import org.kopi.galite.visual.domain.INT
@@ -33,6 +40,7 @@ import org.kopi.galite.visual.dsl.form.Key
 import org.kopi.galite.visual.dsl.report.FieldAlignment
 import org.kopi.galite.visual.dsl.report.Report
 import org.kopi.galite.visual.report.VReport
+import org.kopi.galite.visual.report.VReportRow
 import org.kopi.galite.visual.report.triggers.avgDecimal
 import org.kopi.galite.visual.report.triggers.avgInteger
 
@@ -80,6 +88,114 @@ class ReportTests: VApplicationTestBase() {
                      thirdRow)
   }
 
+  /**
+   * Tests that the rows of a query are added with the fetch size of the report
+   */
+  @Test
+  fun queryRowsTest() {
+    val report = object : Report(title = "QueryReport", locale = Locale.UK) {
+      val name = field(STRING(20)) {
+        label = "Name"
+      }
+
+      init {
+        fetchSize = 2
+      }
+    }
+
+    assertEquals(2, report.model.fetchSize)
+
+    transaction(connection.dbConnection) {
+      SchemaUtils.create(Employee)
+      listOf("Sami", "Sofia", "Amal").forEach { name ->
+        Employee.insert {
+          it[this.name] = name
+        }
+      }
+
+      val query = Employee.selectAll().orderBy(Employee.name)
+
+      report.add(query) { row ->
+        this[report.name] = row[Employee.name]
+      }
+
+      assertEquals(2, query.fetchSize)
+      SchemaUtils.drop(Employee)
+    }
+
+    assertEquals(listOf("Amal", "Sami", "Sofia"), report.getRowsForField(report.name))
+  }
+
+  /**
+   * Tests that folding and unfolding rows updates the visible rows of the grouping tree
+   */
+  @Test
+  fun foldingRowTest() {
+    val report = SimpleReport()
+    val reportModel = report.model
+    val model = reportModel.model
+
+    reportModel.initReport()
+
+    // root, group "Sami" and group "Sofia"
+    assertEquals(3, model.getRowCount())
+    assertEquals(2, model.getTree()!!.childCount)
+    assertEquals(3, model.getTree()!!.leafCount)
+
+    model.unfoldingRow(2, 0)
+    assertEquals(5, model.getRowCount())
+    assertEquals(23, model.getRow(3)!!.getValueAt(1))
+    assertEquals(25, model.getRow(4)!!.getValueAt(1))
+    assertEquals(model.getRow(2), model.getRow(4)!!.parent)
+
+    model.unfoldingRow(1, 0)
+    assertEquals(6, model.getRowCount())
+    assertEquals(22, model.getRow(2)!!.getValueAt(1))
+    assertEquals(1, model.getRow(3)!!.level)
+
+    model.foldingRow(4, 0)
+    assertEquals(4, model.getRowCount())
+    assertEquals(1, model.getRow(3)!!.level)
+    assertEquals(1, model.getRow(3)!!.parent!!.getIndex(model.getRow(3)))
+  }
+
+  /**
+   * Tests that the groups and the rows of each group are sorted wrt to a column
+   */
+  @Test
+  fun sortColumnTest() {
+    val report = SimpleReport()
+    val reportModel = report.model
+    val model = reportModel.model
+
+    reportModel.initReport()
+    model.unfoldingColumn(1)
+    assertEquals(listOf(22, 23, 25), listOf(2, 4, 5).map { model.getRow(it)!!.getValueAt(1) })
+
+    model.sortColumn(1, -1)
+    assertEquals(6, model.getRowCount())
+    assertEquals(1, model.getRow(1)!!.level)
+    assertEquals(listOf(25, 23, 22), listOf(2, 3, 5).map { model.getRow(it)!!.getValueAt(1) })
+  }
+
+  /**
+   * Tests that the cached column widths follow the changes of the base rows
+   */
+  @Test
+  fun columnWidthTest() {
+    val report = SimpleReport()
+    val reportModel = report.model
+    val model = reportModel.model
+
+    reportModel.initReport()
+    assertEquals(7, model.computeColumnWidth(0))
+    assertEquals(12, model.computeColumnWidth(2))
+
+    (model.getTree()!!.firstLeaf as VReportRow).setValueAt(0, "Alexandra")
+    assertEquals(11, model.computeColumnWidth(0))
+    assertEquals(12, model.computeColumnWidth(2))
+  }
+
   /**
    * Tests that fields localization is generated to the xml file
    */
@@ -118,6 +234,10 @@ class ReportTests: VApplicationTestBase() {
   }
 }
 
+object Employee : Table("EMPLOYEE") {
+  val name = varchar("NAME", 20)
+}
+
 /**
  * Simple Report with two fields.
  */
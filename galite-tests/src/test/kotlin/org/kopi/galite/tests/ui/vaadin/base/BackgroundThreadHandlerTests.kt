@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2013-2026 kopiLeft Services SARL, Tunis TN
+ * Copyright (c) 1990-2026 kopiRight Managed Solutions GmbH, Wien AT
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1 as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package org.kopi.galite.tests.ui.vaadin.base
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+import org.junit.Test
+
+import org.kopi.galite.util.base.Metrics
+import org.kopi.galite.visual.ui.vaadin.base.ActionExecutor
+import org.kopi.galite.visual.ui.vaadin.base.BackgroundThreadHandler
+
+import com.github.mvysny.kaributesting.v10.MockVaadin
+import com.vaadin.flow.component.UI
+
+class BackgroundThreadHandlerTests {
+
+  /**
+   * Tests that a lock released by the started task does not block the waiting thread
+   */
+  @Test
+  fun releaseBeforeWaitTest() {
+    val lock = Object()
+
+    BackgroundThreadHandler.startAndWait(lock) {
+      BackgroundThreadHandler.releaseLock(lock)
+    }
+  }
+
+  /**
+   * Tests that a waiting action is released from another thread
+   */
+  @Test
+  fun waitingActionTest() {
+    val lock = Object()
+    val started = CountDownLatch(1)
+    val done = CountDownLatch(1)
+
+    ActionExecutor.execute(null) {
+      BackgroundThreadHandler.startAndWait(lock) {
+        started.countDown()
+      }
+      done.countDown()
+    }
+    assertTrue(started.await(10, TimeUnit.SECONDS))
+    BackgroundThreadHandler.releaseLock(lock)
+    assertTrue(done.await(10, TimeUnit.SECONDS))
+    assertTrue(Metrics.snapshot().containsKey("galite.actions.active"))
+  }
+
+  /**
+   * Tests that the actions waiting for nested dialogs do not block the actions of the next dialogs
+   */
+  @Test
+  fun nestedDialogsTest() {
+    val maximumSessionActions = ActionExecutor.maximumSessionActions
+
+    MockVaadin.setup()
+    try {
+      val ui = UI.getCurrent()
+      val dialogs = 4
+      val locks = List(dialogs) { Object() }
+      val opened = CountDownLatch(dialogs)
+      val closed = CountDownLatch(dialogs)
+
+      // each dialog is opened by an action of the previous dialog
+      fun openDialog(level: Int) {
+        ActionExecutor.execute(ui) {
+          BackgroundThreadHandler.startAndWait(locks[level], ui) {
+            opened.countDown()
+            if (level + 1 < dialogs) {
+              openDialog(level + 1)
+            }
+          }
+          closed.countDown()
+        }
+      }
+
+      ActionExecutor.maximumSessionActions = 2
+      openDialog(0)
+      // the dialogs are opened with the UI access of the test thread
+      val deadline = System.currentTimeMillis() + 10_000
+
+      while (!opened.await(10, TimeUnit.MILLISECONDS) && System.currentTimeMillis() < deadline) {
+        MockVaadin.runUIQueue()
+      }
+      assertEquals(0L, opened.count)
+
+      locks.reversed().forEach { BackgroundThreadHandler.releaseLock(it) }
+      assertTrue(closed.await(10, TimeUnit.SECONDS))
+    } finally {
+      ActionExecutor.maximumSessionActions = maximumSessionActions
+      MockVaadin.tearDown()
+    }
+  }
+}
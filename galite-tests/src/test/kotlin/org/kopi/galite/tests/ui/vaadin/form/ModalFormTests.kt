@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2013-2026 kopiLeft Services SARL, Tunis TN
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1 as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.kopi.galite.tests.ui.vaadin.form
+
+import java.util.Locale
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.TimeUnit
+
+import kotlin.concurrent.thread
+import kotlin.test.assertTrue
+
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+
+import org.kopi.galite.testing.waitAndRunUIQueue
+import org.kopi.galite.tests.ui.vaadin.GaliteVUITestBase
+import org.kopi.galite.visual.ApplicationContext
+import org.kopi.galite.visual.VWindow
+import org.kopi.galite.visual.WindowController
+import org.kopi.galite.visual.domain.INT
+import org.kopi.galite.visual.dsl.form.Block
+import org.kopi.galite.visual.dsl.form.Form
+import org.kopi.galite.visual.ui.vaadin.base.BackgroundThreadHandler
+
+import com.vaadin.flow.component.UI
+
+class ModalFormTests : GaliteVUITestBase() {
+
+  val form = ModalForm()
+
+  @Before
+  fun `login to the App`() {
+    login()
+  }
+
+  @After
+  fun `close pool connection`() {
+    ApplicationContext.getDBConnection()?.poolConnection?.close()
+  }
+
+  @Test
+  fun `doModal returns after the window is closed`() {
+    val ui = UI.getCurrent()
+    val result = CompletableFuture<Boolean>()
+
+    thread {
+      BackgroundThreadHandler.setUI(ui)
+      try {
+        result.complete(WindowController.windowController.doModal(form))
+      } catch (e: Throwable) {
+        result.completeExceptionally(e)
+      }
+    }
+
+    // builds and opens the modal window
+    waitAndRunUIQueue(500)
+
+    form.model.close(VWindow.CDE_VALIDATE)
+
+    assertTrue(result.get(10, TimeUnit.SECONDS))
+  }
+}
+
+class ModalForm : Form(title = "Modal Form", locale = Locale.UK) {
+
+  init {
+    insertBlock(Training())
+  }
+
+  inner class Training : Block("Training", 1, 1) {
+
+    val ID = visit(domain = INT(25), position = at(1, 1)) {
+      label = "ID"
+      help = "ID"
+    }
+  }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2013-2026 kopiLeft Services SARL, Tunis TN
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1 as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.kopi.galite.tests.visual
+
+import kotlin.test.assertEquals
+import kotlin.test.assertFalse
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+
+import org.jetbrains.exposed.sql.SqlExpressionBuilder.eq
+import org.jetbrains.exposed.sql.SqlLogger
+import org.jetbrains.exposed.sql.Transaction
+import org.jetbrains.exposed.sql.addLogger
+import org.jetbrains.exposed.sql.deleteAll
+import org.jetbrains.exposed.sql.deleteWhere
+import org.jetbrains.exposed.sql.insert
+import org.jetbrains.exposed.sql.select
+import org.jetbrains.exposed.sql.statements.StatementContext
+import org.jetbrains.exposed.sql.statements.expandArgs
+import org.jetbrains.exposed.sql.transactions.transaction
+import org.jetbrains.exposed.sql.update
+
+import org.kopi.galite.database.GroupParties
+import org.kopi.galite.database.GroupRights
+import org.kopi.galite.database.Groups
+import org.kopi.galite.database.Modules
+import org.kopi.galite.database.Symbols
+import org.kopi.galite.database.UserRights
+import org.kopi.galite.database.Users
+import org.kopi.galite.tests.database.TEST_DB_USER
+import org.kopi.galite.tests.database.insertIntoModule
+import org.kopi.galite.tests.form.FormSample
+import org.kopi.galite.tests.ui.vaadin.VApplicationTestBase
+import org.kopi.galite.util.base.Metrics
+import org.kopi.galite.visual.ApplicationContext
+import org.kopi.galite.visual.ImageHandler
+import org.kopi.galite.visual.MenuTreeCache
+import org.kopi.galite.visual.VMenuTree
+import org.kopi.galite.visual.ui.vaadin.base.Image
+
+class MenuTreeCacheTests : VApplicationTestBase() {
+
+  @Before
+  fun `insert modules`() {
+    ApplicationContext.applicationContext.getApplication().dBConnection = connection
+    // the vaadin image handler has no images: resolve the symbols by their name
+    ImageHandler.imageHandler = object : ImageHandler() {
+      override fun getImage(image: String): Image = Image(resource = image)
+
+      override fun getImage(image: ByteArray): Image = Image(source = image)
+
+      override fun getURL(image: String): String = image
+    }
+    MenuTreeCache.invalidate()
+    transaction(connection.dbConnection) {
+      val symbol = Symbols.insert {
+        it[ts] = 0
+        it[shortName] = "folder"
+        it[objectName] = "folder.png"
+      } get Symbols.id
+
+      insertIntoModule("2000", "org/kopi/galite/test/Menu", 0, symbolNumber = symbol)
+      insertIntoModule("2001", "org/kopi/galite/test/Menu", 1, "2000", FormSample::class)
+      insertIntoModule("2002", "org/kopi/galite/test/Menu", 2, "2000", FormSample::class)
+    }
+  }
+
+  @After
+  fun `delete modules`() {
+    transaction(connection.dbConnection) {
+      GroupRights.deleteAll()
+      GroupParties.deleteAll()
+      Groups.deleteAll()
+      UserRights.deleteAll()
+      Modules.deleteAll()
+      Symbols.deleteAll()
+    }
+    MenuTreeCache.invalidate()
+    ImageHandler.imageHandler = imageHandler
+  }
+
+  @Test
+  fun `modules and symbols are loaded in a single query`() {
+    val statements = mutableListOf<String>()
+    val menuTree = transaction(connection.dbConnection) {
+      addLogger(object : SqlLogger {
+        override fun log(context: StatementContext, transaction: Transaction) {
+          statements.add(context.expandArgs(transaction))
+        }
+      })
+      VMenuTree(connection, false, TEST_DB_USER, false)
+    }
+    // the stamps of the cache count the symbols: only the module query reads their values
+    val symbolQueries = statements.filter { it.contains("SYMBOLE") && !it.contains("COUNT(") }
+    val modules = menuTree.getModules().associateBy { it.toString() }
+
+    assertEquals(1, symbolQueries.size)
+    assertTrue(symbolQueries.single().contains("LEFT JOIN SYMBOLE"))
+
+    assertEquals("folder.png", (modules["2000"]!!.icon as Image).resource)
+    assertNull(modules["2001"]!!.icon)
+  }
+
+  @Test
+  fun `group and user rights are loaded in a single query`() {
+    val statements = mutableListOf<String>()
+
+    transaction(connection.dbConnection) {
+      addLogger(object : SqlLogger {
+        override fun log(context: StatementContext, transaction: Transaction) {
+          statements.add(context.expandArgs(transaction))
+        }
+      })
+      VMenuTree(connection, false, TEST_DB_USER, false)
+    }
+    // the stamps of the cache count the rights: only the rights query reads their values
+    val rightsQueries = statements.filter {
+      (it.contains("GRUPPENRECHTE") || it.contains("BENUTZERRECHTE")) && !it.contains("COUNT(")
+    }
+
+    assertEquals(1, rightsQueries.size)
+    assertTrue(rightsQueries.single().contains("UNION ALL"))
+  }
+
+  @Test
+  fun `user rights override group rights`() {
+    transaction(connection.dbConnection) {
+      val user = Users.slice(Users.id).select { Users.shortName eq TEST_DB_USER }.single()[Users.id]
+      val group = Groups.insert {
+        it[ts] = 0
+        it[shortName] = "GROUP"
+        it[description] = "Test group"
+      } get Groups.id
+
+      GroupParties.insert {
+        it[ts] = 0
+        it[this.user] = user
+        it[this.group] = group
+      }
+      // the group denies both forms, the user is only granted the second one
+      listOf("2001", "2002").forEach { shortName ->
+        GroupRights.insert {
+          it[ts] = 0
+          it[this.group] = group
+          it[module] = moduleId(shortName)
+          it[access] = false
+        }
+      }
+      UserRights.deleteWhere { module eq moduleId("2001") }
+    }
+
+    val modules = accessibleModules()
+
+    assertFalse("2001" in modules)
+    assertTrue("2002" in modules)
+  }
+
+  @Test
+  fun `rights changed with a new timestamp are read at the next login`() {
+    assertTrue("2002" in accessibleModules())
+
+    val hits = Metrics.counter("galite.menu.cache.hits").count
+
+    transaction(connection.dbConnection) {
+      UserRights.update({ UserRights.module eq moduleId("2002") }) {
+        it[access] = false
+        it[ts] = 1
+      }
+    }
+
+    val modules = accessibleModules()
+
+    assertTrue("2001" in modules)
+    assertFalse("2002" in modules)
+    // the modules are still cached, the rights are read again
+    assertEquals(hits + 1, Metrics.counter("galite.menu.cache.hits").count)
+  }
+
+  @Test
+  fun `rights changed without a new timestamp need an invalidation`() {
+    assertTrue("2002" in accessibleModules())
+
+    transaction(connection.dbConnection) {
+      UserRights.update({ UserRights.module eq moduleId("2002") }) {
+        it[access] = false
+      }
+    }
+
+    assertTrue("2002" in accessibleModules())
+
+    MenuTreeCache.invalidate()
+
+    assertFalse("2002" in accessibleModules())
+  }
+
+  /**
+   * Logs in the test user and returns the short names of the accessible modules.
+   */
+  private fun accessibleModules(): List<String> =
+    VMenuTree(connection, false, TEST_DB_USER, false).moduleArray.map { it.toString() }
+
+  private fun moduleId(shortName: String): Int =
+    Modules.slice(Modules.id).select { Modules.shortName eq shortName }.single()[Modules.id]
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2013-2026 kopiLeft Services SARL, Tunis TN
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1 as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package org.kopi.galite.tests.visual
+
+import kotlin.test.assertFailsWith
+import kotlin.test.assertIs
+import kotlin.test.assertNotSame
+
+import org.junit.Test
+import org.kopi.galite.tests.form.FormSample
+import org.kopi.galite.tests.ui.vaadin.VApplicationTestBase
+import org.kopi.galite.visual.Module
+import org.kopi.galite.visual.VRuntimeException
+import org.kopi.galite.visual.form.VForm
+
+class ModuleTests : VApplicationTestBase() {
+
+  @Test
+  fun getExecutableTest() {
+    val first = Module.getExecutable(FormSample::class.java.name)
+    val second = Module.getExecutable(FormSample::class.java.name)
+
+    assertIs<VForm>(first)
+    // each call opens a new form
+    assertNotSame(first, second)
+    assertFailsWith<VRuntimeException> {
+      Module.getExecutable("org.kopi.galite.tests.visual.UnknownForm")
+    }
+  }
+}
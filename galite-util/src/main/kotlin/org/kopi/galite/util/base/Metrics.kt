@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2013-2026 kopiLeft Services SARL, Tunis TN
+ * Copyright (c) 1990-2026 kopiRight Managed Solutions GmbH, Wien AT
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License version 2.1 as published by the Free Software Foundation.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package org.kopi.galite.util.base
+
+import java.util.SortedMap
+import java.util.TreeMap
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.LongAccumulator
+import java.util.concurrent.atomic.LongAdder
+
+/**
+ * JVM-wide registry of the runtime metrics of the framework.
+ *
+ * Metrics are identified by dotted names like "galite.block.prefetch.hits". They
+ * can be read with [snapshot] and exported to any monitoring system by the application.
+ */
+object Metrics {
+
+  private val counters = ConcurrentHashMap<String, Counter>()
+  private val timers = ConcurrentHashMap<String, Timer>()
+  private val gauges = ConcurrentHashMap<String, () -> Number>()
+
+  /**
+   * Returns the counter with the given name, creating it if necessary.
+   */
+  fun counter(name: String): Counter = counters.computeIfAbsent(name) { Counter() }
+
+  /**
+   * Returns the timer with the given name, creating it if necessary.
+   */
+  fun timer(name: String): Timer = timers.computeIfAbsent(name) { Timer() }
+
+  /**
+   * Registers a gauge whose value is computed each time the metrics are read.
+   */
+  fun gauge(name: String, value: () -> Number) {
+    gauges[name] = value
+  }
+
+  /**
+   * Removes the gauge with the given name.
+   */
+  fun removeGauge(name: String) {
+    gauges.remove(name)
+  }
+
+  /**
+   * Returns the current values of all the registered metrics, sorted by name.
+   * Timers are reported by their count, total and maximum in milliseconds.
+   */
+  fun snapshot(): SortedMap<String, Number> {
+    val values = TreeMap<String, Number>()
+
+    counters.forEach { (name, counter) -> values[name] = counter.count }
+    timers.forEach { (name, timer) ->
+      values["$name.count"] = timer.count
+      values["$name.totalMillis"] = timer.totalNanos / 1_000_000.0
+      values["$name.maxMillis"] = timer.maxNanos / 1_000_000.0
+    }
+    gauges.forEach { (name, gauge) -> values[name] = gauge() }
+
+    return values
+  }
+
+  /**
+   * A monotonic counter.
+   */
+  class Counter internal constructor() {
+    private val adder = LongAdder()
+
+    val count: Long
+      get() = adder.sum()
+
+    fun increment() {
+      adder.increment()
+    }
+
+    fun add(value: Long) {
+      adder.add(value)
+    }
+  }
+
+  /**
+   * A timer recording the count, the total and the maximum duration of an operation.
+   */
+  class Timer internal constructor() {
+    private val counter = LongAdder()
+    private val total = LongAdder()
+    private val max = LongAccumulator({ x, y -> maxOf(x, y) }, 0)
+
+    val count: Long
+      get() = counter.sum()
+
+    val totalNanos: Long
+      get() = total.sum()
+
+    val maxNanos: Long
+      get() = max.get()
+
+    fun record(nanos: Long) {
+      counter.increment()
+      total.add(nanos)
+      max.accumulate(nanos)
+    }
+
+    /**
+     * Executes the given block and records its duration.
+     */
+    inline fun <T> time(block: () -> T): T {
+      val start = System.nanoTime()
+
+      try {
+        return block()
+      } finally {
+        record(System.nanoTime() - start)
+      }
+    }
+  }
+}